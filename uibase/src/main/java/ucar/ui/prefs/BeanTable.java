@@ -8,7 +8,9 @@ package ucar.ui.prefs;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ucar.ui.table.BeanMetadata;
 import ucar.ui.table.HidableTableColumnModel;
+import ucar.ui.table.PropertyAccessor;
 import ucar.ui.table.TableAligner;
 import ucar.ui.table.TableAppearanceAction;
 import ucar.ui.table.UndoableRowSorter;
@@ -665,19 +667,17 @@ public class BeanTable<T> extends JPanel {
   /** Do the reflection on the bean objects */
   public class TableBeanModel extends AbstractTableModel {
     public List<PropertyDescriptor> properties = new ArrayList<>();
-    private Method canedit;
+    protected List<PropertyAccessor> accessors = new ArrayList<>(); // parallel to properties
+    private Function<Object, Object> canedit;
 
     protected TableBeanModel() {}
 
     protected TableBeanModel(Class<?> beanClass) {
-      // get bean info
-      BeanInfo info;
+      // the introspection is done once per bean class, and shared with the other tables
+      BeanMetadata meta;
       try {
-        if (!beanClass.isInterface())
-          info = Introspector.getBeanInfo(beanClass, Object.class);
-        else
-          info = Introspector.getBeanInfo(beanClass); // allows interfaces to be beans
-      } catch (IntrospectionException e) {
+        meta = BeanMetadata.of(beanClass);
+      } catch (IllegalArgumentException e) {
         e.printStackTrace();
         return;
       }
@@ -685,87 +685,24 @@ public class BeanTable<T> extends JPanel {
       if (debugBean)
         System.out.println("Bean " + beanClass.getName());
 
-      // see if editableProperties method exists
-      String editableProperties = "";
-      MethodDescriptor[] mds = info.getMethodDescriptors();
-      if (mds == null)
-        throw new IllegalStateException("no public methods");
-
-      for (MethodDescriptor md : mds) {
-        Method m = md.getMethod();
-        if (m != null && m.getName().equals("editableProperties")) {
-          try {
-            editableProperties = (String) m.invoke(null, (Object[]) null); // try static
-            if (debugEditing)
-              System.out.println(" static editableProperties: " + editableProperties);
-          } catch (Exception ee) {
-
-            if (innerbean != null) {
-              try {
-                editableProperties = (String) m.invoke(innerbean, (Object[]) null); // try non static
-                if (debugEditing)
-                  System.out.println(" editableProperties: " + editableProperties);
-              } catch (Exception e2) {
-                e2.printStackTrace();
-              }
-
-            } else {
-              ee.printStackTrace();
-            }
-          }
-        }
-      }
+      String editableProperties = meta.getEditableProperties(innerbean);
+      if (debugEditing)
+        System.out.println(" editableProperties: " + editableProperties);
 
-      // see if hiddenProperties method exists
-      String hiddenProperties = "";
-      for (MethodDescriptor md : mds) {
-        Method m = md.getMethod();
-
-        if (m.getName().equals("hiddenProperties")) {
-          try {
-            hiddenProperties = (String) m.invoke(null, (Object[]) null); // class property
-            if (debugBean)
-              System.out.println(" hiddenProperties: " + hiddenProperties);
-
-          } catch (Exception ee) {
-            if (innerbean != null) {
-              try {
-                hiddenProperties = (String) m.invoke(innerbean, (Object[]) null); // try non static
-                if (debugBean)
-                  System.out.println(" hiddenProperties: " + hiddenProperties);
-              } catch (Exception e2) {
-                e2.printStackTrace();
-              }
-
-            } else {
-              System.out.println("BeanTable: Bad hiddenProperties ");
-              ee.printStackTrace();
-            }
-          }
-        }
-      }
+      String hiddenProperties = meta.getHiddenProperties(innerbean);
+      if (debugBean)
+        System.out.println(" hiddenProperties: " + hiddenProperties);
 
-      // see if canedit method exists
-      if (innerbean != null) {
-        for (MethodDescriptor md : mds) {
-          Method m = md.getMethod();
-          if (m.getName().equals("canedit")) {
-            try {
-              boolean canedit = (Boolean) m.invoke(innerbean, (Object[]) null); // see if method returns boolean
-              this.canedit = canedit ? m : null;
-              if (debugEditing) System.out.printf("BeanTable canedit: %s ", innerbean.getClass().getName());
-            } catch (Exception e2) {
-              e2.printStackTrace();
-            }
-          }
-        }
-      }
+      this.canedit = meta.getCanedit(innerbean);
+      if (debugEditing && canedit != null)
+        System.out.printf("BeanTable canedit: %s ", innerbean.getClass().getName());
 
       // properties must have read method, not be hidden
-      PropertyDescriptor[] pds = info.getPropertyDescriptors();
-      for (PropertyDescriptor pd : pds) {
-        if ((pd.getReadMethod() != null) && !isHidden(pd, hiddenProperties)) {
+      for (PropertyAccessor accessor : meta.getProperties()) {
+        PropertyDescriptor pd = BeanMetadata.copy(accessor.getDescriptor()); // this table's names and editable
+        if (!isHidden(pd, hiddenProperties)) {
           properties.add(pd);
+          accessors.add(accessor);
           // preferred == editable
           setEditable(pd, editableProperties);
         }
@@ -774,7 +711,7 @@ public class BeanTable<T> extends JPanel {
       if (debugBean) {
         System.out.println("Properties:");
         System.out.println("  display name  type   read()       write()         editable");
-        for (PropertyDescriptor pd : pds) {
+        for (PropertyDescriptor pd : properties) {
           String displayName = pd.getDisplayName();
           String name = pd.getName();
           Class<?> type = pd.getPropertyType();
@@ -824,8 +761,7 @@ public class BeanTable<T> extends JPanel {
       Object value = "N/A";
       PropertyDescriptor pd = properties.get(col);
       try {
-        Method m = pd.getReadMethod();
-        value = m.invoke(bean, (Object[]) null);
+        value = accessors.get(col).get(bean);
       } catch (Exception ee) {
         System.out.println(
             "BeanTable: Bad getReadMethod " + row + " " + col + " " + beanClass.getName() + " " + pd.getDisplayName());
@@ -839,8 +775,7 @@ public class BeanTable<T> extends JPanel {
     public Object getValueAt(Object bean, int col) {
       Object value = "N/A";
       try {
-        Method m = properties.get(col).getReadMethod();
-        value = m.invoke(bean, (Object[]) null);
+        value = accessors.get(col).get(bean);
       } catch (Exception ee) {
         logger.error("BeanTable: Bad bean=" + bean.getClass().getName() + ", beanClass=" + beanClass.getName());
         logger.error("BeanTable: getValueAt error message= {}", ee.getMessage());
@@ -868,7 +803,7 @@ public class BeanTable<T> extends JPanel {
       if (this.canedit == null) return true;
       Object bean = beans.get(row);
       try {
-        boolean ok = (Boolean) this.canedit.invoke(bean, (Object[]) null); // can canedit method
+        boolean ok = (Boolean) this.canedit.apply(bean); // can canedit method
         if (debugEditing) System.out.println("isRowEditable " + row + " == " + ok);
         return ok;
       } catch (Exception e2) {
@@ -880,12 +815,10 @@ public class BeanTable<T> extends JPanel {
     public void setValueAt(Object value, int row, int col) {
       Object bean = beans.get(row);
       try {
-        Object[] params = new Object[1];
-        params[0] = value;
-        Method m = properties.get(col).getWriteMethod();
-        if (m != null) {
-          m.invoke(bean, params);
-          if (debugEditing) System.out.println("invoke " + m);
+        PropertyAccessor accessor = accessors.get(col);
+        if (accessor.isWritable()) {
+          accessor.set(bean, value);
+          if (debugEditing) System.out.println("set " + accessor);
         }
       } catch (Exception ee) {
         ee.printStackTrace();
@@ -1171,6 +1104,7 @@ public class BeanTable<T> extends JPanel {
       for (PropertyDescriptor pd : pds) {
         if (pd.getReadMethod() != null) {
           properties.add(pd);
+          accessors.add(new PropertyAccessor(pd));
         }
       }
     }
@@ -0,0 +1,177 @@
+package ucar.ui.table;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.MethodDescriptor;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * What a bean table needs to know about a bean class: its readable properties with their accessors, and its
+ * editableProperties(), hiddenProperties() and canedit() methods, if any.
+ * The introspection is done once per class, and shared by every table in the process that shows that class.
+ * Use of(beanClass) to get it, and prewarm() to do it for a list of classes in the background.
+ */
+public class BeanMetadata {
+  private static final Logger logger = LoggerFactory.getLogger(BeanMetadata.class);
+
+  private static final ClassValue<BeanMetadata> cache = new ClassValue<>() {
+    @Override
+    protected BeanMetadata computeValue(Class<?> beanClass) {
+      return new BeanMetadata(beanClass);
+    }
+  };
+
+  /** The metadata of this class, computed the first time its asked for. */
+  public static BeanMetadata of(Class<?> beanClass) {
+    return cache.get(beanClass);
+  }
+
+  /** Compute the metadata of these classes on a low priority daemon thread, so the tables dont have to. */
+  public static Thread prewarm(Collection<Class<?>> beanClasses) {
+    Thread thread = new Thread(() -> {
+      long start = System.nanoTime();
+      for (Class<?> beanClass : beanClasses) {
+        try {
+          of(beanClass);
+        } catch (RuntimeException e) {
+          logger.warn("BeanMetadata prewarm failed for {}", beanClass.getName(), e);
+        }
+      }
+      logger.debug("BeanMetadata prewarm of {} classes took {} msecs", beanClasses.size(),
+          (System.nanoTime() - start) / 1_000_000);
+    }, "BeanMetadata.prewarm");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    thread.start();
+    return thread;
+  }
+
+  /**
+   * A copy of a shared PropertyDescriptor, for one table to change its display name, tooltip and editable flag.
+   */
+  public static PropertyDescriptor copy(PropertyDescriptor pd) {
+    try {
+      return new PropertyDescriptor(pd.getName(), pd.getReadMethod(), pd.getWriteMethod());
+    } catch (IntrospectionException e) {
+      logger.warn("BeanMetadata cant copy property {}", pd.getName(), e);
+      return pd;
+    }
+  }
+
+  ////////////////////////////////////////////////////////////////////////////////
+
+  private final Class<?> beanClass;
+  private final List<PropertyAccessor> properties; // those with a read method, in introspection order
+  private final Method editableMethod, hiddenMethod, caneditMethod; // null if not present
+  private final String staticEditable, staticHidden; // null if not a static method
+  private final Function<Object, Object> canedit;
+
+  private BeanMetadata(Class<?> beanClass) {
+    this.beanClass = beanClass;
+    BeanInfo info;
+    try {
+      if (!beanClass.isInterface())
+        info = Introspector.getBeanInfo(beanClass, Object.class);
+      else
+        info = Introspector.getBeanInfo(beanClass); // allows interfaces to be beans
+    } catch (IntrospectionException e) {
+      throw new IllegalArgumentException("cant introspect " + beanClass.getName(), e);
+    }
+
+    MethodDescriptor[] mds = info.getMethodDescriptors();
+    if (mds == null)
+      throw new IllegalStateException("no public methods");
+    Method editable = null, hidden = null, caneditM = null;
+    for (MethodDescriptor md : mds) {
+      Method m = md.getMethod();
+      if (m == null)
+        continue;
+      switch (m.getName()) {
+        case "editableProperties" -> editable = m;
+        case "hiddenProperties" -> hidden = m;
+        case "canedit" -> caneditM = m;
+      }
+    }
+    this.editableMethod = editable;
+    this.hiddenMethod = hidden;
+    this.caneditMethod = caneditM;
+    this.staticEditable = invokeStatic(editable);
+    this.staticHidden = invokeStatic(hidden);
+    this.canedit = (caneditM == null) ? null : PropertyAccessor.makeGetter(caneditM);
+
+    List<PropertyAccessor> props = new ArrayList<>();
+    for (PropertyDescriptor pd : info.getPropertyDescriptors()) {
+      if (pd.getReadMethod() != null)
+        props.add(new PropertyAccessor(pd));
+    }
+    this.properties = Collections.unmodifiableList(props);
+  }
+
+  // the value of a static String method, or null if theres no such method, or its not static
+  private static String invokeStatic(Method m) {
+    if (m == null)
+      return null;
+    try {
+      return (String) m.invoke(null, (Object[]) null);
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  // the value of an instance String method
+  private String invokeInstance(Method m, Object innerbean) {
+    if (m == null)
+      return "";
+    if (innerbean == null) {
+      logger.warn("BeanTable: {}.{} isnt static, and theres no innerbean", beanClass.getName(), m.getName());
+      return "";
+    }
+    try {
+      return (String) m.invoke(innerbean, (Object[]) null); // try non static
+    } catch (Exception e) {
+      logger.warn("BeanTable: {}.{} failed", beanClass.getName(), m.getName(), e);
+      return "";
+    }
+  }
+
+  public Class<?> getBeanClass() {
+    return beanClass;
+  }
+
+  /** All the properties with a read method, including hidden ones. Share the accessors, but copy() the descriptors. */
+  public List<PropertyAccessor> getProperties() {
+    return properties;
+  }
+
+  /** The space separated names from editableProperties(), or "". innerbean is needed if its not static. */
+  public String getEditableProperties(Object innerbean) {
+    return (staticEditable != null) ? staticEditable : invokeInstance(editableMethod, innerbean);
+  }
+
+  /** The space separated names from hiddenProperties(), or "". innerbean is needed if its not static. */
+  public String getHiddenProperties(Object innerbean) {
+    return (staticHidden != null) ? staticHidden : invokeInstance(hiddenMethod, innerbean);
+  }
+
+  /** The canedit() accessor, if innerbean says rows may be edited; else null. */
+  public Function<Object, Object> getCanedit(Object innerbean) {
+    if (canedit == null || innerbean == null)
+      return null;
+    try {
+      return Boolean.TRUE.equals(canedit.apply(innerbean)) ? canedit : null; // see if method returns boolean
+    } catch (Exception e) {
+      logger.warn("BeanTable: {}.canedit failed", beanClass.getName(), e);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,186 @@
+package ucar.ui.table;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Reads and writes one bean property through lambdas made once with LambdaMetafactory, so a call costs about
+ * the same as calling the getter directly, instead of Method.invoke on every cell.
+ * int, long and double properties also have unboxed getters, for sorting.
+ * If a method cant be linked (eg its class isnt accessible), falls back to reflection.
+ */
+public class PropertyAccessor {
+  private final PropertyDescriptor pd;
+  private final Class<?> type;
+  private final Function<Object, Object> getter;
+  private final ToIntFunction<Object> intGetter; // null unless type is int
+  private final ToLongFunction<Object> longGetter; // null unless type is long
+  private final ToDoubleFunction<Object> doubleGetter; // null unless type is double
+  private final BiConsumer<Object, Object> setter; // null if read only
+
+  @SuppressWarnings("unchecked")
+  public PropertyAccessor(PropertyDescriptor pd) {
+    this.pd = pd;
+    this.type = pd.getPropertyType();
+    Method rm = pd.getReadMethod();
+    if (rm == null)
+      throw new IllegalArgumentException("property " + pd.getName() + " has no read method");
+
+    this.getter = makeGetter(rm);
+    this.intGetter = (type == int.class) ? makePrimitive(rm, ToIntFunction.class, "applyAsInt", int.class) : null;
+    this.longGetter = (type == long.class) ? makePrimitive(rm, ToLongFunction.class, "applyAsLong", long.class) : null;
+    this.doubleGetter =
+        (type == double.class) ? makePrimitive(rm, ToDoubleFunction.class, "applyAsDouble", double.class) : null;
+
+    Method wm = pd.getWriteMethod();
+    this.setter = (wm == null) ? null : makeSetter(wm);
+  }
+
+  public PropertyDescriptor getDescriptor() {
+    return pd;
+  }
+
+  public String getName() {
+    return pd.getName();
+  }
+
+  public Class<?> getType() {
+    return type;
+  }
+
+  public boolean isWritable() {
+    return setter != null;
+  }
+
+  public Object get(Object bean) {
+    return getter.apply(bean);
+  }
+
+  public int getInt(Object bean) {
+    return (intGetter != null) ? intGetter.applyAsInt(bean) : ((Number) getter.apply(bean)).intValue();
+  }
+
+  public long getLong(Object bean) {
+    return (longGetter != null) ? longGetter.applyAsLong(bean) : ((Number) getter.apply(bean)).longValue();
+  }
+
+  public double getDouble(Object bean) {
+    return (doubleGetter != null) ? doubleGetter.applyAsDouble(bean) : ((Number) getter.apply(bean)).doubleValue();
+  }
+
+  public void set(Object bean, Object value) {
+    if (setter == null)
+      throw new UnsupportedOperationException("property " + pd.getName() + " is read only");
+    setter.accept(bean, value);
+  }
+
+  @Override
+  public String toString() {
+    return "PropertyAccessor{" + pd.getName() + " " + type.getName() + (isWritable() ? " rw" : " r") + "}";
+  }
+
+  ////////////////////////////////////////////////////////////////////////////////
+
+  /** A no-argument instance method as a Function, eg a getter or canedit(). */
+  @SuppressWarnings("unchecked")
+  public static Function<Object, Object> makeGetter(Method m) {
+    try {
+      MethodHandles.Lookup lookup = lookupFor(m);
+      MethodHandle mh = lookup.unreflect(m);
+      CallSite site = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+          MethodType.methodType(Object.class, Object.class), mh,
+          MethodType.methodType(wrap(m.getReturnType()), m.getDeclaringClass()));
+      return (Function<Object, Object>) site.getTarget().invoke();
+    } catch (Throwable t) {
+      trySetAccessible(m);
+      return bean -> invoke(m, bean);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <F> F makePrimitive(Method m, Class<F> fclass, String samName, Class<?> primitive) {
+    try {
+      MethodHandles.Lookup lookup = lookupFor(m);
+      MethodHandle mh = lookup.unreflect(m);
+      CallSite site = LambdaMetafactory.metafactory(lookup, samName, MethodType.methodType(fclass),
+          MethodType.methodType(primitive, Object.class), mh, MethodType.methodType(primitive, m.getDeclaringClass()));
+      return (F) site.getTarget().invoke();
+    } catch (Throwable t) {
+      return null; // use the boxed getter
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static BiConsumer<Object, Object> makeSetter(Method m) {
+    try {
+      MethodHandles.Lookup lookup = lookupFor(m);
+      MethodHandle mh = lookup.unreflect(m);
+      CallSite site = LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(BiConsumer.class),
+          MethodType.methodType(void.class, Object.class, Object.class), mh,
+          MethodType.methodType(void.class, m.getDeclaringClass(), wrap(m.getParameterTypes()[0])));
+      return (BiConsumer<Object, Object>) site.getTarget().invoke();
+    } catch (Throwable t) {
+      trySetAccessible(m);
+      return (bean, value) -> invoke(m, bean, value);
+    }
+  }
+
+  // the lambda class is defined alongside the bean class, so it can see it
+  private static MethodHandles.Lookup lookupFor(Method m) throws IllegalAccessException {
+    return MethodHandles.privateLookupIn(m.getDeclaringClass(), MethodHandles.lookup());
+  }
+
+  private static void trySetAccessible(Method m) {
+    try {
+      m.setAccessible(true);
+    } catch (RuntimeException e) {
+      // invoke will fail the same way it always did
+    }
+  }
+
+  private static Object invoke(Method m, Object bean, Object... args) {
+    try {
+      return m.invoke(bean, args);
+    } catch (InvocationTargetException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      throw new RuntimeException(cause);
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public static Class<?> wrap(Class<?> c) {
+    if (!c.isPrimitive())
+      return c;
+    if (c == boolean.class)
+      return Boolean.class;
+    if (c == int.class)
+      return Integer.class;
+    if (c == long.class)
+      return Long.class;
+    if (c == double.class)
+      return Double.class;
+    if (c == float.class)
+      return Float.class;
+    if (c == short.class)
+      return Short.class;
+    if (c == byte.class)
+      return Byte.class;
+    if (c == char.class)
+      return Character.class;
+    return Void.class;
+  }
+}
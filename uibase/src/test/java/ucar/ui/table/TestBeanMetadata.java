@@ -0,0 +1,53 @@
+package ucar.ui.table;
+
+import org.junit.Test;
+
+import java.beans.PropertyDescriptor;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class TestBeanMetadata {
+
+  public static class Bean {
+    public static String hiddenProperties() {
+      return "secret";
+    }
+
+    public static String editableProperties() {
+      return "name";
+    }
+
+    public String getName() {
+      return "name";
+    }
+
+    public void setName(String name) {}
+
+    public String getSecret() {
+      return "secret";
+    }
+  }
+
+  @Test
+  public void testShared() {
+    BeanMetadata meta = BeanMetadata.of(Bean.class);
+    assertThat(BeanMetadata.of(Bean.class)).isSameInstanceAs(meta);
+    assertThat(meta.getHiddenProperties(null)).isEqualTo("secret");
+    assertThat(meta.getEditableProperties(null)).isEqualTo("name");
+    assertThat(meta.getCanedit(null)).isNull();
+
+    List<String> names = meta.getProperties().stream().map(PropertyAccessor::getName).collect(Collectors.toList());
+    assertThat(names).containsExactly("name", "secret");
+  }
+
+  @Test
+  public void testCopyIsIndependent() {
+    PropertyDescriptor shared = BeanMetadata.of(Bean.class).getProperties().get(0).getDescriptor();
+    PropertyDescriptor copy = BeanMetadata.copy(shared);
+    copy.setDisplayName("changed");
+    assertThat(copy.getName()).isEqualTo(shared.getName());
+    assertThat(shared.getDisplayName()).isNotEqualTo("changed");
+  }
+}
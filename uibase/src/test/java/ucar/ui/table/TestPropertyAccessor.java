@@ -0,0 +1,79 @@
+package ucar.ui.table;
+
+import org.junit.Test;
+
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class TestPropertyAccessor {
+
+  public static class Bean {
+    private int count = 3;
+    private double value = 1.5;
+
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(int count) {
+      this.count = count;
+    }
+
+    public double getValue() {
+      return value;
+    }
+
+    public String getName() {
+      return "name";
+    }
+
+    public boolean isOk() {
+      return true;
+    }
+  }
+
+  // not public, so the accessor may have to fall back to reflection
+  static class HiddenBean {
+    public long getId() {
+      return 42L;
+    }
+  }
+
+  private static Map<String, PropertyAccessor> accessors(Class<?> beanClass) throws Exception {
+    Map<String, PropertyAccessor> result = new HashMap<>();
+    for (PropertyDescriptor pd : Introspector.getBeanInfo(beanClass, Object.class).getPropertyDescriptors()) {
+      result.put(pd.getName(), new PropertyAccessor(pd));
+    }
+    return result;
+  }
+
+  @Test
+  public void testGetAndSet() throws Exception {
+    Map<String, PropertyAccessor> acc = accessors(Bean.class);
+    Bean bean = new Bean();
+
+    assertThat(acc.get("count").get(bean)).isEqualTo(3);
+    assertThat(acc.get("count").getInt(bean)).isEqualTo(3);
+    assertThat(acc.get("value").getDouble(bean)).isEqualTo(1.5);
+    assertThat(acc.get("name").get(bean)).isEqualTo("name");
+    assertThat(acc.get("ok").get(bean)).isEqualTo(true);
+
+    assertThat(acc.get("count").isWritable()).isTrue();
+    assertThat(acc.get("name").isWritable()).isFalse();
+    acc.get("count").set(bean, 7);
+    assertThat(bean.getCount()).isEqualTo(7);
+    assertThat(acc.get("count").getLong(bean)).isEqualTo(7L);
+  }
+
+  @Test
+  public void testNotPublic() throws Exception {
+    Map<String, PropertyAccessor> acc = accessors(HiddenBean.class);
+    HiddenBean bean = new HiddenBean();
+    assertThat(acc.get("id").get(bean)).isEqualTo(42L);
+    assertThat(acc.get("id").getLong(bean)).isEqualTo(42L);
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+
+package org.cryptobiotic.rlauxe.viewer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ucar.ui.widget.ProgressMonitorTask;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads an audit record and prepares the beans for each panel, in a background thread.
+ * Run it with a ucar.ui.widget.ProgressMonitor; when it succeeds, call publish() on the EDT.
+ * The other panels are prepared later by a PanelActivator.
+ */
+class AuditRecordLoader extends ProgressMonitorTask {
+  static private final Logger logger = LoggerFactory.getLogger(AuditRecordLoader.class);
+
+  private final String location;
+  private final List<ViewerPanelIF> panels;
+  private final boolean useCache;
+  private final List<Runnable> publishers = new ArrayList<>();
+  private AuditRecordSession session;
+  private volatile Thread worker;
+
+  AuditRecordLoader(String location, List<ViewerPanelIF> panels, boolean useCache) {
+    this.location = location;
+    this.panels = new ArrayList<>(panels);
+    this.useCache = useCache;
+  }
+
+  // number of steps, for ProgressMonitor.start()
+  int getProgressMaxCount() {
+    return panels.size() + 1;
+  }
+
+  List<ViewerPanelIF> getPanels() {
+    return panels;
+  }
+
+  AuditRecordSession getSession() {
+    return session;
+  }
+
+  // the reads in progress cant be stopped, but the session's lazy reads and the panels check for the interrupt
+  @Override
+  public void cancel() {
+    super.cancel();
+    Thread thread = worker;
+    if (thread != null) thread.interrupt();
+  }
+
+  private boolean isCancelled() {
+    return cancel || Thread.currentThread().isInterrupted();
+  }
+
+  @Override
+  public void run() {
+    worker = Thread.currentThread();
+    try {
+      setProgress("reading " + location, 1);
+      this.session = AuditRecordSession.open(location, useCache);
+      if (isCancelled()) {
+        done = true;
+        return;
+      }
+      if (session == null) {
+        setError(String.format("No AuditRecord in %s", location));
+        done = true;
+        return;
+      }
+
+      int count = 1;
+      for (var panel : panels) {
+        if (isCancelled()) break;
+        setProgress("loading " + panel.getClass().getSimpleName(), ++count);
+        publishers.add(prepare(panel));
+      }
+      success = !isCancelled();
+
+    } catch (Throwable t) {
+      if (!isCancelled()) {
+        logger.error("AuditRecordLoader failed on {}", location, t);
+        setError(t.getMessage() == null ? t.toString() : t.getMessage());
+      }
+    } finally {
+      worker = null;
+    }
+    if (!success) publishers.forEach(PanelActivator::discard);
+    done = true;
+  }
+
+  private Runnable prepare(ViewerPanelIF panel) {
+    String panelName = panel.getClass().getSimpleName();
+    try {
+      long start = System.nanoTime();
+      var publisher = panel.prepareAuditRecord(session);
+      logger.debug("{} prepareAuditRecord took {} msecs", panelName, (System.nanoTime() - start) / 1_000_000);
+      return publisher;
+    } catch (Exception e) {
+      if (isCancelled()) return null;
+      // one bad panel shouldnt stop the others
+      logger.error("{} prepareAuditRecord failed", panelName, e);
+      return PanelActivator.failed(panelName, e);
+    }
+  }
+
+  /** Call on the EDT after the task succeeds. */
+  void publish() {
+    for (var publisher : publishers) {
+      if (publisher == null) continue;
+      try {
+        publisher.run();
+      } catch (Exception e) {
+        JOptionPane.showMessageDialog(null, e.getMessage());
+        logger.error("AuditRecordLoader.publish failed", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+
+package org.cryptobiotic.rlauxe.viewer;
+
+import org.cryptobiotic.rlauxe.persist.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches an audit record directory (and its subdirectories) for files written by the rlauxe workflow.
+ * Bursts of writes are debounced; the listener gets the set of changed paths on the EDT, once things are quiet.
+ */
+public class AuditRecordWatcher implements Closeable {
+  static private final Logger logger = LoggerFactory.getLogger(AuditRecordWatcher.class);
+
+  /** What part of the audit record changed. */
+  public enum Change {ROUNDS, MVRS, OTHER}
+
+  private final Path topdir;
+  private final WatchService watchService;
+  private final Set<Path> pending = ConcurrentHashMap.newKeySet();
+  private final Timer debounce; // fires on the EDT
+  private final Thread watchThread;
+
+  AuditRecordWatcher(String topdir, int debounceMsecs, Consumer<Set<Path>> listener) throws IOException {
+    this.topdir = Path.of(topdir);
+    this.watchService = FileSystems.getDefault().newWatchService();
+    try (Stream<Path> dirs = Files.walk(this.topdir, 3)) {
+      dirs.filter(Files::isDirectory).forEach(this::register);
+    }
+
+    this.debounce = new Timer(debounceMsecs, e -> {
+      Set<Path> changed = new HashSet<>(pending);
+      pending.removeAll(changed);
+      if (!changed.isEmpty()) listener.accept(changed);
+    });
+    this.debounce.setRepeats(false);
+
+    this.watchThread = Thread.ofPlatform().daemon().name("AuditRecordWatcher").start(this::watch);
+  }
+
+  private void register(Path dir) {
+    try {
+      dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+    } catch (IOException e) {
+      logger.warn("cant watch {}", dir, e);
+    }
+  }
+
+  private void watch() {
+    while (true) {
+      WatchKey key;
+      try {
+        key = watchService.take();
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        return;
+      }
+
+      Path dir = (Path) key.watchable();
+      for (WatchEvent<?> event : key.pollEvents()) {
+        if (event.kind() == OVERFLOW) {
+          pending.add(topdir); // lost events; reread everything
+          continue;
+        }
+        Path path = dir.resolve((Path) event.context());
+        if (path.getFileName().toString().startsWith(".")) continue; // hidden and temp files
+        if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) register(path);
+        pending.add(path);
+      }
+      key.reset();
+
+      // restart the quiet period
+      SwingUtilities.invokeLater(debounce::restart);
+    }
+  }
+
+  @Override
+  public void close() {
+    debounce.stop();
+    watchThread.interrupt();
+    try {
+      watchService.close();
+    } catch (IOException e) {
+      logger.warn("AuditRecordWatcher close failed", e);
+    }
+  }
+
+  /**
+   * Decide which parts of the session's audit record are affected by the changed paths.
+   * Only the files that Publisher names are known; anything else is OTHER, and the whole record is reread.
+   */
+  static Set<Change> classify(AuditRecordSession session, Set<Path> paths) {
+    var publisher = new Publisher(session.getLocation());
+    Path top = normalize(session.getLocation());
+    int nrounds = session.getAuditRecord().getRounds().size();
+
+    // the files and directories of the existing rounds and the next one
+    Set<Path> roundFiles = new HashSet<>();
+    Set<Path> roundDirs = new HashSet<>();
+    Set<Path> mvrsFiles = new HashSet<>();
+    mvrsFiles.add(normalize(publisher.sortedMvrsFile()));
+    for (int roundIdx = 1; roundIdx <= nrounds + 1; roundIdx++) {
+      Path estFile = normalize(publisher.auditEstFile(roundIdx));
+      roundFiles.add(estFile);
+      roundFiles.add(normalize(publisher.samplePrnsFile(roundIdx)));
+      mvrsFiles.add(normalize(publisher.sampleMvrsFile(roundIdx)));
+      if (!estFile.getParent().equals(top)) roundDirs.add(estFile.getParent());
+    }
+
+    Set<Change> result = EnumSet.noneOf(Change.class);
+    for (Path changed : paths) {
+      Path path = changed.toAbsolutePath().normalize();
+      if (path.equals(top)) {
+        result.add(Change.OTHER); // watch events were lost
+      } else if (mvrsFiles.contains(path)) {
+        result.add(Change.MVRS);
+      } else if (roundFiles.contains(path) || roundDirs.contains(path) || roundDirs.contains(path.getParent())) {
+        result.add(Change.ROUNDS);
+      } else {
+        result.add(Change.OTHER);
+      }
+    }
+    logger.debug("classify {} changed paths as {}", paths.size(), result);
+    return result;
+  }
+
+  private static Path normalize(String filename) {
+    return Path.of(filename).toAbsolutePath().normalize();
+  }
+}
@@ -154,7 +154,8 @@ public class AuditRoundsTable extends JPanel implements ViewerPanelIF {
         add(split4, BorderLayout.CENTER);
     }
 
-    public void getActions(JPanel container, ContestsPanel contestsPanel) {
+    // recordWritten is called on the EDT after Run Audit Round has written the new round
+    public void getActions(JPanel container, Runnable recordWritten) {
         AbstractAction startAction = new AbstractAction() {
             public void actionPerformed(ActionEvent e) {
                 resample();
@@ -166,8 +167,7 @@ public class AuditRoundsTable extends JPanel implements ViewerPanelIF {
         // TODO put into separate thread
         AbstractAction runAuditRoundAction = new AbstractAction() {
             public void actionPerformed(ActionEvent e) {
-                callRunRound();
-                contestsPanel.resetAuditRecord();
+                if (callRunRound()) recordWritten.run();
             }
         };
         BAMutil.setActionProperties(runAuditRoundAction, "hamster.png", "Run Audit Round", false, 'R', -1);
@@ -197,42 +197,53 @@ public class AuditRoundsTable extends JPanel implements ViewerPanelIF {
         rerunTA.setFontSize(size);
     }
 
-    public boolean setAuditRecord(String location) {
-        var auditRecord = AuditRecord.Companion.read(location);
-        if (auditRecord != null) setAuditRecord(auditRecord);
-        return (auditRecord != null);
+    @Override
+    public Runnable prepareAuditRecord(AuditRecordSession session) {
+        return prepareAuditRecord(session.getAuditRecord(), false);
     }
 
-        // TODO when resample from SampleTable, need to reread in the audit rounds
-    public void setAuditRecord(AuditRecordIF auditRecord) {
-        auditRoundTable.setBeans(null);
-        contestRoundTable.setBeans(null);
-        assertionTable.setBeans(null);
-        auditResultTable.setBeans(null);
-        estRoundTable.setBeans(null);
-
-        this.auditRecord = auditRecord;
-        this.isComposite = (this.auditRecord instanceof CompositeAuditRecord);
-        this.samplingChanged = false;
+    // new rounds or mvrs were written; keep the selected round
+    @Override
+    public Runnable prepareRefresh(AuditRecordSession session, Set<AuditRecordWatcher.Change> changes) {
+        if (!changes.contains(AuditRecordWatcher.Change.ROUNDS) && !changes.contains(AuditRecordWatcher.Change.MVRS)) return null;
+        return prepareAuditRecord(session.getAuditRecord(), true);
+    }
 
-        this.config = auditRecord.getConfig();
-        this.auditRiskLimit = config.getRiskLimit();
+    // make the beans off the EDT, return the Runnable that publishes them
+    private Runnable prepareAuditRecord(AuditRecordIF auditRecord, boolean keepSelection) {
         java.util.List<AuditRoundBean> beanList = new ArrayList<>();
-
         int prevTotal = 0;
         for (var round : auditRecord.getRounds()) {
             beanList.add(new AuditRoundBean(round, prevTotal));
             prevTotal += round.getNewmvrs();
         }
-        auditRoundTable.setBeans(beanList);
+        AuditRoundIF lastRound = auditRecord.getRounds().isEmpty() ? null : auditRecord.getRounds().getLast();
+        var oneshot = auditRecord.readOneShotMvrs();
 
-        if (!auditRecord.getRounds().isEmpty()) {
-            this.lastAuditRound = auditRecord.getRounds().getLast();
-        } else {
-            this.lastAuditRound = null;
-        }
+        return () -> {
+            if (!keepSelection) {
+                auditRoundTable.setBeans(null);
+                contestRoundTable.setBeans(null);
+                assertionTable.setBeans(null);
+                auditResultTable.setBeans(null);
+                estRoundTable.setBeans(null);
+            }
 
-        oneshotMvrs = auditRecord.readOneShotMvrs();
+            this.auditRecord = auditRecord;
+            this.isComposite = (this.auditRecord instanceof CompositeAuditRecord);
+            this.samplingChanged = false;
+
+            this.config = auditRecord.getConfig();
+            this.auditRiskLimit = config.getRiskLimit();
+            this.lastAuditRound = lastRound;
+            this.oneshotMvrs = oneshot;
+
+            if (keepSelection) {
+                mergeRounds(beanList);
+            } else {
+                auditRoundTable.setBeans(beanList);
+            }
+        };
     }
 
     //// Actions
@@ -251,12 +262,41 @@ public class AuditRoundsTable extends JPanel implements ViewerPanelIF {
 
     //////////////////////////////////////////////////////////////////
 
-    void setSelectedAuditRound(AuditRoundBean auditBean) {
+    // Append the new rounds and update the changed ones with row level events, instead of rebuilding the tables.
+    // The selected round, contest and assertion stay selected.
+    private void mergeRounds(java.util.List<AuditRoundBean> beanList) {
+        int nrounds = auditRoundTable.mergeBeans(beanList, AuditRoundBean::getRound, AuditRoundBean::version);
+        logger.debug("mergeRounds changed {} rounds", nrounds);
+
+        AuditRoundBean selectedRound = auditRoundTable.getSelectedBean();
+        if (selectedRound == null) return;
+        int ncontests = contestRoundTable.mergeBeans(makeContestRoundBeans(selectedRound), ContestRoundBean::getId, ContestRoundBean::version);
+        logger.debug("mergeRounds changed {} contests in round {}", ncontests, selectedRound.getRound());
+
+        ContestRoundBean selectedContest = contestRoundTable.getSelectedBean();
+        if (selectedContest == null) return;
+        assertionTable.mergeBeans(makeAssertionBeans(selectedContest), AssertionBean::getName, AssertionBean::version);
+    }
+
+    private java.util.List<ContestRoundBean> makeContestRoundBeans(AuditRoundBean auditBean) {
         java.util.List<ContestRoundBean> beanList = new ArrayList<>();
         for (ContestRound c : auditBean.round.getContestRounds()) {
             var bean = new ContestRoundBean(c, auditBean.getRound());
             beanList.add(bean);
         }
+        return beanList;
+    }
+
+    private java.util.List<AssertionBean> makeAssertionBeans(ContestRoundBean contestRoundBean) {
+        java.util.List<AssertionBean> beanList = new ArrayList<>();
+        for (AssertionRound a : contestRoundBean.contestRound.getAssertionRounds()) {
+            beanList.add(new AssertionBean(contestRoundBean, a));
+        }
+        return beanList;
+    }
+
+    void setSelectedAuditRound(AuditRoundBean auditBean) {
+        var beanList = makeContestRoundBeans(auditBean);
         contestRoundTable.setBeans(beanList);
 
         if (beanList.isEmpty()) return;
@@ -271,10 +311,7 @@ public class AuditRoundsTable extends JPanel implements ViewerPanelIF {
     }
 
     void setSelectedContest(ContestRoundBean contestRoundBean) {
-        java.util.List<AssertionBean> beanList = new ArrayList<>();
-        for (AssertionRound a : contestRoundBean.contestRound.getAssertionRounds()) {
-            beanList.add(new AssertionBean(contestRoundBean, a));
-        }
+        var beanList = makeAssertionBeans(contestRoundBean);
         assertionTable.setBeans(beanList);
 
         if (beanList.isEmpty()) return;
@@ -365,7 +402,8 @@ public class AuditRoundsTable extends JPanel implements ViewerPanelIF {
         }
     }
 
-    void callRunRound() {
+    // return true if the round was written; the caller rereads the record
+    boolean callRunRound() {
         try {
             if (isComposite) {
                 JOptionPane.showMessageDialog(null, "Cant run Audit Round on Composite Record");
@@ -377,12 +415,13 @@ public class AuditRoundsTable extends JPanel implements ViewerPanelIF {
                 runRound(auditRecord.getTopdir(), null, null); // TODO why not use startFirstRound ?
 
                 logger.debug("return from runRound");
-                setAuditRecord(auditRecord); // reread in
+                return true;
             }
         } catch (Exception e) {
             JOptionPane.showMessageDialog(null, e.getMessage());
             logger.error("AuditRoundsTable.runAuditRound failed", e);
         }
+        return false;
     }
 
     /* only written if the audit is run. Could also let runRound do it.
@@ -475,6 +514,12 @@ public class AuditRoundsTable extends JPanel implements ViewerPanelIF {
             return round.getAuditIsComplete();
         }
 
+        // cheap to compare; the row is repainted only if this changed
+        java.util.List<Object> version() {
+            return Arrays.asList(round.getAuditWasDone(), round.getAuditIsComplete(), prevTotal, round.getNewmvrs(),
+                    round.getNmvrs(), round.getMvrsUsed(), round.getAuditorMaxNewMvrs());
+        }
+
         public String show() {
             return auditRoundTable.getTableModel().showBean(this, beanProperties);
         }
@@ -533,6 +578,13 @@ public class AuditRoundsTable extends JPanel implements ViewerPanelIF {
         public Integer getEstNewMvrs() { return contestRound.getEstNewMvrs(); }
         public boolean isDone() { return contestRound.getDone(); }
         public Integer getHaveNewMvrs() {return contestRound.getHaveNewSampleSize();}
+
+        // cheap to compare; the row is repainted only if this changed
+        java.util.List<Object> version() {
+            return Arrays.asList(contestRound.getRoundIdx(), contestRound.getStatus(), contestRound.getEstMvrs(),
+                    contestRound.getEstNewMvrs(), contestRound.getHaveNewSampleSize(), contestRound.getIncluded(),
+                    contestRound.getAuditorWantNewMvrs(), contestRound.getDone(), contestUA.minMargin());
+        }
         public Double getMargin() { return contestUA.minMargin(); }
         public Integer getMaxIndex() { return contestRound.getMaxSampleAllowed();}
         public Integer getMvrsExtra() {return getHaveMvrs() - getEstMvrs();}
@@ -703,6 +755,14 @@ public class AuditRoundsTable extends JPanel implements ViewerPanelIF {
             }
         }
 
+        // cheap to compare; the row is repainted only if this changed
+        java.util.List<Object> version() {
+            AuditRoundResult auditResult = assertionRound.getAuditResult();
+            return Arrays.asList(assertionRound.getRoundIdx(), assertionRound.getStatus(), assertionRound.getEstMvrs(),
+                    assertionRound.getEstNewMvrs(), assertionRound.getRoundProved(),
+                    (auditResult == null) ? null : auditResult.getSamplesUsed(), (auditResult == null) ? null : auditResult.getPmin());
+        }
+
         public String show() {
             StringBuilder sb = new StringBuilder();
             sb.append("%n%s%n".formatted( BeanPropertiesKt.showAssertionWithDesc(this, assertionTable.getTableModel(), contestRoundBean.contestUA, this.assertion)));
@@ -100,24 +100,25 @@ public class ContestPoolsTableOld extends JPanel implements ViewerPanelIF {
         cvrTable.setFontSize(size);
     }
 
-    public boolean setAuditRecord(String auditRecordLocation) {
+    @Override
+    public Runnable prepareAuditRecord(AuditRecordSession session) {
+        return () -> setAuditRecord(session);
+    }
+
+    public boolean setAuditRecord(AuditRecordSession session) {
+        String auditRecordLocation = session.getLocation();
         logger.debug("ContestPoolsTable setAuditRecord "+ auditRecordLocation);
         contestPoolTable.setBeans(emptyList());
         contestTable.setBeans(emptyList());
         cvrTable.setBeans(emptyList());
 
         this.auditRecordLocation = auditRecordLocation;
-        AuditRecordIF auditRecord = AuditRecord.Companion.read(auditRecordLocation);
-        if (auditRecord == null) {
-            logger.info("ContestPoolsTable failed on read "+ auditRecordLocation);
-            return false;
-        }
-
+        AuditRecordIF auditRecord = session.getAuditRecord();
         if (auditRecord instanceof CompositeAuditRecord) return false;
         this.auditRecord = (AuditRecord) auditRecord;
-        this.mvrManager = new PersistedMvrManager(this.auditRecord, false);
+        this.mvrManager = session.getMvrManager();
 
-        List<CardPool> pools = mvrManager.pools();
+        List<CardPool> pools = session.getPools();
         if (pools == null) return false;
 
         var contests = new HashMap<Integer, ArrayList<PoolAndContest>>();
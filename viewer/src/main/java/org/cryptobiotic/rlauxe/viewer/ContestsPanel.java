@@ -56,6 +56,7 @@ public class ContestsPanel extends JPanel implements ViewerPanelIF {
 
         contestTable =
                 new BeanTable<>(ContestsPanel.ContestBean.class, (PreferencesExt) prefs.node("contestTable"), false, "Contests", "ContestRound", null);
+        contestTable.setMemoizeValues(true); // estRisk is expensive
 
         contestTable.addListSelectionListener(e -> {
             ContestBean contest = contestTable.getSelectedBean();
@@ -70,6 +71,7 @@ public class ContestsPanel extends JPanel implements ViewerPanelIF {
 
         assertionTable =
                 new BeanTable<>(AssertionBean.class, (PreferencesExt) prefs.node("assertionTable"), false, "Assertion", "Assertion", null);
+        assertionTable.setMemoizeValues(true);
 
         assertionTable.addPopupOption("Show Assertion", assertionTable.makeShowAction(infoTA, infoWindow,
                 bean -> ((AssertionBean) bean).show()));
@@ -96,76 +98,78 @@ public class ContestsPanel extends JPanel implements ViewerPanelIF {
         assertionTable.setFontSize(size);
     }
 
-    public void resetAuditRecord() {
-        setAuditRecord(auditRecordLocation);
+    @Override
+    public Runnable prepareAuditRecord(AuditRecordSession session) {
+        return prepare(session, false);
     }
 
-    public boolean setAuditRecord(String auditRecordLocation) {
-        this.auditRecordLocation = auditRecordLocation;
-        contestTable.setBeans(emptyList());
+    // new rounds were written; keep the selected contest
+    @Override
+    public Runnable prepareRefresh(AuditRecordSession session, Set<AuditRecordWatcher.Change> changes) {
+        if (!changes.contains(AuditRecordWatcher.Change.ROUNDS)) return null;
+        return prepare(session, true);
+    }
 
-        logger.debug("ContestsPanel setAuditRecord " + auditRecordLocation+ " with profile "+ profile);
+    private Runnable prepare(AuditRecordSession session, boolean keepSelection) {
+        String location = session.getLocation();
+        logger.debug("ContestsPanel setAuditRecord " + location + " with profile "+ profile);
 
-        this.auditRecordLocation = auditRecordLocation;
-        this.auditRecord = AuditRecord.Companion.read(auditRecordLocation);
-        if (this.auditRecord == null) return false;
-        if (!auditRecord.getRounds().isEmpty()) {
-            logger.info("{} first round was not started", auditRecordLocation); // TODO plan B
+        var record = session.getAuditRecord();
+        if (record.getRounds().isEmpty()) {
+            logger.info("{} first round was not started", location); // TODO plan B
         }
-        this.lastAuditRound = auditRecord.getRounds().getLast();
-
-        try {
-            this.config = auditRecord.getConfig();
-            ContestBean.alpha = config.getRiskLimit();
-
-            var contestMap = new HashMap<Integer, ContestsPanel.ContestBean>();
-            java.util.List<ContestsPanel.ContestBean> beanList = new ArrayList<>();
+        AuditRoundIF lastRound = record.getRounds().isEmpty() ? null : record.getRounds().getLast();
+        Config recordConfig = record.getConfig();
 
-            java.util.Map<Integer, ContestRound> contestRoundMap = new HashMap<>();
-            for (var contestRound : lastAuditRound.getContestRounds()) {
+        java.util.Map<Integer, ContestRound> contestRoundMap = new HashMap<>();
+        if (lastRound != null) {
+            for (var contestRound : lastRound.getContestRounds()) {
                 contestRoundMap.put(contestRound.getId(), contestRound);
             }
+        }
 
-            for (var cwa : auditRecord.getContests()) {
-                var cr = contestRoundMap.get(cwa.getId());
-                var bean = new ContestsPanel.ContestBean(cwa, cr);
-                beanList.add(bean);
-                contestMap.put(cwa.getId(), bean);
-            }
-            contestTable.setBeans(beanList);
-
-            // sort contests by payoff
-            beanList.sort(Comparator.comparing(ContestBean::getPayoff));
-            contestTable.setBeans(beanList);
-
-            if (!auditRecord.getRounds().isEmpty()) {
-                // select inProgress contest with smallest margin
-                Optional<ContestsPanel.ContestBean> minByMargin = beanList
-                        .stream()
-                        .filter(bean -> bean.getStatus().equals("InProgress"))
-                        .min(Comparator.comparing(ContestsPanel.ContestBean::getMargin));
-                minByMargin.ifPresent(contestTable::setSelectedBean);
-            }
-
-            oneshotMvrs = auditRecord.readOneShotMvrs();
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(null, e.getMessage());
-            logger.error("ContestsPanel setAuditRecord failed", e);
+        java.util.List<ContestsPanel.ContestBean> beanList = new ArrayList<>();
+        for (var cwa : record.getContests()) {
+            var cr = contestRoundMap.get(cwa.getId());
+            beanList.add(new ContestsPanel.ContestBean(cwa, cr));
         }
 
-        return true;
+        // sort contests by payoff
+        beanList.sort(Comparator.comparing(ContestBean::getPayoff));
+
+        // select inProgress contest with smallest margin
+        Optional<ContestsPanel.ContestBean> minByMargin = (lastRound == null) ? Optional.empty() : beanList
+                .stream()
+                .filter(bean -> bean.getStatus().equals("InProgress"))
+                .min(Comparator.comparing(ContestsPanel.ContestBean::getMargin));
+
+        var oneshot = record.readOneShotMvrs();
+
+        // on the EDT
+        return () -> {
+            this.auditRecordLocation = location;
+            this.auditRecord = record;
+            this.lastAuditRound = lastRound;
+            this.config = recordConfig;
+            this.oneshotMvrs = oneshot;
+            ContestBean.alpha = recordConfig.getRiskLimit();
+
+            if (keepSelection) {
+                // the rows are updated in place, and the selection stays
+                contestTable.mergeBeans(beanList, ContestBean::getId, ContestBean::version);
+                var selected = contestTable.getSelectedBean();
+                if (selected != null) {
+                    assertionTable.mergeBeans(makeAssertionBeans(selected), AssertionBean::getDesc, AssertionBean::version);
+                }
+            } else {
+                contestTable.setBeans(beanList);
+                minByMargin.ifPresent(contestTable::setSelectedBean);
+            }
+        };
     }
 
     void setSelectedContest(ContestsPanel.ContestBean contestBean) {
-        java.util.List<ContestsPanel.AssertionBean> beanList = new ArrayList<>();
-        if (contestBean.contestRound != null) {
-            for (AssertionRound ar : contestBean.contestRound.getAssertionRounds()) {
-                var bean = new ContestsPanel.AssertionBean(contestBean, ar);
-                beanList.add(bean);
-            }
-        }
+        var beanList = makeAssertionBeans(contestBean);
         assertionTable.setBeans(beanList);
 
         if (beanList.isEmpty()) return;
@@ -178,6 +182,17 @@ public class ContestsPanel extends JPanel implements ViewerPanelIF {
         assertionTable.setSelectedBean(minByMargin);
     }
 
+    private java.util.List<ContestsPanel.AssertionBean> makeAssertionBeans(ContestsPanel.ContestBean contestBean) {
+        java.util.List<ContestsPanel.AssertionBean> beanList = new ArrayList<>();
+        if (contestBean.contestRound != null) {
+            for (AssertionRound ar : contestBean.contestRound.getAssertionRounds()) {
+                var bean = new ContestsPanel.AssertionBean(contestBean, ar);
+                beanList.add(bean);
+            }
+        }
+        return beanList;
+    }
+
     public void saveState() {
         contestTable.saveState(false);
         assertionTable.saveState(false);
@@ -335,6 +350,13 @@ public class ContestsPanel extends JPanel implements ViewerPanelIF {
             return contestUA.getContest().winners().toString();
         }
 
+        // cheap to compare; the row is repainted only if this changed
+        java.util.List<Object> version() {
+            if (contestRound == null) return Arrays.asList(getStatus(), getMargin());
+            return Arrays.asList(contestRound.getRoundIdx(), contestRound.getStatus(), contestRound.getEstMvrs(),
+                    contestRound.getHaveSampleSize(), contestRound.maxSamplesUsed(), getMargin());
+        }
+
         public String show() {
             return showContestWithDesc(this, contestTable.getTableModel(), this.contestUA);
         }
@@ -430,6 +452,12 @@ public class ContestsPanel extends JPanel implements ViewerPanelIF {
             return assertion.getAssorter().upperBound();
         }
 
+        // cheap to compare; the row is repainted only if this changed. the estimated risk depends on the contest's mvrs
+        java.util.List<Object> version() {
+            return Arrays.asList(assertionRound.getRoundIdx(), assertionRound.getStatus(), assertionRound.getEstMvrs(),
+                    assertionRound.getEstNewMvrs(), contestBean.getHaveMvrs(), getMargin());
+        }
+
         public String show() {
             var assn = (this.cassertion != null) ? this.cassertion : this.assertion;
             return showAssertionWithDesc(this, assertionTable.getTableModel(), this.cua, assn);
@@ -5,13 +5,14 @@
 
 package org.cryptobiotic.rlauxe.viewer;
 
-import org.cryptobiotic.rlauxe.audit.AuditableCard;
-import org.cryptobiotic.rlauxe.audit.Config;
-import org.cryptobiotic.rlauxe.beans.BeanTable;
+import org.cryptobiotic.rlauxe.beans.BooleanRenderer;
 import org.cryptobiotic.rlauxe.persist.*;
 import org.cryptobiotic.rlauxe.workflow.PersistedMvrManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ucar.ui.table.HidableTableColumnModel;
+import ucar.ui.table.TableAligner;
+import ucar.ui.table.TableAppearanceAction;
 import ucar.ui.widget.TextHistoryPane;
 import ucar.util.prefs.PreferencesExt;
 
@@ -19,43 +20,84 @@ import javax.swing.*;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
-
-import static java.util.Collections.emptyList;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 // TODO turn this into comparison of mvrs and cvrs
 public class MvrTable extends JPanel implements ViewerPanelIF {
     static private final Logger logger = LoggerFactory.getLogger(MvrTable.class);
+    static private final String HEADER = "Mvrs (sorted)";
+    static private final int BATCH_SIZE = 1000; // cards per block
+    static private final int QUEUE_BATCHES = 20; // blocks the reader can get ahead of the table
+    static private final int DRAIN_MSECS = 100;
 
     private final PreferencesExt prefs;
+    private final PreferencesExt columnStore;
 
-    private final BeanTable<CardBean> mvrTable;
+    // the mvrs are kept as CardColumns blocks, off heap, not one bean per card
+    private final CardBlocks cards = new CardBlocks(BATCH_SIZE);
+    private final CardBlocksTableModel cardModel = new CardBlocksTableModel(cards);
+    private final JTable mvrTable;
+    private final JLabel headerLabel = new JLabel(HEADER, SwingConstants.CENTER);
     TextHistoryPane localInfo = new TextHistoryPane();
 
+    // go to a card by id, location or prn
+    private final JTextField gotoField = new JTextField(20);
+    private final JLabel gotoStatus = new JLabel(" ");
+    private CardIndex cardIndex; // null until its built
+    private Thread indexer;
+
     private final JSplitPane split1;
 
     private String auditRecordLocation = "none";
+    private AuditRecordSession session;
     private AuditRecord auditRecord;
     PersistedMvrManager mvrManager;
 
-    private Boolean needsReading = true;
-    private Config config;
-    private List<AuditableCard> mvrs;
+    private MvrReader reader; // the current read, if any
 
     public MvrTable(PreferencesExt prefs, float fontSize) {
         this.prefs = prefs;
-
-        mvrTable = new BeanTable<>(CardBean.class, (PreferencesExt) prefs.node("cardTable"), false,
-                "Mvrs (sorted)", "AuditableCard", null);
-        mvrTable.addListSelectionListener(e -> {
-            CardBean cardBean = mvrTable.getSelectedBean();
-            if (cardBean != null) {
-                setSelectedCard(cardBean);
+        this.columnStore = (PreferencesExt) prefs.node("cardTable");
+
+        mvrTable = new JTable(cardModel, new HidableTableColumnModel(cardModel));
+        mvrTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        mvrTable.setDefaultRenderer(Boolean.class, new BooleanRenderer());
+        mvrTable.getColumnModel().addColumnModelListener(new TableAligner(mvrTable, SwingConstants.LEADING));
+        mvrTable.getSelectionModel().addListSelectionListener(e -> {
+            int row = mvrTable.getSelectedRow();
+            if (!e.getValueIsAdjusting() && row >= 0) {
+                setSelectedCard(cards.record(row));
             }
         });
+        CardTable.restoreColumns(mvrTable, columnStore);
+
+        JButton cornerButton = new JButton(new TableAppearanceAction(mvrTable));
+        cornerButton.setHideActionText(true);
+        cornerButton.setContentAreaFilled(false);
+        JScrollPane scrollPane = new JScrollPane(mvrTable);
+        scrollPane.setCorner(JScrollPane.UPPER_RIGHT_CORNER, cornerButton);
+
+        gotoField.setToolTipText("card id, location or prn");
+        gotoField.addActionListener(e -> gotoCard());
+        JPanel gotoBar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        gotoBar.add(new JLabel("Go to card:"));
+        gotoBar.add(gotoField);
+        gotoBar.add(gotoStatus);
+
+        JPanel northPanel = new JPanel(new BorderLayout());
+        northPanel.add(headerLabel, BorderLayout.NORTH);
+        northPanel.add(gotoBar, BorderLayout.CENTER);
+
+        JPanel tablePanel = new JPanel(new BorderLayout());
+        tablePanel.add(northPanel, BorderLayout.NORTH);
+        tablePanel.add(scrollPane, BorderLayout.CENTER);
         setFontSize(fontSize);
 
         // layout of tables
-        split1 = new JSplitPane(JSplitPane.VERTICAL_SPLIT, false, mvrTable, localInfo);
+        split1 = new JSplitPane(JSplitPane.VERTICAL_SPLIT, false, tablePanel, localInfo);
         split1.setDividerLocation(prefs.getInt("splitPos1", 200));
 
         setLayout(new BorderLayout());
@@ -65,83 +107,188 @@ public class MvrTable extends JPanel implements ViewerPanelIF {
     }
 
     public void setFontSize(float size) {
-        mvrTable.setFontSize(size);
+        mvrTable.setFont(mvrTable.getFont().deriveFont(size));
+        mvrTable.setRowHeight((int) size + 4);
         localInfo.setFontSize(size);
     }
 
-    public boolean setAuditRecord(String location) {
-        clear();
-        return true;
+    // the reading is done by the MvrReader thread, so theres nothing to prepare
+    @Override
+    public Runnable prepareAuditRecord(AuditRecordSession session) {
+        return () -> setAuditRecord(session);
     }
 
-    public boolean setAuditRecord(String auditRecordLocation, Integer roundIdx) {
-        logger.debug("MvrTable setAuditRecord "+ auditRecordLocation);
-        mvrTable.setBeans(emptyList());
+    // start reading the mvrs; the first rows show right away, the rest are added as theyre read
+    public boolean setAuditRecord(AuditRecordSession session) {
+        if (session == this.session) return true; // already reading or read
+        logger.debug("MvrTable setAuditRecord "+ session.getLocation());
+        clear();
 
-        this.auditRecordLocation = auditRecordLocation;
-        AuditRecordIF auditRecord = AuditRecord.Companion.read(auditRecordLocation);
-        if (auditRecord == null) {
-            logger.info("CardTable failed on read "+ auditRecordLocation);
-            return false;
-        }
+        this.session = session;
+        this.auditRecordLocation = session.getLocation();
+        AuditRecordIF auditRecord = session.getAuditRecord();
         if (auditRecord instanceof CompositeAuditRecord) return false;
         this.auditRecord = (AuditRecord) auditRecord;
-        this.mvrManager = new PersistedMvrManager(this.auditRecord, false);
-
-        this.config = auditRecord.getConfig();
-        needsReading = true;
+        this.mvrManager = session.getMvrManager();
 
+        reader = new MvrReader(auditRecordLocation, mvrManager);
         return true;
     }
 
-    void setSelectedTab() {
-        if (needsReading) {
-            if (readCards()) needsReading = false;
-        }
+    // the mvrs are the same for all rounds
+    public boolean setAuditRecord(AuditRecordSession session, Integer roundIdx) {
+        return setAuditRecord(session);
+    }
+
+    // new mvrs were written; read them again
+    @Override
+    public Runnable prepareRefresh(AuditRecordSession session, Set<AuditRecordWatcher.Change> changes) {
+        if (!changes.contains(AuditRecordWatcher.Change.MVRS)) return null;
+        return () -> {
+            this.session = null;
+            setAuditRecord(session);
+        };
+    }
+
+    void clear() {
+        if (reader != null) reader.cancel();
+        reader = null;
+        if (indexer != null) indexer.interrupt();
+        indexer = null;
+        cardIndex = null;
+        cardModel.clear(); // releases the blocks
+        headerLabel.setText(HEADER);
+        gotoStatus.setText(" ");
+        localInfo.setText("");
     }
 
-    boolean readCards() {
-        logger.debug("readCards for "+ auditRecordLocation);
-        Integer cutoff = this.config.getRound().getSampling().getContestSampleCutoff();
-        Integer ncardsToRead = (cutoff == null || cutoff < 11111) ? 11111 : cutoff;
+    void setSelectedCard(CardRecord card) {
+        localInfo.setText(card.toString());
+        localInfo.gotoTop();
+    }
 
-        try {
+    // index the mvrs in the background, once theyre all read
+    private void startIndexer() {
+        if (cards.getNrows() == 0) return;
+        CardPageSource source = cards.source();
+        MvrReader forReader = reader;
+        indexer = Thread.ofPlatform().daemon().priority(Thread.MIN_PRIORITY).name("MvrIndexer").start(() -> {
+            try {
+                CardIndex index = CardIndex.Companion.build(source, () -> Thread.currentThread().isInterrupted());
+                if (index != null) SwingUtilities.invokeLater(() -> { if (reader == forReader) cardIndex = index; });
+            } catch (Exception e) {
+                if (!Thread.currentThread().isInterrupted()) logger.error("MvrTable CardIndex failed", e);
+            }
+        });
+    }
+
+    private void gotoCard() {
+        String text = gotoField.getText().trim();
+        if (text.isEmpty()) return;
+        if (cardIndex == null) {
+            gotoStatus.setText(cards.getNrows() == 0 ? "no mvrs" : "still indexing the mvrs, try again soon");
+            return;
+        }
+        CardIndex.Found found = cardIndex.find(text);
+        if (found == null) {
+            gotoStatus.setText("no mvr with id, location or prn '%s'".formatted(text));
+            return;
+        }
+        mvrTable.setRowSelectionInterval(found.getRow(), found.getRow());
+        mvrTable.scrollRectToVisible(mvrTable.getCellRect(found.getRow(), 0, true));
+        gotoStatus.setText("'%s' is the %s of row %d".formatted(text, found.getHow(), found.getRow()));
+    }
 
-            Publisher publisher = new Publisher(auditRecordLocation);
-            List<CardBean> beanList = new ArrayList<>();
-            int index = 1;
+    /**
+     * Reads the merged cards and mvrs on a background thread, making CardColumns blocks of BATCH_SIZE cards.
+     * The blocks go through a bounded queue, so the reader cant get too far ahead,
+     * and a Swing timer adds them to the table on the EDT.
+     */
+    private class MvrReader {
+        private final BlockingQueue<CardColumns> queue = new ArrayBlockingQueue<>(QUEUE_BATCHES);
+        private final Timer drainTimer = new Timer(DRAIN_MSECS, e -> drain());
+        private final CardDictionary dictionary = new CardDictionary();
+        private final Thread thread;
+        private final long start = System.nanoTime();
+        private volatile boolean cancelled;
+        private volatile boolean done;
+
+        MvrReader(String location, PersistedMvrManager mvrManager) {
+            headerLabel.setText(HEADER + " reading...");
+            drainTimer.setInitialDelay(0);
+            drainTimer.start();
+            thread = Thread.ofPlatform().daemon().name("MvrReader").start(() -> read(location, mvrManager));
+        }
 
-            // why ??
-            try (var mvrIter = mvrManager.readCardsAndMerge(publisher.sortedMvrsFile())) {
-                while (mvrIter.hasNext() && index < ncardsToRead) {
-                    var mvr = mvrIter.next();
-                    beanList.add(new CardBean(mvr, index));
-                    index++;
+        private void read(String location, PersistedMvrManager mvrManager) {
+            try (var mvrIter = mvrManager.readCardsAndMerge(new Publisher(location).sortedMvrsFile())) {
+                var builder = new CardBlocks.Builder(dictionary, BATCH_SIZE);
+                while (!cancelled && mvrIter.hasNext()) {
+                    var block = builder.add(mvrIter.next());
+                    if (block != null) put(block);
+                }
+                var last = builder.finish();
+                if (last != null) put(last);
+
+            } catch (InterruptedException e) {
+                // cancelled
+            } catch (Exception e) {
+                if (!cancelled) {
+                    logger.error("MvrTable read failed", e);
+                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, e.getMessage()));
                 }
+            } finally {
+                done = true;
+                if (cancelled) releaseQueued();
             }
-            mvrTable.setBeans(beanList);
-            logger.debug("MvrTable read " + index + " cards from "+ publisher.sortedMvrsFile());
+        }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(null, e.getMessage());
-            logger.error("setAuditRecord failed", e);
+        // wait for room in the queue
+        private void put(CardColumns block) throws InterruptedException {
+            while (!cancelled) {
+                if (queue.offer(block, DRAIN_MSECS, TimeUnit.MILLISECONDS)) return;
+                // the table is behind
+            }
+            block.release();
         }
 
-        return true;
-    }
+        private void releaseQueued() {
+            CardColumns block;
+            while ((block = queue.poll()) != null) block.release();
+        }
 
-    void clear() {
-        mvrTable.setBeans(emptyList());
-    }
+        // on the EDT
+        private void drain() {
+            if (cancelled) return;
+            boolean finished = done; // before draining, so the last block isnt left behind
+            List<CardColumns> blocks = new ArrayList<>();
+            queue.drainTo(blocks);
+            for (var block : blocks) {
+                cardModel.append(block);
+            }
+            int nrows = cards.getNrows();
+            if (finished && queue.isEmpty()) {
+                drainTimer.stop();
+                headerLabel.setText(HEADER + " " + nrows);
+                logger.debug("MvrTable read {} cards from {} in {} msecs", nrows, auditRecordLocation,
+                        (System.nanoTime() - start) / 1_000_000);
+                startIndexer();
+            } else if (!blocks.isEmpty()) {
+                headerLabel.setText(HEADER + " reading... " + nrows);
+            }
+        }
 
-    void setSelectedCard(CardBean bean) {
-        localInfo.setText(bean.show());
-        localInfo.gotoTop();
+        // on the EDT
+        void cancel() {
+            cancelled = true;
+            drainTimer.stop();
+            thread.interrupt();
+            releaseQueued();
+        }
     }
 
     public void saveState() {
-        mvrTable.saveState(false);
+        CardTable.saveColumns(mvrTable, columnStore);
 
         prefs.putInt("splitPos1", split1.getDividerLocation());
     }
@@ -160,84 +307,4 @@ public class MvrTable extends JPanel implements ViewerPanelIF {
 
     //////////////////////////////////////////////////////////////////
 
-    // data class AuditableCard (
-    //    val location: String, // info to find the card for a manual audit. Aka ballot identifier.
-    //    val index: Int,  // index into the original, canonical list of cards
-    //    val prn: Long,   // psuedo random number
-    //    val phantom: Boolean,
-    //    val possibleContests: IntArray, // remove
-    //
-    //    val votes: Map<Int, IntArray>?, // must have this and/or population
-    //    val poolId: Int?,
-    //    val cardStyle: String? = null, // remove
-    //    val population: PopulationIF? = null, // not needed if hasStyle ?
-    //)
-
-    public class CardBean {
-        AuditableCard card;
-        int index;
-
-        public CardBean() {
-        }
-
-        CardBean(AuditableCard card, int index) {
-            this.card = card;
-            this.index = index;
-        }
-
-        public String getId() {
-            return card.id();
-        }
-        public String getLocation() {
-            return card.location();
-        }
-        public Integer getIndex() {
-            return this.index;
-        }
-        public Integer getCardIndex() {
-            return card.index();
-        }
-        public long getPrn() {
-            return card.prn();
-        }
-        public Boolean getPhantom() { return card.phantom(); }
-        public String getContests() {
-            int[] ids = card.possibleContests();
-            StringBuilder sb = new StringBuilder();
-            for (int id : ids) {
-                sb.append("%d,".formatted(id));
-            }
-            return sb.toString();
-        }
-        public Integer getPoolId() { return card.poolId(); }
-        public String getCardStyle() { return card.style().name(); }
-        public String getVotes() {
-            var votes = card.votes();
-            if (votes == null) return "N/A";
-            StringBuilder sb = new StringBuilder();
-            for (int contestId : votes.keySet()) {
-                sb.append("%d:".formatted(contestId));
-                var cands = votes.get(contestId);
-                if (cands.length == 0) sb.append(" ,");
-                if (cands.length == 1) sb.append("%d, ".formatted(cands[0]));
-                else if (cands.length > 1) {
-                    sb.append("[");
-                    for (int idx=0; idx<cands.length; idx++) {
-                        int cand = cands[idx];
-                        if (idx > 0)  sb.append(", ");
-                        sb.append("%d".formatted(cand));
-                    }
-                    sb.append("],");
-                }
-            }
-            return sb.toString();
-        }
-
-        public String show() {
-            StringBuilder sb = new StringBuilder();
-            sb.append(card.toString());
-            return sb.toString();
-        }
-    }
-
 }
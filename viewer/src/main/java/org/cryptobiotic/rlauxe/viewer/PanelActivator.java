@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+
+package org.cryptobiotic.rlauxe.viewer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Populates the panels of one AuditRecordSession when they are first viewed.
+ * A selected tab is prepared right away; the other tabs are warmed up by low priority background threads.
+ * Each panel is prepared at most once per session, and published on the EDT.
+ * A panel is only prepared by one thread at a time, so an old session's prepare finishes before the new one starts.
+ */
+class PanelActivator {
+  static private final Logger logger = LoggerFactory.getLogger(PanelActivator.class);
+  static private final Map<ViewerPanelIF, Object> prepareLocks = Collections.synchronizedMap(new WeakHashMap<>());
+
+  private final AuditRecordSession session;
+  private final Map<ViewerPanelIF, CompletableFuture<Runnable>> started = new ConcurrentHashMap<>();
+  private final Set<ViewerPanelIF> published = new HashSet<>(); // only used on the EDT
+  private final ExecutorService warmupPool;
+  private volatile boolean closed;
+
+  PanelActivator(AuditRecordSession session, int nwarmupThreads) {
+    this.session = session;
+    this.warmupPool = Executors.newFixedThreadPool(Math.max(1, nwarmupThreads), r -> {
+      Thread thread = new Thread(r, "PanelWarmup");
+      thread.setDaemon(true);
+      thread.setPriority(Thread.MIN_PRIORITY);
+      return thread;
+    });
+  }
+
+  /** The panel was already published by someone else. Call on the EDT. */
+  void setPublished(ViewerPanelIF panel) {
+    started.putIfAbsent(panel, CompletableFuture.completedFuture(() -> {}));
+    published.add(panel);
+  }
+
+  /** Call on the EDT. */
+  boolean isPublished(ViewerPanelIF panel) {
+    return published.contains(panel);
+  }
+
+  /** The panel's tab was selected. Call on the EDT. */
+  void activate(ViewerPanelIF panel) {
+    if (closed) return;
+    if (published.contains(panel)) {
+      panel.setSelectedTab();
+      return;
+    }
+    setWaitCursor(panel, true);
+    if (!started.containsKey(panel)) {
+      Thread.ofVirtual().name("PanelActivate").start(() -> prepare(panel));
+    } // otherwise its being warmed up, and will be published when done
+  }
+
+  /** Prepare these panels in the background, at low priority. */
+  void warmup(List<ViewerPanelIF> panels) {
+    for (var panel : panels) {
+      warmupPool.submit(() -> {
+        if (!closed) prepare(panel);
+      });
+    }
+  }
+
+  /** Stop warming up; nothing more will be published. A prepare thats running finishes, and its result is discarded. */
+  void close() {
+    closed = true;
+    warmupPool.shutdownNow();
+  }
+
+  // runs on the calling thread, unless its already been started
+  private void prepare(ViewerPanelIF panel) {
+    var future = new CompletableFuture<Runnable>();
+    if (started.putIfAbsent(panel, future) != null) return;
+
+    String panelName = panel.getClass().getSimpleName();
+    Runnable publisher = null;
+    synchronized (prepareLock(panel)) { // wait for an older session's prepare of this panel
+      if (!closed) {
+        try {
+          long start = System.nanoTime();
+          publisher = panel.prepareAuditRecord(session);
+          logger.debug("{} prepareAuditRecord took {} msecs on {}", panelName, (System.nanoTime() - start) / 1_000_000,
+                  Thread.currentThread().getName());
+        } catch (Exception e) {
+          logger.error("{} prepareAuditRecord failed", panelName, e);
+          publisher = failed(panelName, e);
+        }
+      }
+    }
+    future.complete(publisher);
+    SwingUtilities.invokeLater(() -> publish(panel, future.join()));
+  }
+
+  private void publish(ViewerPanelIF panel, Runnable publisher) {
+    setWaitCursor(panel, false);
+    if (publisher == null || closed || !published.add(panel)) {
+      discard(publisher);
+      return;
+    }
+    try {
+      publisher.run();
+    } catch (Exception e) {
+      JOptionPane.showMessageDialog(null, e.getMessage());
+      logger.error("PanelActivator.publish failed", e);
+    }
+  }
+
+  /** Hold this while calling the panel's prepareAuditRecord or prepareRefresh. */
+  static Object prepareLock(ViewerPanelIF panel) {
+    return prepareLocks.computeIfAbsent(panel, p -> new Object());
+  }
+
+  /** Closes the resources of a prepared result that will never be published. */
+  static void discard(Runnable publisher) {
+    if (publisher instanceof AutoCloseable resources) {
+      try {
+        resources.close();
+      } catch (Exception e) {
+        logger.warn("PanelActivator.discard failed", e);
+      }
+    }
+  }
+
+  /** Publishes a failure to prepare a panel: tells the user on the EDT. */
+  static Runnable failed(String panelName, Exception e) {
+    return () -> JOptionPane.showMessageDialog(null, panelName + ": " + e.getMessage());
+  }
+
+  private void setWaitCursor(ViewerPanelIF panel, boolean wait) {
+    if (panel instanceof Component c) {
+      c.setCursor(wait ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+    }
+  }
+}
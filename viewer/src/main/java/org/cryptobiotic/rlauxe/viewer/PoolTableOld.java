@@ -71,23 +71,24 @@ public class PoolTableOld extends JPanel implements ViewerPanelIF {
         contestTable.setFontSize(size);
     }
 
-    public boolean setAuditRecord(String auditRecordLocation) {
+    @Override
+    public Runnable prepareAuditRecord(AuditRecordSession session) {
+        return () -> setAuditRecord(session);
+    }
+
+    public boolean setAuditRecord(AuditRecordSession session) {
+        String auditRecordLocation = session.getLocation();
         logger.debug("PoolTable setAuditRecord "+ auditRecordLocation);
         poolTable.setBeans(emptyList());
         contestTable.setBeans(emptyList());
 
         this.auditRecordLocation = auditRecordLocation;
-        AuditRecordIF auditRecord = AuditRecord.Companion.read(auditRecordLocation);
-        if (auditRecord == null) {
-            logger.info("PoolTable failed on read "+ auditRecordLocation);
-            return false;
-        }
-
+        AuditRecordIF auditRecord = session.getAuditRecord();
         if (auditRecord instanceof CompositeAuditRecord) return false;
         this.auditRecord = (AuditRecord) auditRecord;
-        this.mvrManager = new PersistedMvrManager(this.auditRecord, false);
+        this.mvrManager = session.getMvrManager();
 
-        List<CardPool> pools = mvrManager.pools();
+        List<CardPool> pools = session.getPools();
         if (pools == null) return false;
 
         java.util.List<PoolBean> beanList = new ArrayList<>();
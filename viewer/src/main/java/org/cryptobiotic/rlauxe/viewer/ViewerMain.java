@@ -10,7 +10,9 @@ import org.cryptobiotic.rlauxe.persist.CompositeAuditRecord;
 import org.slf4j.Logger;
 import ucar.ui.prefs.ComboBox;
 import ucar.ui.prefs.Debug;
+import ucar.ui.table.BeanMetadata;
 import ucar.ui.widget.*;
+import ucar.ui.widget.ProgressMonitor;
 import ucar.util.prefs.PreferencesExt;
 import ucar.util.prefs.XMLStore;
 
@@ -21,9 +23,17 @@ import java.awt.event.ActionEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.Formatter;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import org.slf4j.LoggerFactory;
 
@@ -34,6 +44,11 @@ public class ViewerMain extends JPanel {
   public static final String FRAME_SIZE = "FrameSize";
   public static final String INFO_BOUNDS = "InfoBounds";
   public static final String FONT_SIZE = "FontSize";
+  public static final String PARALLEL_LOAD = "ParallelLoad";
+  public static final String RECORD_CACHE_MB = "RecordCacheMB";
+  public static final String MANIFEST_SNAPSHOT = "ManifestSnapshot";
+  public static final String OFF_HEAP_VOTES_MB = "OffHeapVotesMB";
+  private static final int WATCH_DEBOUNCE_MSECS = 1000;
 
   private static JFrame frame;
   private static PreferencesExt prefs;
@@ -56,6 +71,14 @@ public class ViewerMain extends JPanel {
   MvrAction mvrAction = new MvrAction();
   boolean eventOk = true;
   String auditRecordDir = "none";
+  AuditRecordSession session;
+  private AuditRecordLoader currentLoad;
+  private boolean parallelLoad; // warm up the panels concurrently
+  private PanelActivator activator; // populates the tabs of the current session
+  private AuditRecordWatcher watcher; // watches the directory of the current session
+  private int recordGeneration; // incremented when a newer load or refresh starts
+  private final Set<Path> pendingChanges = new HashSet<>(); // changed while a load or refresh was in flight
+  private int refreshesInFlight;
 
   JTabbedPane tabbedPane;
 
@@ -75,7 +98,11 @@ public class ViewerMain extends JPanel {
   // not used
   private ContestPoolsTableOld contestPoolPanel;
 
-  java.util.ArrayList<ViewerPanelIF> activePanels = new ArrayList<ViewerPanelIF>();
+  java.util.ArrayList<ViewerPanelIF> activePanels = new ArrayList<ViewerPanelIF>(); // the panels that have been made
+  private final Map<Component, Supplier<? extends ViewerPanelIF>> lazyTabs = new HashMap<>(); // placeholder -> maker
+  // the tabs that scan the whole manifest or mvrs are only made and populated when first viewed, never warmed up
+  private final Set<Component> firstViewTabs = new HashSet<>();
+  private final Set<ViewerPanelIF> firstViewPanels = new HashSet<>();
 
   public ViewerMain(PreferencesExt prefs, float fontSize, ViewerProfile profile, String datadir) {
     fontu = FontUtil.getStandardFont(fontSize);
@@ -91,6 +118,8 @@ public class ViewerMain extends JPanel {
 
     ////////////////////////////////////////////
     // the tabbed panels
+    // only the first tab's panel is made now; the others are made when their tab is first selected, or after a record is read.
+    // the Cards, Mvrs, Summary and Discrepancies tabs scan the whole manifest, so they wait for their first view.
     tabbedPane = new JTabbedPane(JTabbedPane.TOP);
     if (profile.isBelgium()) {
       belgiumPanel = new BelgiumContestsTable((PreferencesExt) prefs.node("BelgiumAuditTable"), infoTA, infoWindow, fontSize, statusButton, profile);
@@ -106,13 +135,11 @@ public class ViewerMain extends JPanel {
         tabbedPane.addTab("Contests", corlaPanel);
         activePanels.add(corlaPanel);
 
-        countyPoolsPanel = new CountyTable((PreferencesExt) prefs.node("CountyPoolsTable"), infoTA, infoWindow, fontSize);
-        tabbedPane.addTab("Counties", countyPoolsPanel);
-        activePanels.add(countyPoolsPanel);
+        addLazyTab("Counties", () -> countyPoolsPanel =
+                new CountyTable((PreferencesExt) prefs.node("CountyPoolsTable"), infoTA, infoWindow, fontu.getFontSize()));
 
-        samplingPanel = new SamplingTable((PreferencesExt) prefs.node("CountyTable"), infoTA, infoWindow, fontSize);
-        tabbedPane.addTab("Sampling", samplingPanel);
-        activePanels.add(samplingPanel);
+        addLazyTab("Sampling", () -> samplingPanel =
+                new SamplingTable((PreferencesExt) prefs.node("CountyTable"), infoTA, infoWindow, fontu.getFontSize()));
 
       } else {
         contestsPanel = new ContestsPanel((PreferencesExt) prefs.node("AuditTable"), infoTA, infoWindow, fontSize, profile);
@@ -120,45 +147,43 @@ public class ViewerMain extends JPanel {
         tabbedPane.addTab("Contests", contestsPanel);
         activePanels.add(contestsPanel);
 
-        poolPanel = new PoolTable((PreferencesExt) prefs.node("PoolTable"), infoTA, infoWindow, fontSize);
-        tabbedPane.addTab("Pools", poolPanel);
-        activePanels.add(poolPanel);
+        addLazyTab("Pools", () -> poolPanel =
+                new PoolTable((PreferencesExt) prefs.node("PoolTable"), infoTA, infoWindow, fontu.getFontSize()));
       }
 
-      stylePanel = new StyleTable((PreferencesExt) prefs.node("Styles"), infoTA, infoWindow, fontSize);
-      tabbedPane.addTab("Styles", stylePanel);
-      activePanels.add(stylePanel);
+      addLazyTab("Styles", () -> stylePanel =
+              new StyleTable((PreferencesExt) prefs.node("Styles"), infoTA, infoWindow, fontu.getFontSize()));
 
-      cardPanel = new CardTable((PreferencesExt) prefs.node("CardTable"), infoTA, infoWindow, fontSize);
-      tabbedPane.addTab("Cards", cardPanel);
-      activePanels.add(cardPanel);
+      addFirstViewTab("Cards", () -> cardPanel =
+              new CardTable((PreferencesExt) prefs.node("CardTable"), infoTA, infoWindow, fontu.getFontSize()));
 
-      /*
-      mvrPanel = new MvrTable((PreferencesExt) prefs.node("MvrTable"), fontSize);
-      tabbedPane.addTab("Mvrs", mvrPanel);
-      activePanels.add(mvrPanel); */
+      addFirstViewTab("Mvrs", () -> mvrPanel =
+              new MvrTable((PreferencesExt) prefs.node("MvrTable"), fontu.getFontSize()));
 
-      auditRoundsPanel = new AuditRoundsTable((PreferencesExt) prefs.node("AuditStateTable"), infoTA, infoWindow, fontSize, profile, mvrAction);
-      tabbedPane.addTab("AuditRounds", auditRoundsPanel);
-      activePanels.add(auditRoundsPanel);
+      addFirstViewTab("Summary", () ->
+              new ManifestSummaryTable((PreferencesExt) prefs.node("ManifestSummary"), fontu.getFontSize()));
+
+      addFirstViewTab("Discrepancies", () ->
+              new DiscrepancyTable((PreferencesExt) prefs.node("DiscrepancyTable"), fontu.getFontSize()));
+
+      addLazyTab("AuditRounds", () -> auditRoundsPanel =
+              new AuditRoundsTable((PreferencesExt) prefs.node("AuditStateTable"), infoTA, infoWindow, fontu.getFontSize(), profile, mvrAction));
     }
 
     tabbedPane.setSelectedIndex(0);
 
     tabbedPane.addChangeListener(e -> {
-      Component c = tabbedPane.getSelectedComponent();
+      Component c = makeLazyTab(tabbedPane.getSelectedIndex());
+      if (c == null) return; // no tab selected
 
       logger.debug("ViewerMain.tabbedPanel.changed, component {}", c.getClass().getName());
       actionsPanel.removeAll();
 
       if (this.auditRecordDir.equals("none")) return;
 
-      if (c instanceof CardTable cardTable) {
-        cardTable.setSelectedTab();
-      } else if (c instanceof MvrTable mvrTable) {
-        mvrTable.setSelectedTab();
-      } else if (c instanceof SamplingTable samplingTable) {
-        samplingTable.setSelectedTab();
+      // populate the panel on first view
+      if (c instanceof ViewerPanelIF vpanel && activator != null) {
+        activator.activate(vpanel);
       }
 
       // actions on right side of Audit record chooser
@@ -169,7 +194,7 @@ public class ViewerMain extends JPanel {
       } else if (c instanceof ContestsPanel contests) {
         contests.getActions(actionsPanel);
       } else if (c instanceof AuditRoundsTable auditRound) {
-        auditRound.getActions(actionsPanel, contestsPanel);
+        auditRound.getActions(actionsPanel, () -> refreshSession(EnumSet.of(AuditRecordWatcher.Change.ROUNDS, AuditRecordWatcher.Change.MVRS)));
       } else if (c instanceof CountyTable countyPools) {
         countyPools.getActions(actionsPanel);
       } else if (c instanceof SamplingTable samplingTable) {
@@ -208,7 +233,7 @@ public class ViewerMain extends JPanel {
     BAMutil.addActionToContainer(leftPanel, infoAction);
 
     AbstractAction refreshAction = new AbstractAction() {
-      public void actionPerformed(ActionEvent e) { setAuditRecord(); }
+      public void actionPerformed(ActionEvent e) { setAuditRecord(false); }
     };
     BAMutil.setActionProperties(refreshAction, "refresh-icon.png", "Reread Audit Record", false, '-', -1);
     BAMutil.addActionToContainer(leftPanel, refreshAction);
@@ -244,6 +269,11 @@ public class ViewerMain extends JPanel {
       }
       var checkAuditDir = (String) auditRecordDirCB.getSelectedItem();
       if (AuditRecord.Companion.checkExists(checkAuditDir)) {
+        if (!checkAuditDir.equals(this.auditRecordDir)) {
+          // changes to the old record dont matter anymore
+          stopWatching();
+          pendingChanges.clear();
+        }
         this.auditRecordDir = checkAuditDir;
         this.eventOk = false;
         this.auditRecordDirCB.addItem(checkAuditDir);
@@ -273,6 +303,33 @@ public class ViewerMain extends JPanel {
     logger.debug("ViewerMain started");
   }
 
+  private void addLazyTab(String title, Supplier<? extends ViewerPanelIF> maker) {
+    var placeholder = new JPanel();
+    lazyTabs.put(placeholder, maker);
+    tabbedPane.addTab(title, placeholder);
+  }
+
+  private void addFirstViewTab(String title, Supplier<? extends ViewerPanelIF> maker) {
+    addLazyTab(title, maker);
+    firstViewTabs.add(tabbedPane.getComponentAt(tabbedPane.getTabCount() - 1));
+  }
+
+  // make the panel of this tab if it hasnt been made yet, and return the tab's component
+  private Component makeLazyTab(int index) {
+    if (index < 0) return null;
+    Component c = tabbedPane.getComponentAt(index);
+    var maker = lazyTabs.remove(c);
+    if (maker == null) return c;
+
+    long start = System.nanoTime();
+    ViewerPanelIF vpanel = maker.get();
+    activePanels.add(vpanel);
+    if (firstViewTabs.remove(c)) firstViewPanels.add(vpanel);
+    tabbedPane.setComponentAt(index, (Component) vpanel);
+    logger.debug("made {} tab in {} msecs", tabbedPane.getTitleAt(index), (System.nanoTime() - start) / 1_000_000);
+    return (Component) vpanel;
+  }
+
   void showInfo(Formatter f) {
     if (belgiumPanel != null) belgiumPanel.showInfo(f);
     else if (corlaPanel != null) corlaPanel.showInfo(f);
@@ -290,21 +347,178 @@ public class ViewerMain extends JPanel {
     infoTA.setFontSize(fontSize);
   }
 
-  boolean setAuditRecord() {
+  // read the audit record and populate the selected tab in a background thread; choosing another record aborts this one.
+  // the other tabs are populated when first viewed, or warmed up in the background.
+  void setAuditRecord() {
+    setAuditRecord(true);
+  }
+
+  // useCache = false to always reread from disk
+  void setAuditRecord(boolean useCache) {
+    recordGeneration++;
+    if (currentLoad != null && !currentLoad.isDone()) {
+      currentLoad.cancel();
+    }
+    var selected = (ViewerPanelIF) tabbedPane.getSelectedComponent();
+    var loader = new AuditRecordLoader(auditRecordDir, java.util.List.of(selected), useCache);
+    this.currentLoad = loader;
+
+    var pm = new ProgressMonitor(loader, e -> publish(loader));
+    pm.start(this, "Reading Audit Record", loader.getProgressMaxCount());
+  }
+
+  // called on the EDT when the loader succeeds
+  private void publish(AuditRecordLoader loader) {
+    if (loader != currentLoad) return; // a newer load has started
+    loader.publish();
+    installSession(loader.getSession(), loader.getPanels());
+    watchAuditRecord(loader.getSession().getLocation());
+    flushPendingChanges();
+  }
+
+  // the load or refresh may have started before these were written
+  private void flushPendingChanges() {
+    if (pendingChanges.isEmpty()) return;
+    var changed = new HashSet<>(pendingChanges);
+    pendingChanges.clear();
+    auditRecordChanged(changed);
+  }
+
+  // make this the current session; publishedPanels already show it, the others are populated by the activator
+  private void installSession(AuditRecordSession session, java.util.List<ViewerPanelIF> publishedPanels) {
+    if (activator != null) {
+      activator.close();
+    }
+    this.session = session;
+    this.activator = new PanelActivator(session, parallelLoad ? activePanels.size() : 1);
+    publishedPanels.forEach(activator::setPublished);
+    if (tabbedPane.getSelectedComponent() instanceof ViewerPanelIF selected && !publishedPanels.contains(selected)) {
+      activator.activate(selected);
+    }
+    activator.warmup(activePanels.stream().filter(p -> !firstViewPanels.contains(p)).toList());
+    makeLazyTabsLater(activator);
+  }
+
+  // make the cheap tabs that havent been viewed yet, one per EDT event so the UI stays responsive, and warm them up too.
+  // the firstViewTabs are left for the user.
+  private void makeLazyTabsLater(PanelActivator forActivator) {
+    if (lazyTabs.size() == firstViewTabs.size()) return;
+    SwingUtilities.invokeLater(() -> {
+      if (forActivator != activator) return; // a newer session has its own
+      for (int index = 0; index < tabbedPane.getTabCount(); index++) {
+        Component c = tabbedPane.getComponentAt(index);
+        if (lazyTabs.containsKey(c) && !firstViewTabs.contains(c)) {
+          if (makeLazyTab(index) instanceof ViewerPanelIF vpanel) {
+            activator.warmup(java.util.List.of(vpanel));
+          }
+          break;
+        }
+      }
+      makeLazyTabsLater(forActivator);
+    });
+  }
+
+  private void watchAuditRecord(String location) {
+    stopWatching();
     try {
-      var auditRecord = AuditRecord.Companion.read(auditRecordDir);
-      if (auditRecord == null) return false;
+      watcher = new AuditRecordWatcher(location, WATCH_DEBOUNCE_MSECS, this::auditRecordChanged);
+    } catch (IOException e) {
+      logger.warn("cant watch audit record {}", location, e);
+    }
+  }
 
-      for (var vpanel : activePanels) {
-        vpanel.setAuditRecord(auditRecordDir);
+  private void stopWatching() {
+    if (watcher != null) {
+      watcher.close();
+      watcher = null;
+    }
+  }
+
+  // called on the EDT when the rlauxe workflow has written into the audit record directory.
+  // reread the record, and refresh only the panels that are affected.
+  private void auditRecordChanged(Set<Path> paths) {
+    if ((currentLoad != null && !currentLoad.isDone()) || refreshesInFlight > 0) {
+      pendingChanges.addAll(paths); // look at them when the load or refresh is published
+      return;
+    }
+    if (session == null) return;
+
+    // files that the current session already read, eg written by our own Run Audit Round
+    long readUpTo = session.getFingerprint().getLastModified();
+    var changed = new HashSet<Path>();
+    for (Path path : paths) {
+      try {
+        if (Files.exists(path) && Files.getLastModifiedTime(path).toMillis() <= readUpTo) continue;
+      } catch (IOException e) {
+        // deleted while we were looking
       }
-      return true;
+      changed.add(path);
+    }
+    if (changed.isEmpty()) return;
 
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e.getMessage());
-      logger.error("AuditRoundsTable.setAuditRecord failed", e);
+    var changes = AuditRecordWatcher.classify(session, changed);
+    if (changes.contains(AuditRecordWatcher.Change.OTHER)) {
+      setAuditRecord(false);
+      return;
     }
-    return false;
+    logger.info("audit record changed: {}", changes);
+    refreshSession(changes);
+  }
+
+  // reread the record on a background thread, then refresh the published panels that are affected by changes.
+  // the other panels are populated from the new session when theyre viewed.
+  private void refreshSession(Set<AuditRecordWatcher.Change> changes) {
+    if (session == null) return;
+    int generation = ++recordGeneration;
+    String location = session.getLocation();
+    var publishedPanels = activePanels.stream().filter(activator::isPublished).toList();
+    refreshesInFlight++;
+
+    Thread.ofVirtual().name("AuditRecordRefresh").start(() -> {
+      var publishers = new ArrayList<Runnable>();
+      AuditRecordSession newSession = null;
+      try {
+        newSession = AuditRecordSession.open(location);
+        if (newSession == null) {
+          publishers.add(() -> JOptionPane.showMessageDialog(null, String.format("No AuditRecord in %s", location)));
+        } else {
+          for (var vpanel : publishedPanels) {
+            String panelName = vpanel.getClass().getSimpleName();
+            try {
+              synchronized (PanelActivator.prepareLock(vpanel)) {
+                var publisher = vpanel.prepareRefresh(newSession, changes);
+                if (publisher != null) publishers.add(publisher);
+              }
+            } catch (Exception e) {
+              logger.error("{} prepareRefresh failed", panelName, e);
+              publishers.add(PanelActivator.failed(panelName, e));
+            }
+          }
+        }
+      } catch (Exception e) {
+        logger.error("refreshSession failed on {}", location, e);
+        publishers.add(PanelActivator.failed("AuditRecordSession", e));
+      }
+
+      var refreshed = newSession;
+      SwingUtilities.invokeLater(() -> {
+        refreshesInFlight--;
+        if (generation != recordGeneration) { // something newer was started
+          publishers.forEach(PanelActivator::discard);
+          return;
+        }
+        for (var publisher : publishers) {
+          try {
+            publisher.run();
+          } catch (Exception e) {
+            JOptionPane.showMessageDialog(null, e.getMessage());
+            logger.error("refreshSession publish failed", e);
+          }
+        }
+        if (refreshed != null) installSession(refreshed, publishedPanels);
+        flushPendingChanges();
+      });
+    });
   }
 
   public void save() {
@@ -324,6 +538,8 @@ public class ViewerMain extends JPanel {
     Rectangle bounds = frame.getBounds();
     prefs.putBeanObject(FRAME_SIZE, bounds);
     prefs.putBean(FONT_SIZE, fontu.getFontSize());
+    prefs.putInt(RECORD_CACHE_MB, (int) (AuditRecordCache.INSTANCE.getBudgetBytes() / (1024 * 1024)));
+    prefs.putInt(OFF_HEAP_VOTES_MB, (int) (OffHeapVoteStore.INSTANCE.getLimitBytes() / (1024 * 1024)));
 
     try {
       store.save();
@@ -371,6 +587,33 @@ public class ViewerMain extends JPanel {
     BAMutil.setActionProperties(saveAction, "Save", "Save Preferences to Disk", false, 'S', -1);
     BAMutil.addActionToMenu(sysMenu, saveAction);
 
+    AbstractAction parallelAction = new AbstractAction() {
+      public void actionPerformed(ActionEvent e) {
+        parallelLoad = (Boolean) getValue(BAMutil.STATE);
+        prefs.putBoolean(PARALLEL_LOAD, parallelLoad);
+      }
+    };
+    parallelLoad = prefs.getBoolean(PARALLEL_LOAD, true);
+    BAMutil.setActionPropertiesToggle(parallelAction, null, "Load Panels in Parallel", parallelLoad, 'P', -1);
+    BAMutil.addActionToMenu(sysMenu, parallelAction);
+
+    AbstractAction snapshotAction = new AbstractAction() {
+      public void actionPerformed(ActionEvent e) {
+        boolean enabled = (Boolean) getValue(BAMutil.STATE);
+        ManifestSnapshot.Companion.setEnabled(enabled);
+        prefs.putBoolean(MANIFEST_SNAPSHOT, enabled);
+        if (!enabled) {
+          try {
+            ManifestSnapshot.Companion.clear();
+          } catch (Exception ex) {
+            logger.warn("ManifestSnapshot.clear failed", ex);
+          }
+        }
+      }
+    };
+    BAMutil.setActionPropertiesToggle(snapshotAction, null, "Cache Card Manifests on Disk", ManifestSnapshot.Companion.getEnabled(), 'C', -1);
+    BAMutil.addActionToMenu(sysMenu, snapshotAction);
+
     AbstractAction aboutAction = new AbstractAction() {
       @Override
       public void actionPerformed(ActionEvent evt) {
@@ -436,8 +679,10 @@ public class ViewerMain extends JPanel {
   public class MvrAction extends AbstractAction {
     public int roundIdx;
     public void actionPerformed(ActionEvent e) {
-      mvrPanel.setAuditRecord(auditRecordDir, roundIdx);
-      tabbedPane.setSelectedIndex(4);
+      int index = tabbedPane.indexOfTab("Mvrs");
+      if (index < 0 || session == null) return;
+      tabbedPane.setSelectedIndex(index); // makes the panel
+      if (mvrPanel != null) mvrPanel.setAuditRecord(session, roundIdx);
     }
   }
 
@@ -460,7 +705,20 @@ public class ViewerMain extends JPanel {
       if (arg.equals("-datadir")) datadir = args[idx+1];
     }
 
+    long startupStart = System.nanoTime();
+
+    // introspect the table beans in the background, before the tables are made
+    BeanMetadata.prewarm(tableBeanClasses(profile));
+
+    // the fonts dont depend on the prefs, so initialize them while the prefs are being read
+    var fontInit = CompletableFuture.runAsync(() -> {
+      long start = System.nanoTime();
+      ucar.ui.widget.FontUtil.init();
+      logStartupPhase("FontUtil.init", start);
+    });
+
     // prefs storage
+    long phaseStart = System.nanoTime();
     try {
       String storeName = profile.isCorla() ? "CorlaViewer.xml" :
                           profile.isBelgium() ? "BelgiumViewer.xml" :
@@ -477,16 +735,29 @@ public class ViewerMain extends JPanel {
     } catch (IOException e) {
       logger.error("ViewerMain store.create() failed", e);
     }
+    logStartupPhase("read prefs", phaseStart);
 
     var fontSize = (Float) prefs.getBean(ViewerMain.FONT_SIZE, 12.0f); // getFloat() ??
-    ucar.ui.widget.FontUtil.init();
+    AuditRecordCache.INSTANCE.setBudgetBytes(prefs.getInt(RECORD_CACHE_MB, 512) * 1024L * 1024L);
+    ManifestSnapshot.Companion.setEnabled(prefs.getBoolean(MANIFEST_SNAPSHOT, true));
+    OffHeapVoteStore.INSTANCE.setLimitBytes(prefs.getInt(OFF_HEAP_VOTES_MB, 256) * 1024L * 1024L); // 0 to keep votes on the heap
+    fontInit.join();
+
+    ViewerProfile startProfile = profile;
+    String startDatadir = datadir;
+    SwingUtilities.invokeLater(() -> createAndShowFrame(startProfile, startDatadir, fontSize, startupStart));
+  }
+
+  // on the EDT: show an empty frame right away, then fill it in
+  private static void createAndShowFrame(ViewerProfile profile, String datadir, float fontSize, long startupStart) {
+    long phaseStart = System.nanoTime();
     resizeDefaultFonts(fontSize);
+    logStartupPhase("resizeDefaultFonts", phaseStart);
 
     // put UI in a JFrame
     // JFrame.setDefaultLookAndFeelDecorated(true);
+    phaseStart = System.nanoTime();
     frame = new JFrame(profile.toString());
-    ui = new ViewerMain(prefs, fontSize, profile, datadir);
-
     frame.setIconImage(BAMutil.getImage("rlauxe-logo.png"));
     frame.addWindowListener(new WindowAdapter() {
       /* @Override
@@ -496,16 +767,43 @@ public class ViewerMain extends JPanel {
 
       @Override
       public void windowClosing(WindowEvent e) {
-        ui.exit(true);
+        if (ui != null) ui.exit(true);
+        else System.exit(0);
       }
     });
 
-    frame.getContentPane().add(ui);
     Rectangle bounds = (Rectangle) prefs.getBean(FRAME_SIZE, new Rectangle(50, 50, 800, 450));
     frame.setBounds(bounds);
-
-    frame.pack();
-    frame.setBounds(bounds);
     frame.setVisible(true);
+    logStartupPhase("show frame", phaseStart);
+
+    phaseStart = System.nanoTime();
+    ui = new ViewerMain(prefs, fontSize, profile, datadir);
+    frame.getContentPane().add(ui);
+    frame.validate();
+    logStartupPhase("make ViewerMain", phaseStart);
+    logStartupPhase("startup total", startupStart);
+  }
+
+  // the bean classes of the tables in this profile's panels
+  private static java.util.List<Class<?>> tableBeanClasses(ViewerProfile profile) {
+    var result = new ArrayList<Class<?>>(java.util.List.of(
+        AuditRoundsTable.AuditRoundBean.class, AuditRoundsTable.ContestRoundBean.class,
+        AuditRoundsTable.AssertionBean.class, AuditRoundsTable.EstimationRoundBean.class,
+        AuditRoundsTable.AuditRoundResultBean.class,
+        PoolTable.PoolBean.class, PoolTable.ContestTabBean.class, StyleTable.StyleBean.class,
+        ManifestSummaryTable.SummaryBean.class, DiscrepancyTable.DiscrepancyBean.class, DiscrepancyTable.TotalsBean.class));
+    if (profile.isCorla()) {
+      result.add(CorlaContestsTable.CorlaContestBean.class);
+      result.add(CorlaContestsTable.ContestCountyBean.class);
+    } else if (!profile.isBelgium()) {
+      result.add(ContestsPanel.ContestBean.class);
+      result.add(ContestsPanel.AssertionBean.class);
+    }
+    return result;
+  }
+
+  private static void logStartupPhase(String phase, long start) {
+    logger.info("startup {} took {} msecs", phase, (System.nanoTime() - start) / 1_000_000);
   }
 }
@@ -1,7 +1,29 @@
 package org.cryptobiotic.rlauxe.viewer;
 
+import java.util.Set;
+
 public interface ViewerPanelIF {
     void setFontSize(float size);
-    boolean setAuditRecord(String auditRecordLocation);
     void saveState();
+
+    /**
+     * Called from a background thread to do the expensive work of making the beans for this session.
+     * Must not touch the Swing components; the returned Runnable publishes the beans to the tables, and is run on the EDT.
+     * The session is shared by all panels; dont reread the audit record.
+     * If the Runnable holds resources that its run() hands over to the panel, it can also be AutoCloseable;
+     * its closed instead of run if the session is replaced before its published.
+     */
+    Runnable prepareAuditRecord(AuditRecordSession session);
+
+    /**
+     * Called from a background thread when the audit record was changed on disk, with the reread session.
+     * Return null if this panel is not affected. Otherwise the returned Runnable is run on the EDT, and should keep the selection.
+     */
+    default Runnable prepareRefresh(AuditRecordSession session, Set<AuditRecordWatcher.Change> changes) {
+        return null;
+    }
+
+    /** Called on the EDT when an already populated panel's tab is selected again. */
+    default void setSelectedTab() {
+    }
 }
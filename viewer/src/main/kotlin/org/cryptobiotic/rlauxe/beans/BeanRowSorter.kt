@@ -0,0 +1,402 @@
+package org.cryptobiotic.rlauxe.beans
+
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import java.text.Collator
+import java.util.Arrays
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import javax.swing.RowSorter
+import javax.swing.SortOrder
+import javax.swing.SwingUtilities
+import javax.swing.Timer
+
+/**
+ * Sorts and filters the rows of a BeanTable, in place of UndoableRowSorter. Sorts by one column.
+ * The column is read once into an int key per row: int columns directly, everything else by the rank of its value
+ * (strings with a Collator, Comparables by compareTo, others by toString, like TableRowSorter; nulls first).
+ * The (key, row) pairs are packed into longs and sorted as primitives, in parallel when the table is large.
+ * The keys of a column and the order of each column and direction are kept until the beans change,
+ * so going back to a column that was sorted before is instant.
+ * Clicking a column thats sorted descending goes back to the model order.
+ *
+ * With ASYNC_ROWS or more rows, a new order (header click, new filter, new beans) is computed on a background thread
+ * from a copy of the bean list, and the table shows the old order until its ready. Then its swapped in on the EDT,
+ * inside keepView so the table can hold its scroll position; JTable keeps the selection on the same beans.
+ * A newer request, or a change to the beans, cancels one thats still running.
+ * Inserted rows that pass the filter go at the end of the view and deleted rows are dropped right away, since the view
+ * has to match the model at all times. The view is sorted again RESORT_MSECS after the last insert, so a stream of
+ * inserts (eg beans added in batches) sorts once, not once per batch.
+ */
+class BeanRowSorter<T>(private val model: BeanTableModel<T>) : RowSorter<BeanTableModel<T>>() {
+    private var sortKey: SortKey? = null // null when unsorted
+    private var rowFilter: ((T) -> Boolean)? = null // null when all rows are shown
+    private var viewToModel: IntArray? = null // null when in model order
+    private var modelToView: IntArray? = null // -1 for rows that are filtered out
+    private val keyCache = HashMap<Int, IntArray>() // model column -> key of each row
+    private val orderCache = HashMap<SortKey, IntArray>() // column and direction -> sorted rows, before filtering
+    private var pending: Job<T>? = null // the background sort, if one is running
+    private val resortTimer = Timer(RESORT_MSECS) { sort() }.apply { isRepeats = false }
+
+    /** Wraps each swap of the view order, eg to hold the scroll position. Called on the EDT. */
+    var keepView: (swap: () -> Unit) -> Unit = { swap -> swap() }
+
+    override fun getModel() = model
+
+    override fun toggleSortOrder(column: Int) {
+        val current = sortKey
+        val next = when {
+            current == null || current.column != column -> SortKey(column, SortOrder.ASCENDING)
+            current.sortOrder == SortOrder.ASCENDING -> SortKey(column, SortOrder.DESCENDING)
+            else -> null // undo the sort
+        }
+        setSortKeys(listOfNotNull(next))
+    }
+
+    // only the first key is used
+    override fun setSortKeys(keys: List<SortKey>?) {
+        val key = keys?.firstOrNull { it.sortOrder != SortOrder.UNSORTED && it.column < model.columnCount }
+        if (key == sortKey) return
+        sortKey = key
+        fireSortOrderChanged()
+        sort()
+    }
+
+    override fun getSortKeys(): List<SortKey> = listOfNotNull(sortKey)
+
+    /** Show only the beans that pass filter, or all beans if null. filter may be called on a background thread. */
+    fun setRowFilter(filter: ((T) -> Boolean)?) {
+        if (filter == null && rowFilter == null) return
+        rowFilter = filter
+        sort()
+    }
+
+    /** True while a new order is being computed in the background. */
+    val isSorting: Boolean
+        get() = pending != null
+
+    override fun convertRowIndexToModel(index: Int): Int {
+        val v2m = viewToModel ?: return checkIndex(index)
+        return v2m[index]
+    }
+
+    override fun convertRowIndexToView(index: Int): Int {
+        val m2v = modelToView ?: return checkIndex(index)
+        return if (index < 0 || index >= m2v.size) throw IndexOutOfBoundsException("Invalid index $index") else m2v[index]
+    }
+
+    private fun checkIndex(index: Int): Int {
+        if (index < 0 || index >= model.rowCount) throw IndexOutOfBoundsException("Invalid index $index")
+        return index
+    }
+
+    override fun getViewRowCount() = viewToModel?.size ?: model.rowCount
+
+    override fun getModelRowCount() = model.rowCount
+
+    // the beans changed: forget the keys and orders, and sort again
+
+    override fun modelStructureChanged() {
+        val key = sortKey
+        if (key != null && key.column >= model.columnCount) {
+            sortKey = null
+            fireSortOrderChanged()
+        }
+        allRowsChanged()
+    }
+
+    // the old order means nothing for the new beans; show them in model order until theyre sorted
+    override fun allRowsChanged() {
+        forget()
+        if (viewToModel != null && model.rowCount >= ASYNC_ROWS) swap(null)
+        sort()
+    }
+
+    override fun rowsInserted(firstRow: Int, endRow: Int) {
+        val wasSorting = forget()
+        val last = viewToModel
+        if (last != null) {
+            val n = endRow - firstRow + 1
+            val filter = rowFilter
+            val view = IntArray(last.size + n) // at most
+            last.forEachIndexed { idx, row -> view[idx] = if (row >= firstRow) row + n else row }
+            var count = last.size
+            for (row in firstRow..endRow) {
+                if (filter == null || passes(filter, model.beans[row])) view[count++] = row
+            }
+            swap(view.copyOf(count))
+        }
+        // the new rows are filtered, but only in order if theres no sort and they went at the end
+        if (wasSorting || sortKey != null || endRow < model.rowCount - 1) resortTimer.restart()
+    }
+
+    // the rows left are still in order and still pass the filter
+    override fun rowsDeleted(firstRow: Int, endRow: Int) {
+        val wasSorting = forget()
+        val last = viewToModel
+        if (last != null) {
+            val n = endRow - firstRow + 1
+            val view = IntArray(last.size) // at most
+            var count = 0
+            for (row in last) {
+                if (row < firstRow) view[count++] = row
+                else if (row > endRow) view[count++] = row - n
+            }
+            swap(view.copyOf(count))
+        }
+        if (wasSorting) sort()
+    }
+
+    // like TableRowSorter, updated rows stay where they are until the next sort
+    override fun rowsUpdated(firstRow: Int, endRow: Int) = updated()
+
+    override fun rowsUpdated(firstRow: Int, endRow: Int, column: Int) = updated()
+
+    private fun updated() {
+        if (forget()) sort() // the running sort may have read the old values
+    }
+
+    // returns true if a background sort was cancelled
+    private fun forget(): Boolean {
+        keyCache.clear()
+        orderCache.clear()
+        return cancel()
+    }
+
+    private fun cancel(): Boolean {
+        val job = pending ?: return false
+        job.cancelled = true
+        job.future?.cancel(true)
+        pending = null
+        return true
+    }
+
+    // compute the view for the current key and filter, now if its cached or small, else in the background
+    private fun sort() {
+        resortTimer.stop()
+        cancel()
+        val key = sortKey
+        val filter = rowFilter
+        if (key == null && filter == null) {
+            if (viewToModel != null) swap(null)
+            return
+        }
+        val order = key?.let { orderCache[it] }
+        if (order != null && filter == null) {
+            swap(order)
+            return
+        }
+
+        val job = Job(key, filter, ArrayList(model.beans), key?.let { keyCache[it.column] }, order)
+        if (job.beans.size < ASYNC_ROWS) {
+            finish(job.compute(model)!!)
+            return
+        }
+        pending = job
+        job.future = executor.submit {
+            try {
+                val result = job.compute(model)
+                if (result != null) SwingUtilities.invokeLater {
+                    if (pending === job) { // else its been cancelled or replaced
+                        pending = null
+                        finish(result)
+                    }
+                }
+            } catch (t: Throwable) {
+                if (!job.cancelled) logger.error("BeanRowSorter: sort failed", t)
+            }
+        }
+    }
+
+    private fun finish(result: Result) {
+        val key = result.key
+        if (key != null) {
+            if (result.keys != null) keyCache[key.column] = result.keys
+            if (result.order != null) orderCache[key] = result.order
+        }
+        swap(result.view)
+    }
+
+    private fun swap(view: IntArray?) {
+        val last = viewToModel
+        keepView {
+            viewToModel = view
+            modelToView = view?.let { invert(it, model.rowCount) }
+            fireRowSorterChanged(last)
+        }
+    }
+
+    private class Result(val key: SortKey?, val keys: IntArray?, val order: IntArray?, val view: IntArray?)
+
+    // one sort and filter of a copy of the beans; keys and order are passed in if theyre cached
+    private class Job<T>(
+        val key: SortKey?,
+        val filter: ((T) -> Boolean)?,
+        val beans: List<T>,
+        val keys: IntArray?,
+        val order: IntArray?,
+    ) {
+        @Volatile var cancelled = false
+        var future: Future<*>? = null
+
+        // null if cancelled
+        fun compute(model: BeanTableModel<T>): Result? {
+            var keys = keys
+            var order = order
+            if (key != null && order == null) {
+                if (keys == null) keys = ColumnKeys.extract(model, beans, key.column) { cancelled } ?: return null
+                if (cancelled) return null
+                order = order(keys, key.sortOrder == SortOrder.DESCENDING)
+            }
+            if (cancelled) return null
+            val view = if (filter == null) order else passing(order ?: IntArray(beans.size) { it }) ?: return null
+            return Result(key, keys, order, view)
+        }
+
+        // the rows whose beans pass the filter, in the same order
+        private fun passing(rows: IntArray): IntArray? {
+            val view = IntArray(rows.size) // at most
+            var count = 0
+            rows.forEachIndexed { idx, row ->
+                if (idx % CHECK_ROWS == 0 && cancelled) return null
+                if (passes(filter!!, beans[row])) view[count++] = row
+            }
+            return view.copyOf(count)
+        }
+    }
+
+    companion object {
+        private val logger: Logger = LoggerFactory.getLogger(BeanRowSorter::class.java)
+
+        const val PARALLEL_ROWS = 10_000
+        const val ASYNC_ROWS = 10_000 // smaller tables are sorted on the EDT, its faster than a round trip
+        internal const val CHECK_ROWS = 4096 // how often a background sort checks if its been cancelled
+        const val RESORT_MSECS = 200 // wait this long after rows are inserted before sorting again
+
+        private fun <T> passes(filter: (T) -> Boolean, bean: T) = try {
+            filter(bean)
+        } catch (e: Exception) {
+            false // a bean the filter cant read isnt shown
+        }
+
+        // shared by all tables; threads go away when theres nothing to sort
+        private val executor: ExecutorService = Executors.newCachedThreadPool { runnable ->
+            val thread = Thread(runnable, "BeanRowSorter")
+            thread.isDaemon = true
+            thread
+        }
+
+        // viewToModel for these keys and direction; ties stay in model order
+        fun order(keys: IntArray, descending: Boolean): IntArray {
+            val packed = LongArray(keys.size) { row ->
+                val key = if (descending) keys[row].inv() else keys[row]
+                (key.toLong() shl 32) or row.toLong()
+            }
+            if (packed.size >= PARALLEL_ROWS) Arrays.parallelSort(packed) else Arrays.sort(packed)
+            return IntArray(packed.size) { packed[it].toInt() }
+        }
+
+        // modelToView, with -1 for the rows that arent in the view
+        fun invert(viewToModel: IntArray, nrows: Int): IntArray {
+            val modelToView = IntArray(nrows) { -1 }
+            viewToModel.forEachIndexed { view, row -> modelToView[row] = view }
+            return modelToView
+        }
+    }
+}
+
+// reads a column into one int key per row, whose order is the order of the values
+internal object ColumnKeys {
+    private const val MISSING = Int.MIN_VALUE // null or unreadable values sort first
+
+    // the keys of a copy of the beans; null if cancelled() while reading them
+    fun <T> extract(model: BeanTableModel<T>, beans: List<T>, column: Int, cancelled: () -> Boolean): IntArray? {
+        val nrows = beans.size
+        fun cancelledAt(row: Int) = row % BeanRowSorter.CHECK_ROWS == 0 && cancelled()
+
+        return when (model.getProperty(column)?.propertyType) {
+            Int::class.javaPrimitiveType, Short::class.javaPrimitiveType, Byte::class.javaPrimitiveType -> {
+                val keys = IntArray(nrows)
+                for (row in 0 until nrows) {
+                    if (cancelledAt(row)) return null
+                    keys[row] = readOrMissing { model.getIntOf(beans[row], column) } ?: MISSING
+                }
+                keys
+            }
+
+            Long::class.javaPrimitiveType -> {
+                val values = LongArray(nrows)
+                for (row in 0 until nrows) {
+                    if (cancelledAt(row)) return null
+                    values[row] = readOrMissing { model.getLongOf(beans[row], column) } ?: Long.MIN_VALUE
+                }
+                ranks(values)
+            }
+
+            Double::class.javaPrimitiveType, Float::class.javaPrimitiveType -> {
+                val values = DoubleArray(nrows)
+                for (row in 0 until nrows) {
+                    if (cancelledAt(row)) return null
+                    values[row] = readOrMissing { model.getDoubleOf(beans[row], column) } ?: Double.NEGATIVE_INFINITY
+                }
+                ranks(values)
+            }
+
+            else -> {
+                val values = arrayOfNulls<Any>(nrows)
+                for (row in 0 until nrows) {
+                    if (cancelledAt(row)) return null
+                    values[row] = model.getValueAt(beans[row], column)
+                }
+                // a Collator isnt thread safe, so each sort gets its own
+                ranks(values, model.getColumnClass(column), Collator.getInstance())
+            }
+        }
+    }
+
+    private inline fun <V> readOrMissing(read: () -> V): V? = try {
+        read()
+    } catch (e: Exception) {
+        null
+    }
+
+    private fun ranks(values: LongArray): IntArray {
+        val sorted = values.copyOf()
+        sorted.sort()
+        var n = 0
+        for (v in sorted) if (n == 0 || sorted[n - 1] != v) sorted[n++] = v
+        return IntArray(values.size) { Arrays.binarySearch(sorted, 0, n, values[it]) }
+    }
+
+    private fun ranks(values: DoubleArray): IntArray {
+        val sorted = values.copyOf()
+        sorted.sort()
+        var n = 0
+        for (v in sorted) if (n == 0 || java.lang.Double.compare(sorted[n - 1], v) != 0) sorted[n++] = v
+        return IntArray(values.size) { Arrays.binarySearch(sorted, 0, n, values[it]) }
+    }
+
+    // the rank of each value among the distinct values; values that compare equal get the same rank
+    private fun ranks(values: Array<Any?>, columnClass: Class<*>, collator: Collator): IntArray {
+        val distinct = values.filterNotNull().distinct()
+        val byString = Comparator<Any> { a, b -> collator.compare(a.toString(), b.toString()) }
+        @Suppress("UNCHECKED_CAST")
+        val natural = Comparator<Any> { a, b -> (a as Comparable<Any>).compareTo(b) }
+        var compare = if (columnClass != String::class.java && Comparable::class.java.isAssignableFrom(columnClass)) natural else byString
+        val sorted = try {
+            distinct.sortedWith(compare)
+        } catch (e: ClassCastException) {
+            compare = byString // eg a value that couldnt be read
+            distinct.sortedWith(compare)
+        }
+
+        val rank = HashMap<Any, Int>(sorted.size * 2)
+        var r = 0
+        sorted.forEachIndexed { idx, v ->
+            if (idx > 0 && compare.compare(sorted[idx - 1], v) != 0) r++
+            rank[v] = r
+        }
+        return IntArray(values.size) { values[it]?.let { v -> rank[v] } ?: MISSING }
+    }
+}
@@ -5,7 +5,6 @@ import org.slf4j.LoggerFactory
 import ucar.ui.table.HidableTableColumnModel
 import ucar.ui.table.TableAligner
 import ucar.ui.table.TableAppearanceAction
-import ucar.ui.table.UndoableRowSorter
 import ucar.ui.widget.IndependentWindow
 import ucar.ui.widget.MultilineTooltip
 import ucar.ui.widget.PopupMenu
@@ -40,6 +39,7 @@ class BeanTable<T>(
     val innerbean: T? = null,
 ) : JPanel() {
     protected var scrollPane: JScrollPane
+    protected val rowSorter: BeanRowSorter<T>
     var boolCellEditor = JCheckBox()
 
     var jtable: JTable
@@ -106,7 +106,8 @@ class BeanTable<T>(
         val tcm: TableColumnModel = HidableTableColumnModel(tableModel)
         jtable = JTable(tableModel, tcm)
         tableModel.jtable = jtable
-        jtable.setRowSorter(UndoableRowSorter(tableModel))
+        rowSorter = BeanRowSorter(tableModel)
+        jtable.setRowSorter(rowSorter)
 
         ToolTipManager.sharedInstance().registerComponent(jtable)
 
@@ -138,6 +139,13 @@ class BeanTable<T>(
         scrollPane.setColumnHeaderView(JViewport())
         scrollPane.getColumnHeader().setPreferredSize(jtable.getTableHeader().getPreferredSize())
 
+        // a sort or filter that finishes in the background shouldnt move the table under the user
+        rowSorter.keepView = { swap ->
+            val viewPosition = scrollPane.getViewport().getViewPosition()
+            swap()
+            scrollPane.getViewport().setViewPosition(viewPosition)
+        }
+
         // UI
         setLayout(BorderLayout())
         add(scrollPane, BorderLayout.CENTER)
@@ -219,7 +227,8 @@ class BeanTable<T>(
         val modelRowIndex = beans.indexOf(bean)
         val viewRowIndex = jtable.convertRowIndexToView(modelRowIndex)
 
-        if (viewRowIndex >= 0) jtable.getSelectionModel().setSelectionInterval(viewRowIndex, viewRowIndex)
+        if (viewRowIndex < 0) return // filtered out
+        jtable.getSelectionModel().setSelectionInterval(viewRowIndex, viewRowIndex)
         makeRowVisible(viewRowIndex)
     }
 
@@ -337,9 +346,58 @@ class BeanTable<T>(
     }
 
     fun addBeans(newBeans: MutableList<T>) {
+        if (newBeans.isEmpty()) return
         this.beans.addAll(newBeans)
         val row = beans.size - 1
-        tableModel.fireTableRowsInserted(row - newBeans.size, row)
+        tableModel.fireTableRowsInserted(row - newBeans.size + 1, row)
+    }
+
+    /**
+     * Merge a newer version of the beans into the table with row level events, so the selection is kept.
+     * Beans are matched by key, and a matched bean always replaces the old one.
+     * Its row gets an update event only if version() differs, or if theres no version; the column values arent compared.
+     * New keys are appended at the end, and rows whose key is gone are removed.
+     * @return the number of rows inserted, updated or deleted
+     */
+    @JvmOverloads
+    fun mergeBeans(newBeans: List<T>, key: (T) -> Any?, version: ((T) -> Any?)? = null): Int {
+        val newByKey = LinkedHashMap<Any?, T>()
+        newBeans.forEach { newByKey[key(it)] = it }
+        var nchanged = 0
+
+        // bottom up, so the row indices stay valid
+        for (row in beans.indices.reversed()) {
+            if (!newByKey.containsKey(key(beans[row]))) {
+                beans.removeAt(row)?.let { tableModel.clearValues(it) }
+                tableModel.fireTableRowsDeleted(row, row)
+                nchanged++
+            }
+        }
+
+        // contiguous changed rows get one event
+        val matched = HashSet<Any?>()
+        var first = -1
+        for (row in beans.indices) {
+            val oldBean = beans[row]
+            val oldKey = key(oldBean)
+            val newBean = newByKey[oldKey]!!
+            matched.add(oldKey)
+            beans[row] = newBean
+            if (oldBean != null && oldBean !== newBean) tableModel.clearValues(oldBean) // the memoized values are kept by identity
+            val changed = version == null || version(oldBean) != version(newBean)
+            if (changed) {
+                if (first < 0) first = row
+                nchanged++
+            } else if (first >= 0) {
+                tableModel.fireTableRowsUpdated(first, row - 1)
+                first = -1
+            }
+        }
+        if (first >= 0) tableModel.fireTableRowsUpdated(first, beans.size - 1)
+
+        val added = newBeans.filter { !matched.contains(key(it)) }.toMutableList()
+        addBeans(added)
+        return nchanged + added.size
     }
 
     fun setBeans(beans: List<T>?) {
@@ -349,6 +407,20 @@ class BeanTable<T>(
         revalidate()
     }
 
+    /** Replace the beans, keeping the scroll position and the selected row. New and old beans are matched by key. */
+    fun setBeansKeepSelection(beans: List<T>?, key: (T) -> Any?) {
+        val selected = getSelectedBean()
+        val selectedKey = if (selected == null) null else key(selected)
+        val viewPosition = scrollPane.getViewport().getViewPosition()
+
+        setBeans(beans)
+        scrollPane.getViewport().setViewPosition(viewPosition)
+        if (selectedKey != null) {
+            val bean = this.beans.find { key(it) == selectedKey }
+            if (bean != null) setSelectedBean(bean)
+        }
+    }
+
     fun clearBeans() {
         setBeans(null)
     }
@@ -391,10 +463,28 @@ class BeanTable<T>(
         jtable.repaint()
     }
 
+    // the beans may have changed: read their values again, and repaint
     fun refresh() {
+        tableModel.clearValues()
         jtable.repaint()
     }
 
+    /**
+     * Show only the beans that pass filter, or all of them if null. On large tables the filter runs on a background
+     * thread, so it must only read the bean. Call again to re-apply it after the beans change in place.
+     */
+    fun setRowFilter(filter: ((T) -> Boolean)?) {
+        rowSorter.setRowFilter(filter)
+    }
+
+    /**
+     * Keep each row's column values once read, for beans with expensive getters, so repainting and sorting dont call
+     * them again. A row is read again after fireBeanDataChanged() or an edit; all rows after refresh() or setBeans().
+     */
+    fun setMemoizeValues(memoize: Boolean) {
+        tableModel.memoize = memoize
+    }
+
     /**
      * Set the ColumnSelection is allowed (default false)
      * 
@@ -442,6 +532,7 @@ class BeanTable<T>(
      * @param bean a bean that has changed.
      */
     fun fireBeanDataChanged(bean: T) {
+        if (bean != null) tableModel.clearValues(bean)
         val row = beans.indexOf(bean)
         if (row >= 0) {
             tableModel.fireTableRowsUpdated(row, row)
@@ -5,16 +5,19 @@ import org.cryptobiotic.rlauxe.util.sfn
 import org.cryptobiotic.rlauxe.util.trunc
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
+import ucar.ui.table.BeanMetadata
 import ucar.ui.table.HidableTableColumnModel
+import ucar.ui.table.PropertyAccessor
 import ucar.util.prefs.PreferencesExt
-import java.beans.Introspector
 import java.beans.PropertyDescriptor
-import java.lang.reflect.Method
+import java.util.Collections
+import java.util.IdentityHashMap
 import java.util.function.Function
 import java.util.stream.Collectors
 import javax.swing.JComponent
 import javax.swing.JLabel
 import javax.swing.JTable
+import javax.swing.event.TableModelEvent
 import javax.swing.table.AbstractTableModel
 import kotlin.Any
 import kotlin.Byte
@@ -26,8 +29,6 @@ import kotlin.Long
 import kotlin.Short
 import kotlin.String
 import kotlin.Throwable
-import kotlin.arrayOfNulls
-import kotlin.checkNotNull
 import kotlin.math.max
 import kotlin.math.min
 
@@ -37,119 +38,46 @@ private val logger: Logger = LoggerFactory.getLogger(BeanTableModel::class.java)
 private val showTableTypes = false
 private val debugBean = false
 private val debugEditing = false
+private val NOT_READ = Any() // a memoized value not read yet
 
 // shared beans
 class BeanTableModel<T>(val store: PreferencesExt, val beanClass: Class<T>, val beans: MutableList<T>, val innerbean: T?, ) : AbstractTableModel() {
     var jtable = JTable()
 
     var properties: MutableList<PropertyDescriptor> = ArrayList<PropertyDescriptor>()
-    private var canedit: Method? = null
+    // made once per property, parallel to properties; much faster than invoking the read method
+    private val accessors = ArrayList<PropertyAccessor>()
+    private var canedit: Function<Any?, Any?>? = null
+
+    // when memoize is on, each bean's column values are kept once read, so expensive getters arent called on every
+    // repaint and sort. Rows are read again after an update event for them (fireBeanDataChanged, an edit), new data, or clearValues().
+    var memoize = false
+        set(value) {
+            field = value
+            clearValues()
+        }
+    private val rowValues: MutableMap<Any, Array<Any?>> = Collections.synchronizedMap(IdentityHashMap())
 
     init {
-        // get bean info
-        val info =
-            if (!beanClass.isInterface()) Introspector.getBeanInfo(beanClass, Any::class.java)
-            else Introspector.getBeanInfo(beanClass) // allows interfaces to be beans
-
+        // the introspection is done once per bean class, and shared with the other tables
+        val meta = BeanMetadata.of(beanClass)
         if (debugBean) println("Bean " + beanClass.getName())
 
-        // see if editableProperties method exists
-        var editableProperties = ""
-        val mds = info.getMethodDescriptors()
-        checkNotNull(mds) { "no public methods" }
-
-        //       for (MethodDescriptor md : mds) {
-        //        Method m = md.getMethod();
-        //        if (m != null && m.getName().equals("editableProperties")) {
-        //          try {
-        //            editableProperties = (String) m.invoke(null, (Object[]) null); // try static
-        //            if (debugEditing)
-        //              System.out.println(" static editableProperties: " + editableProperties);
-        //          } catch (Exception ee) {
-        //
-        //            if (innerbean != null) {
-        //              try {
-        //                editableProperties = (String) m.invoke(innerbean, (Object[]) null); // try non static
-        //                if (debugEditing)
-        //                  System.out.println(" editableProperties: " + editableProperties);
-        //              } catch (Exception e2) {
-        //                e2.printStackTrace();
-        //              }
-        //
-        //            } else {
-        //              ee.printStackTrace();
-        //            }
-        //          }
-        //        }
-        //      }
-        
-        for (md in mds) {
-            val m = md.getMethod()
-            if (m != null && m.getName() == "editableProperties") {
-                try {
-                    editableProperties = m.invoke(null) as String // try static
-                    if (debugEditing) println(" static editableProperties: " + editableProperties)
-                } catch (ee: Exception) {
-                    if (innerbean != null) {
-                        try {
-                            editableProperties = m.invoke(innerbean, null) as String // try non static
-                            if (debugEditing) println(" editableProperties: " + editableProperties)
-                        } catch (e2: Exception) {
-                            e2.printStackTrace()
-                        }
-                    } else {
-                        ee.printStackTrace()
-                    }
-                }
-            }
-        }
+        val editableProperties = meta.getEditableProperties(innerbean)
+        if (debugEditing) println(" editableProperties: " + editableProperties)
 
-        // see if hiddenProperties method exists
-        var hiddenProperties = ""
-        for (md in mds) {
-            val m = md.getMethod()
-
-            if (m.getName() == "hiddenProperties") {
-                try {
-                    hiddenProperties = m.invoke(null) as String // class property
-                    if (debugBean) println(" hiddenProperties: " + hiddenProperties)
-                } catch (ee: Exception) {
-                    if (innerbean != null) {
-                        try {
-                            hiddenProperties = m.invoke(innerbean, null) as String // try non static
-                            if (debugBean) println(" hiddenProperties: " + hiddenProperties)
-                        } catch (e2: Exception) {
-                            e2.printStackTrace()
-                        }
-                    } else {
-                        println("BeanTable: Bad hiddenProperties ")
-                        ee.printStackTrace()
-                    }
-                }
-            }
-        }
+        val hiddenProperties = meta.getHiddenProperties(innerbean)
+        if (debugBean) println(" hiddenProperties: " + hiddenProperties)
 
-        // see if canedit method exists
-        if (innerbean != null) {
-            for (md in mds) {
-                val m = md.getMethod()
-                if (m.getName() == "canedit") {
-                    try {
-                        val canedit = m.invoke(innerbean) as Boolean // see if method returns boolean
-                        this.canedit = if (canedit) m else null
-                        if (debugEditing) System.out.printf("BeanTable canedit: %s ", innerbean.javaClass.getName())
-                    } catch (e2: Exception) {
-                        e2.printStackTrace()
-                    }
-                }
-            }
-        }
+        this.canedit = meta.getCanedit(innerbean)
+        if (debugEditing && canedit != null) System.out.printf("BeanTable canedit: %s ", innerbean!!.javaClass.getName())
 
         // properties must have read method, not be hidden
-        val pds = info.getPropertyDescriptors()
-        for (pd in pds) {
-            if ((pd.getReadMethod() != null) && !isHidden(pd, hiddenProperties)) {
+        for (accessor in meta.getProperties()) {
+            val pd = BeanMetadata.copy(accessor.getDescriptor()) // this table's names and editable
+            if (!isHidden(pd, hiddenProperties)) {
                 properties.add(pd)
+                accessors.add(accessor)
                 // preferred == editable
                 setEditable(pd, editableProperties)
             }
@@ -158,9 +86,8 @@ class BeanTableModel<T>(val store: PreferencesExt, val beanClass: Class<T>, val
         if (showTableTypes) {
             println("Properties:")
             println("               name  | type |  wrap  | editable ")
-            for (pd in pds) {
+            for (pd in properties) {
                 val displayName = pd.getDisplayName()
-                val name = pd.getName()
                 val type = pd.getPropertyType()
                 println("${trunc(displayName,20)} | ${type.getName()} | ${wrapPrimitives(type)}| ${pd.isPreferred()}")
             }
@@ -202,8 +129,7 @@ class BeanTableModel<T>(val store: PreferencesExt, val beanClass: Class<T>, val
         var value: Any? = "N/A"
         val pd = properties.get(col)
         try {
-            val m = pd.getReadMethod()
-            value = m.invoke(bean) // , null)
+            value = readValue(bean, col)
         } catch (ee: Exception) {
             logger.warn("BeanTable: Bad getReadMethod " + row + " " + col + " " + beanClass.getName() + " " + pd.getDisplayName())
             ee.printStackTrace()
@@ -216,8 +142,7 @@ class BeanTableModel<T>(val store: PreferencesExt, val beanClass: Class<T>, val
     fun getValueAt(bean: T, col: Int): Any {
         var value: Any = "N/A"
         try {
-            val m = properties.get(col).getReadMethod()
-            value = m.invoke(bean) // , null)
+            value = readValue(bean, col) ?: value
         } catch (ee: Exception) {
             logger.error("BeanTable: Bad bean=" + bean!!.javaClass.getName() + ", beanClass=" + beanClass.getName())
             logger.error("BeanTable: getValueAt error message= {}", ee.message)
@@ -225,6 +150,54 @@ class BeanTableModel<T>(val store: PreferencesExt, val beanClass: Class<T>, val
         return value
     }
 
+    private fun readValue(bean: Any?, col: Int): Any? {
+        if (!memoize || bean == null) return accessors.get(col).get(bean)
+        val values = rowValues.computeIfAbsent(bean) { Array<Any?>(accessors.size) { NOT_READ } }
+        var value = values[col]
+        if (value === NOT_READ) {
+            value = accessors.get(col).get(bean)
+            values[col] = value // if two threads race, both read the same value
+        }
+        return value
+    }
+
+    // unboxed values of int, long and double columns, for sorting; memoized values are used if there are any.
+    // these take the bean, not the row, so they can be read from a copy of the beans on another thread
+    fun getIntOf(bean: T, col: Int): Int =
+        if (memoize) (readValue(bean, col) as Number).toInt() else accessors.get(col).getInt(bean)
+
+    fun getLongOf(bean: T, col: Int): Long =
+        if (memoize) (readValue(bean, col) as Number).toLong() else accessors.get(col).getLong(bean)
+
+    fun getDoubleOf(bean: T, col: Int): Double =
+        if (memoize) (readValue(bean, col) as Number).toDouble() else accessors.get(col).getDouble(bean)
+
+    // forget all the memoized values, eg when the beans have changed in ways the table wasnt told about
+    fun clearValues() {
+        rowValues.clear()
+    }
+
+    // forget the memoized values of this bean
+    fun clearValues(bean: Any) {
+        rowValues.remove(bean)
+    }
+
+    // all the changes to the beans come through here, so the memoized values are dropped here too
+    override fun fireTableChanged(e: TableModelEvent) {
+        if (memoize) {
+            if (e.firstRow == TableModelEvent.HEADER_ROW || e.lastRow == Int.MAX_VALUE) {
+                clearValues() // new data or structure
+            } else if (e.type == TableModelEvent.UPDATE) {
+                for (row in e.firstRow..minOf(e.lastRow, beans.size - 1)) beans[row]?.let { clearValues(it) }
+            } else if (e.type == TableModelEvent.DELETE && rowValues.size > beans.size) {
+                val current = Collections.newSetFromMap(IdentityHashMap<Any, Boolean>())
+                beans.forEach { if (it != null) current.add(it) }
+                synchronized(rowValues) { rowValues.keys.retainAll(current) }
+            }
+        }
+        super.fireTableChanged(e)
+    }
+
     // editing
     override fun getColumnClass(col: Int): Class<*> {
         return wrapPrimitives(properties.get(col).getPropertyType())
@@ -244,7 +217,7 @@ class BeanTableModel<T>(val store: PreferencesExt, val beanClass: Class<T>, val
         if (this.canedit == null) return true
         val bean: Any? = beans.get(row)
         try {
-            val ok = this.canedit!!.invoke(bean, null) as Boolean // can canedit method
+            val ok = this.canedit!!.apply(bean) as Boolean // can canedit method
             if (debugEditing) println("isRowEditable " + row + " == " + ok)
             return ok
         } catch (e2: Exception) {
@@ -256,18 +229,16 @@ class BeanTableModel<T>(val store: PreferencesExt, val beanClass: Class<T>, val
     override fun setValueAt(value: Any?, row: Int, col: Int) {
         val bean: Any? = beans.get(row)
         try {
-            val params = arrayOfNulls<Any>(1)
-            params[0] = value
-            val m = properties.get(col).getWriteMethod()
-            if (m != null) {
-                m.invoke(bean, *params)
-                if (debugEditing) println("invoke " + m)
+            val accessor = accessors.get(col)
+            if (accessor.isWritable()) {
+                accessor.set(bean, value)
+                if (debugEditing) println("set " + accessor)
             }
         } catch (ee: Exception) {
             ee.printStackTrace()
         }
 
-        fireTableCellUpdated(row, col)
+        fireTableCellUpdated(row, col) // the whole row is read again, since other columns may depend on this one
     }
 
     // extra stuff
@@ -305,6 +276,11 @@ class BeanTableModel<T>(val store: PreferencesExt, val beanClass: Class<T>, val
     fun getProperty(idx: Int): PropertyDescriptor? {
         return properties.get(idx)
     }
+
+    // the accessor of the model column
+    fun getAccessor(col: Int): PropertyAccessor {
+        return accessors.get(col)
+    }
     
     private fun setEditable(pd: PropertyDescriptor, editableProperties: String) {
         val editP = editableProperties.split(" ")
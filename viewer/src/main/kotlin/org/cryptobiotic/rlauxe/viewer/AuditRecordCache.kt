@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+package org.cryptobiotic.rlauxe.viewer
+
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import java.io.IOException
+import java.lang.ref.SoftReference
+import java.nio.file.Files
+import java.nio.file.Path
+import kotlin.io.path.isRegularFile
+
+/**
+ * LRU cache of recently opened AuditRecordSessions, so switching back to a record doesnt parse it again.
+ * An entry is only used if the files in the record directory still have the same sizes and modification times.
+ * Sessions are held by SoftReference so the GC can reclaim them under memory pressure. The total is also
+ * limited to budgetBytes, estimated from the size of the record files on disk.
+ */
+object AuditRecordCache {
+    private val logger: Logger = LoggerFactory.getLogger(AuditRecordCache::class.java)
+
+    var budgetBytes: Long = 512L * 1024 * 1024
+
+    data class Fingerprint(val nfiles: Int, val totalBytes: Long, val lastModified: Long, val hash: Long)
+
+    private class Entry(val fingerprint: Fingerprint, val session: SoftReference<AuditRecordSession>)
+
+    private val entries = LinkedHashMap<String, Entry>(16, 0.75f, true) // access order, eldest first
+
+    // stat the files of the audit record, without reading them
+    fun fingerprint(location: String): Fingerprint {
+        var nfiles = 0
+        var totalBytes = 0L
+        var lastModified = 0L
+        var hash = 0L
+        val topdir = Path.of(location)
+        if (!Files.isDirectory(topdir)) return Fingerprint(0, 0, 0, 0)
+
+        Files.walk(topdir, 3).use { paths ->
+            paths.filter { it.isRegularFile() }.forEach { path ->
+                try {
+                    val size = Files.size(path)
+                    val modified = Files.getLastModifiedTime(path).toMillis()
+                    nfiles++
+                    totalBytes += size
+                    lastModified = maxOf(lastModified, modified)
+                    hash += 31 * (31 * path.hashCode().toLong() + size) + modified // order independent
+                } catch (e: IOException) {
+                    hash++ // deleted while we were looking
+                }
+            }
+        }
+        return Fingerprint(nfiles, totalBytes, lastModified, hash)
+    }
+
+    // return null if not cached, reclaimed by the GC, or the files have changed
+    @Synchronized
+    fun get(location: String, fingerprint: Fingerprint): AuditRecordSession? {
+        val entry = entries[location] ?: return null
+        val session = entry.session.get()
+        if (session == null || entry.fingerprint != fingerprint) {
+            entries.remove(location)
+            return null
+        }
+        return session
+    }
+
+    @Synchronized
+    fun put(location: String, fingerprint: Fingerprint, session: AuditRecordSession) {
+        entries[location] = Entry(fingerprint, SoftReference(session))
+
+        // evict least recently used, but always keep the newest
+        entries.values.removeIf { it.session.get() == null }
+        var total = entries.values.sumOf { it.fingerprint.totalBytes }
+        val iter = entries.entries.iterator()
+        while (total > budgetBytes && entries.size > 1) {
+            val eldest = iter.next()
+            total -= eldest.value.fingerprint.totalBytes
+            iter.remove()
+            logger.debug("evict ${eldest.key}")
+        }
+    }
+
+    @Synchronized
+    fun remove(location: String) {
+        entries.remove(location)
+    }
+
+    @Synchronized
+    fun clear() {
+        entries.clear()
+    }
+}
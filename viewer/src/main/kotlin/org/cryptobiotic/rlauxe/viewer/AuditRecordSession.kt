@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+package org.cryptobiotic.rlauxe.viewer
+
+import org.cryptobiotic.rlauxe.audit.Config
+import org.cryptobiotic.rlauxe.persist.AuditRecord
+import org.cryptobiotic.rlauxe.persist.AuditRecordIF
+import org.cryptobiotic.rlauxe.persist.CompositeAuditRecord
+import org.cryptobiotic.rlauxe.persist.CountyAuditRecord
+import org.cryptobiotic.rlauxe.workflow.PersistedMvrManager
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import java.util.concurrent.CancellationException
+
+/**
+ * An opened audit record, shared by all the ViewerPanelIF panels.
+ * The record is read once; the PersistedMvrManager, pools and styles are made once, on first use.
+ * The fingerprint is of the record files when it was read.
+ */
+class AuditRecordSession(val location: String, val auditRecord: AuditRecordIF, val fingerprint: AuditRecordCache.Fingerprint) {
+
+    val config: Config
+        get() = auditRecord.config
+
+    // null for CompositeAuditRecord
+    val mvrManager: PersistedMvrManager? by lazy {
+        checkInterrupted()
+        when (auditRecord) {
+            is CompositeAuditRecord -> null
+            is CountyAuditRecord -> PersistedMvrManager(auditRecord, false)
+            is AuditRecord -> PersistedMvrManager(auditRecord, false)
+            else -> null
+        }
+    }
+
+    // a lazy read thats interrupted is tried again on the next use
+    val pools by lazy { checkInterrupted(); mvrManager?.pools() }
+    val styles by lazy { checkInterrupted(); mvrManager?.styles() }
+    val countyPools by lazy { checkInterrupted(); mvrManager?.countyPools() }
+    val countyCvrPools by lazy { checkInterrupted(); mvrManager?.countyCvrPools() }
+
+    // the binary copy of the card manifest in ~/.rlauxe/cache, if there is an up to date one
+    fun manifestSnapshot(): ManifestSnapshot? = ManifestSnapshot.open(location, fingerprint)
+
+    // the cards of the manifest, from the snapshot, writing it first if needed; otherwise from the manifest itself.
+    // null for CompositeAuditRecord. The caller closes it.
+    fun cardPageSource(): CardPageSource? {
+        val mvrManager = mvrManager ?: return null
+        var source: CardPageSource? = manifestSnapshot()
+        if (source == null) checkInterrupted()
+        if (source == null && ManifestSnapshot.write(this)) {
+            source = manifestSnapshot()
+        }
+        return source ?: ManifestPageSource(mvrManager.sortedManifest())
+    }
+
+    // made once by the ManifestSummaryTable; the session is thrown away when the record changes
+    @Volatile
+    var manifestSummary: ManifestSummary? = null
+
+    override fun toString() = "AuditRecordSession('$location')"
+
+    companion object {
+        private val logger: Logger = LoggerFactory.getLogger(AuditRecordSession::class.java)
+
+        // a cancelled AuditRecordLoader interrupts its thread; dont start another expensive read
+        private fun checkInterrupted() {
+            if (Thread.currentThread().isInterrupted) throw CancellationException("AuditRecordSession read cancelled")
+        }
+
+        // return null if no audit record at location.
+        // a recently opened record is reused from the AuditRecordCache if its files havent changed.
+        @JvmStatic
+        @JvmOverloads
+        fun open(location: String, useCache: Boolean = true): AuditRecordSession? {
+            val fingerprint = AuditRecordCache.fingerprint(location)
+            if (useCache) {
+                val cached = AuditRecordCache.get(location, fingerprint)
+                if (cached != null) {
+                    logger.info("AuditRecordSession reuse cached $location")
+                    return cached
+                }
+            }
+
+            checkInterrupted()
+            val auditRecord = AuditRecord.read(location)
+            if (auditRecord == null) {
+                logger.info("AuditRecordSession failed on read $location")
+                AuditRecordCache.remove(location)
+                return null
+            }
+            val session = AuditRecordSession(location, auditRecord, fingerprint)
+            AuditRecordCache.put(location, fingerprint, session)
+            return session
+        }
+    }
+}
@@ -20,7 +20,6 @@ import org.cryptobiotic.rlauxe.core.AssorterIF
 import org.cryptobiotic.rlauxe.core.ClcaAssertion
 import org.cryptobiotic.rlauxe.core.ContestWithAssertions
 import org.cryptobiotic.rlauxe.dhondt.*
-import org.cryptobiotic.rlauxe.persist.AuditRecord.Companion.read
 import org.cryptobiotic.rlauxe.persist.CompositeAuditRecord
 import org.cryptobiotic.rlauxe.util.dfn
 import org.cryptobiotic.rlauxe.viewer.ViewerMain.ViewerProfile
@@ -183,22 +182,23 @@ class BelgiumContestsTable(
     } */
     fun applySampleLimits() {
         val limits = auditRecord!!.readSampleLimits() // should this be global ?
-        for (bean in contestTable.beans) {
-            var foundit = false
-            for (limit in limits) {
-                if (bean.id == limit.id) {
-                    bean.mvrLimitBack = limit.limit
-                    bean.contestRound.haveSampleSize = limit.limit
-                    foundit = true
-                    logger.debug("read contest limit {}", limit)
-                }
-            }
-            if (!foundit) {
+        applySampleLimits(contestTable.beans, limits.associate { it.id to it.limit })
+        auditData.updateStatus()
+        repaint()
+    }
+
+    // limits are contestId -> limit
+    private fun applySampleLimits(beans: List<ContestBean>, limits: Map<Int, Int>) {
+        for (bean in beans) {
+            val limit = limits[bean.id]
+            if (limit != null) {
+                bean.mvrLimitBack = limit
+                bean.contestRound.haveSampleSize = limit
+                logger.debug("read contest limit {} for contest {}", limit, bean.id)
+            } else {
                 bean.contestRound.haveSampleSize = bean.orgSampleSize
             }
         }
-        auditData.updateStatus()
-        repaint()
     }
 
     override fun setFontSize(size: Float) {
@@ -208,67 +208,81 @@ class BelgiumContestsTable(
         partyTable.setFontSize(size)
     }
 
-    override fun setAuditRecord(auditRecordLocation: String): Boolean {
-        this.auditRecordLocation = auditRecordLocation
-        contestTable.setBeans(null)
+    // make the beans off the EDT
+    override fun prepareAuditRecord(session: AuditRecordSession) = prepare(session, false)
+
+    // new rounds were written; keep the selected contest and party
+    override fun prepareRefresh(session: AuditRecordSession, changes: Set<AuditRecordWatcher.Change>): Runnable? {
+        if (!changes.contains(AuditRecordWatcher.Change.ROUNDS)) return null
+        return prepare(session, true)
+    }
 
+    private fun prepare(session: AuditRecordSession, keepSelection: Boolean): Runnable {
+        val auditRecordLocation = session.location
         logger.debug("setAuditRecord " + auditRecordLocation + " with profile " + profile)
 
-        try {
+        val clearTable = Runnable {
             this.auditRecordLocation = auditRecordLocation
-            val record = read(auditRecordLocation)
-            if (record == null) return false
-            if (record.rounds.isEmpty()) {
-                logger.info("{} first round was not started", auditRecordLocation) // TODO plan B
-                return false
-            }
-            if (record !is CompositeAuditRecord) {
-                logger.info("{} must be CompositeAuditRecord", auditRecordLocation)
-                return false
-            }
-            this.auditRecord = record
-            this.lastAuditRound = auditRecord!!.rounds.last()
+            if (!keepSelection) contestTable.setBeans(null)
+        }
 
-            this.config = auditRecord!!.config
-            ContestBean.alpha = config!!.riskLimit
+        val record = session.auditRecord
+        if (record.rounds.isEmpty()) {
+            logger.info("{} first round was not started", auditRecordLocation) // TODO plan B
+            return clearTable
+        }
+        if (record !is CompositeAuditRecord) {
+            logger.info("{} must be CompositeAuditRecord", auditRecordLocation)
+            return clearTable
+        }
+        val lastRound = record.rounds.last()
 
-            val beanList: MutableList<ContestBean> = ArrayList<ContestBean>()
-            for (contestRound in lastAuditRound!!.contestRounds) {
-                if (contestRound.contestUA.preAuditStatus == TestH0Status.InProgress) {
-                    val bean = ContestBean(contestRound, auditData)
-                    beanList.add(bean)
-                }
+        val beanList: MutableList<ContestBean> = ArrayList<ContestBean>()
+        for (contestRound in lastRound.contestRounds) {
+            if (contestRound.contestUA.preAuditStatus == TestH0Status.InProgress) {
+                val bean = ContestBean(contestRound, auditData)
+                beanList.add(bean)
             }
-            beanList.sortBy { it.payoff }
-            contestTable.setBeans(beanList)
+        }
+        beanList.sortBy { it.payoff }
 
-            auditData.setNewBeans(beanList)
-            applySampleLimits() // read in sample limits and apply them
-
-            // parties
-            partyNames = auditRecord!!.readPartyNames()
-            val sampleLimits = auditRecord!!.readSampleLimits()
-            allSeats = makeAllSeats(this.lastAuditRound!!, sampleLimits)
-            val candBeans: MutableList<PartyBean> = ArrayList<PartyBean>()
-            for (candidateSeat in allSeats!!.candidateSums) {
-                if (candidateSeat.maxSeats > 0) {
-                    val bean = PartyBean(candidateSeat)  { updateCandidateTotal() }
-                    candBeans.add(bean)
-                }
+        // read in sample limits and apply them
+        val sampleLimits = record.readSampleLimits()
+        applySampleLimits(beanList, sampleLimits.associate { it.id to it.limit })
+
+        // parties
+        val names = record.readPartyNames()
+        val seats = makeAllSeats(lastRound, sampleLimits)
+        val candBeans: MutableList<PartyBean> = ArrayList<PartyBean>()
+        for (candidateSeat in seats.candidateSums) {
+            if (candidateSeat.maxSeats > 0) {
+                val bean = PartyBean(candidateSeat)  { updateCandidateTotal() }
+                candBeans.add(bean)
             }
-            coalitionTotal = makeCandidatesTotal(candBeans)
-            candBeans.add(coalitionTotal!!)
+        }
+        val total = makeCandidatesTotal(candBeans, seats, names)
+        candBeans.add(total)
+        candBeans.sortByDescending { it.reportedSeats }
 
-            candBeans.sortByDescending { it.reportedSeats }
-            partyTable.setBeans(candBeans)
+        return Runnable {
+            clearTable.run()
+            this.auditRecord = record
+            this.lastAuditRound = lastRound
+            this.config = record.config
+            ContestBean.alpha = record.config.riskLimit
 
-        } catch (e: Exception) {
-            e.printStackTrace()
-            JOptionPane.showMessageDialog(null, e.message)
-            logger.error("setAuditRecord failed", e)
+            if (keepSelection) contestTable.setBeansKeepSelection(beanList) { it.id }
+            else contestTable.setBeans(beanList)
+            auditData.setNewBeans(beanList)
+            auditData.updateStatus()
+            repaint()
+
+            this.partyNames = names
+            this.allSeats = seats
+            this.coalitionTotal = total
+            if (keepSelection) partyTable.setBeansKeepSelection(candBeans) { it.partyId }
+            else partyTable.setBeans(candBeans)
         }
-
-        return true
     }
 
     fun setSelectedContest(contestBean: ContestBean) {
@@ -338,11 +352,15 @@ class BelgiumContestsTable(
 
 
     fun makeCandidatesTotal(beans: MutableList<PartyBean>): PartyBean {
+        return makeCandidatesTotal(beans, allSeats!!, partyNames)
+    }
+
+    private fun makeCandidatesTotal(beans: MutableList<PartyBean>, allSeats: AllSeats, partyNames: Map<Int, String>): PartyBean {
         val candidates = mutableSetOf<Int>()
         for (bean in beans) {
             candidates.add(bean.partyId)
         }
-        val allcoal = allSeats!!.calcCoalition(candidates, partyNames)
+        val allcoal = allSeats.calcCoalition(candidates, partyNames)
 
         val cand = CandidateSeats(0, "-- coalition --")
         cand.reportedSeats = allcoal.reportedSeats()
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+package org.cryptobiotic.rlauxe.viewer
+
+import org.cryptobiotic.rlauxe.audit.AuditableCard
+import javax.swing.table.AbstractTableModel
+
+/**
+ * All the cards of a list held in memory, as CardColumns blocks of blockSize cards; only the last block may be shorter.
+ * Used for lists that are kept in full, like the mvrs. Append on one thread (the EDT for a table); source() is for other threads.
+ */
+class CardBlocks(val blockSize: Int) {
+    private val blocks = ArrayList<CardColumns>()
+
+    var nrows = 0
+        private set
+
+    fun append(block: CardColumns) {
+        require(blocks.isEmpty() || blocks.last().size == blockSize) { "only the last block can be short" }
+        blocks.add(block)
+        nrows += block.size
+    }
+
+    fun block(row: Int): CardColumns = blocks[row / blockSize]
+
+    fun offset(row: Int) = row % blockSize
+
+    fun record(row: Int) = block(row).record(offset(row))
+
+    // the blocks may be off heap; call when theyre no longer shown
+    fun release() {
+        blocks.forEach { it.release() }
+        blocks.clear()
+        nrows = 0
+    }
+
+    // the rows appended so far, for a background thread. release() only stops counting the blocks, so its safe to keep reading
+    fun source(): CardPageSource = BlocksSource(blocks.toList(), blockSize, nrows)
+
+    private class BlocksSource(private val blocks: List<CardColumns>, private val blockSize: Int, override val nrows: Int) : CardPageSource {
+        override val randomAccess: Boolean
+            get() = true
+
+        // the blocks have all the fields already
+        override fun read(start: Int, count: Int, fields: Set<CardField>): List<CardRecord> {
+            val end = minOf(start + count, nrows)
+            val result = ArrayList<CardRecord>(maxOf(0, end - start))
+            for (row in start until end) result.add(blocks[row / blockSize].record(row % blockSize))
+            return result
+        }
+    }
+
+    /**
+     * Makes the blocks from cards read one at a time, on the reading thread.
+     * add() returns a full block every blockSize cards, and finish() the short last one; append them in that order.
+     */
+    class Builder(private val dictionary: CardDictionary, private val blockSize: Int) {
+        private var builder = CardColumns.Builder(dictionary, blockSize)
+
+        // the cards added so far, which is also the row of the next one
+        var nrows = 0
+            private set
+
+        fun add(card: AuditableCard): CardColumns? {
+            builder.add(card)
+            return added()
+        }
+
+        fun add(card: CardRecord): CardColumns? {
+            builder.add(card)
+            return added()
+        }
+
+        private fun added(): CardColumns? {
+            nrows++
+            if (!builder.isFull) return null
+            val block = builder.build()
+            builder = CardColumns.Builder(dictionary, blockSize)
+            return block
+        }
+
+        // null if theres no short block left over
+        fun finish(): CardColumns? {
+            if (builder.size == 0) return null
+            val block = builder.build()
+            builder = CardColumns.Builder(dictionary, blockSize)
+            return block
+        }
+    }
+}
+
+/** A TableModel of all the rows of a CardBlocks, with the same columns as the PagedCardTableModel. Only use on the EDT. */
+class CardBlocksTableModel(val cards: CardBlocks) : AbstractTableModel() {
+    private val columns = PagedCardTableModel.columns
+
+    override fun getRowCount() = cards.nrows
+
+    override fun getColumnCount() = columns.size
+
+    override fun getColumnName(col: Int) = columns[col].name
+
+    override fun getColumnClass(col: Int) = columns[col].type
+
+    override fun getValueAt(row: Int, col: Int): Any? = columns[col].value(cards.block(row), cards.offset(row))
+
+    fun append(block: CardColumns) {
+        if (block.size == 0) return
+        val first = cards.nrows
+        cards.append(block)
+        fireTableRowsInserted(first, cards.nrows - 1)
+    }
+
+    fun clear() {
+        val nrows = cards.nrows
+        cards.release()
+        if (nrows > 0) fireTableRowsDeleted(0, nrows - 1)
+    }
+}
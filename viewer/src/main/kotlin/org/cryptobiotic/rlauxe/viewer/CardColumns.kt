@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+package org.cryptobiotic.rlauxe.viewer
+
+import org.cryptobiotic.rlauxe.audit.AuditableCard
+import java.util.BitSet
+
+/**
+ * A block of cards stored by column in primitive arrays, instead of one object per card.
+ * Styles and contest lists are dictionary encoded in a CardDictionary shared by all the blocks of a manifest.
+ * The votes of all the cards are packed into one array: for each card, ncontests, then for each contest
+ * the contest id, ncands and the candidate ids. The array is kept off the heap by the OffHeapVoteStore if theres room.
+ * Immutable once built, so it can be made on one thread and read on another.
+ */
+class CardColumns private constructor(
+    val size: Int,
+    val dictionary: CardDictionary,
+    private val index: IntArray,
+    private val prn: LongArray,
+    private val phantom: BitSet,
+    private val poolId: IntArray,
+    private val id: Array<String>,
+    private val location: Array<String>,
+    private val styleId: IntArray,
+    private val contestsId: IntArray,
+    private val hasVotes: BitSet,
+    private val votesStart: IntArray, // size + 1
+    private val votes: PackedVotes,
+) {
+    fun index(row: Int) = index[row]
+    fun prn(row: Int) = prn[row]
+    fun phantom(row: Int) = phantom.get(row)
+    fun poolId(row: Int): Int? = poolId[row].let { if (it == NO_POOL) null else it }
+    fun id(row: Int) = id[row]
+    fun location(row: Int) = location[row]
+    fun styleId(row: Int) = styleId[row] // into the dictionary, or CardDictionary.NO_STYLE
+    fun contestsId(row: Int) = contestsId[row] // into the dictionary
+    fun styleName(row: Int): String? = dictionary.style(styleId[row])?.name
+    fun stylePossibleContests(row: Int): IntArray? = dictionary.style(styleId[row])?.possibleContests
+    fun possibleContests(row: Int): IntArray = dictionary.contests(contestsId[row])
+
+    fun votes(row: Int): Map<Int, IntArray>? {
+        if (!hasVotes.get(row)) return null
+        val result = LinkedHashMap<Int, IntArray>()
+        forEachVote(row) { contest, start, ncands -> result[contest] = IntArray(ncands) { votes[start + it] } }
+        return result
+    }
+
+    // decode the votes only when theyre shown
+    fun formatVotes(row: Int): String {
+        if (!hasVotes.get(row)) return ""
+        return buildString {
+            forEachVote(row) { contest, start, ncands ->
+                if (isNotEmpty()) append(", ")
+                append(contest).append(":[")
+                for (i in start until start + ncands) {
+                    if (i > start) append(", ")
+                    append(votes[i])
+                }
+                append("]")
+            }
+        }
+    }
+
+    // contains any vote for this contest
+    fun hasContest(row: Int, contest: Int): Boolean {
+        var found = false
+        forEachVote(row) { c, _, _ -> if (c == contest) found = true }
+        return found || possibleContests(row).contains(contest)
+    }
+
+    private inline fun forEachVote(row: Int, action: (contest: Int, start: Int, ncands: Int) -> Unit) {
+        var pos = votesStart[row]
+        val ncontests = votes[pos++]
+        repeat(ncontests) {
+            val contest = votes[pos++]
+            val ncands = votes[pos++]
+            action(contest, pos, ncands)
+            pos += ncands
+        }
+    }
+
+    // the votes may be off heap; call when this block is no longer used
+    fun release() = votes.release()
+
+    fun record(row: Int) = CardRecord(index(row), prn(row), phantom(row), poolId(row), id(row), location(row),
+        styleName(row), possibleContests(row), stylePossibleContests(row), votes(row))
+
+    class Builder(private val dictionary: CardDictionary, capacity: Int) {
+        var size = 0
+            private set
+        private val index = IntArray(capacity)
+        private val prn = LongArray(capacity)
+        private val phantom = BitSet(capacity)
+        private val poolId = IntArray(capacity)
+        private val id = arrayOfNulls<String>(capacity)
+        private val location = arrayOfNulls<String>(capacity)
+        private val styleId = IntArray(capacity)
+        private val contestsId = IntArray(capacity)
+        private val hasVotes = BitSet(capacity)
+        private val votesStart = IntArray(capacity + 1)
+        private var votes = IntArray(capacity * 4)
+        private var nvotes = 0
+
+        val isFull get() = size == index.size
+
+        fun add(card: AuditableCard) = add(card.index(), card.prn(), card.phantom(), card.poolId(), card.id(), card.location(),
+            card.style()?.name(), card.possibleContests(), card.style()?.possibleContests(), card.votes())
+
+        fun add(card: CardRecord) = add(card.index, card.prn, card.phantom, card.poolId, card.id, card.location,
+            card.styleName, card.possibleContests, card.stylePossibleContests, card.votes)
+
+        fun add(
+            cardIndex: Int, cardPrn: Long, isPhantom: Boolean, cardPoolId: Int?, cardId: String, cardLocation: String,
+            styleName: String?, possibleContests: IntArray, stylePossibleContests: IntArray?, cardVotes: Map<Int, IntArray>?,
+        ) {
+            val row = size++
+            index[row] = cardIndex
+            prn[row] = cardPrn
+            if (isPhantom) phantom.set(row)
+            poolId[row] = cardPoolId ?: NO_POOL
+            id[row] = cardId
+            location[row] = cardLocation
+            styleId[row] = dictionary.styleId(styleName, stylePossibleContests)
+            contestsId[row] = dictionary.contestsId(possibleContests)
+
+            votesStart[row] = nvotes
+            if (cardVotes != null) {
+                hasVotes.set(row)
+                ensure(1 + cardVotes.size * 2 + cardVotes.values.sumOf { it.size })
+                votes[nvotes++] = cardVotes.size
+                cardVotes.forEach { (contest, cands) ->
+                    votes[nvotes++] = contest
+                    votes[nvotes++] = cands.size
+                    cands.copyInto(votes, nvotes)
+                    nvotes += cands.size
+                }
+            } else {
+                ensure(1)
+                votes[nvotes++] = 0
+            }
+            votesStart[row + 1] = nvotes
+        }
+
+        private fun ensure(n: Int) {
+            if (nvotes + n > votes.size) votes = votes.copyOf(maxOf(votes.size * 2, nvotes + n))
+        }
+
+        // offHeap = true for blocks that are kept, like the mvrs and the table pages.
+        // offHeap = false for blocks used once and dropped, like a scan chunk: a young heap array is cheaper than a direct buffer
+        @Suppress("UNCHECKED_CAST")
+        fun build(offHeap: Boolean = true) = CardColumns(size, dictionary,
+            index.copyOf(size), prn.copyOf(size), phantom, poolId.copyOf(size),
+            id.copyOf(size) as Array<String>, location.copyOf(size) as Array<String>,
+            styleId.copyOf(size), contestsId.copyOf(size), hasVotes, votesStart.copyOf(size + 1),
+            if (offHeap) OffHeapVoteStore.pack(votes, nvotes) else HeapVotes(votes.copyOf(nvotes)))
+    }
+
+    companion object {
+        const val NO_POOL = Int.MIN_VALUE
+
+        fun of(dictionary: CardDictionary, cards: List<CardRecord>, offHeap: Boolean = true): CardColumns {
+            val builder = Builder(dictionary, cards.size)
+            cards.forEach { builder.add(it) }
+            return builder.build(offHeap)
+        }
+    }
+}
+
+/**
+ * The distinct styles and contest lists of a manifest; each one is stored once, and cards refer to it by id.
+ * Safe to use from more than one thread.
+ */
+class CardDictionary {
+    class Style(val name: String, val possibleContests: IntArray?)
+
+    private val styles = ArrayList<Style>()
+    private val styleIds = HashMap<String, Int>()
+    private val contests = ArrayList<IntArray>()
+    private val contestsIds = HashMap<List<Int>, Int>()
+
+    @Synchronized
+    fun styleId(name: String?, possibleContests: IntArray?): Int {
+        if (name == null) return NO_STYLE
+        return styleIds.getOrPut(name) { // style names are unique
+            styles.add(Style(name, possibleContests))
+            styles.size - 1
+        }
+    }
+
+    @Synchronized
+    fun style(id: Int): Style? = if (id == NO_STYLE) null else styles[id]
+
+    @Synchronized
+    fun contestsId(possibleContests: IntArray): Int {
+        return contestsIds.getOrPut(possibleContests.asList()) {
+            contests.add(possibleContests)
+            contests.size - 1
+        }
+    }
+
+    @Synchronized
+    fun contests(id: Int): IntArray = contests[id]
+
+    companion object {
+        const val NO_STYLE = -1
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+package org.cryptobiotic.rlauxe.viewer
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+// write the cards of a CardPageSource to a CSV file, in the source's order, a page at a time
+object CardCsvWriter {
+    private const val READ_SIZE = 10_000
+
+    fun write(source: CardPageSource, columns: List<PagedCardTableModel.CardColumn>, fields: Set<CardField>, file: Path) {
+        val dictionary = CardDictionary()
+        Files.newBufferedWriter(file).use { out ->
+            out.write(columns.joinToString(",") { quote(it.name) })
+            out.newLine()
+            var start = 0
+            while (start < source.nrows) {
+                val records = source.read(start, minOf(READ_SIZE, source.nrows - start), fields)
+                if (records.isEmpty()) break
+                val cards = CardColumns.of(dictionary, records, offHeap = false)
+                for (row in 0 until cards.size) {
+                    out.write(columns.joinToString(",") { quote(it.value(cards, row)) })
+                    out.newLine()
+                }
+                start += records.size
+            }
+        }
+    }
+
+    private fun quote(value: Any?): String {
+        val s = value?.toString() ?: return ""
+        return if (s.any { it == ',' || it == '"' || it == '\n' }) "\"" + s.replace("\"", "\"\"") + "\"" else s
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+package org.cryptobiotic.rlauxe.viewer
+
+import org.cryptobiotic.rlauxe.persist.AuditRecord
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import java.util.EnumSet
+
+/**
+ * Finds the row of a card by id or location (hash lookup) or by prn (binary search), without scanning the manifest.
+ * Built once per manifest, in the background, by reading it through in pages.
+ */
+class CardIndex private constructor(
+    val nrows: Int,
+    private val idRows: HashMap<String, Int>,
+    private val locationRows: HashMap<String, Int>,
+    private val prns: LongArray, // sorted
+    private val prnRows: IntArray?, // the row of prns[i]; null when the rows are already in prn order
+    private val rowPrns: LongArray, // the prn of each row; the same as prns when in order
+) {
+    class Found(val row: Int, val prn: Long, val how: String)
+
+    fun prn(row: Int) = rowPrns[row]
+
+    fun rowOfId(id: String): Int? = idRows[id]
+
+    fun rowOfLocation(location: String): Int? = locationRows[location]
+
+    fun rowOfPrn(prn: Long): Int? {
+        val pos = prns.binarySearch(prn)
+        if (pos < 0) return null
+        return prnRows?.get(pos) ?: pos
+    }
+
+    // try the text as a card id, then a location, then a prn
+    fun find(text: String): Found? {
+        val key = text.trim()
+        if (key.isEmpty()) return null
+        rowOfId(key)?.let { return Found(it, prn(it), "id") }
+        rowOfLocation(key)?.let { return Found(it, prn(it), "location") }
+        key.toLongOrNull()?.let { prn -> rowOfPrn(prn)?.let { return Found(it, prn, "prn") } }
+        return null
+    }
+
+    companion object {
+        private val logger: Logger = LoggerFactory.getLogger(CardIndex::class.java)
+        private const val PAGE_SIZE = 10_000
+        private val FIELDS: Set<CardField> = EnumSet.of(CardField.id, CardField.location)
+
+        // return null if cancelled; the source is closed at the end, so give it its own
+        fun build(source: CardPageSource, isCancelled: () -> Boolean): CardIndex? {
+            val start = System.nanoTime()
+            val nrows = source.nrows
+            val idRows = HashMap<String, Int>(capacity(nrows))
+            val locationRows = HashMap<String, Int>(capacity(nrows))
+            val prns = LongArray(nrows)
+            var inOrder = true
+            source.use {
+                var row = 0
+                while (row < nrows) {
+                    if (isCancelled()) return null
+                    val cards = source.read(row, minOf(PAGE_SIZE, nrows - row), FIELDS)
+                    if (cards.isEmpty()) break
+                    for (card in cards) {
+                        idRows.putIfAbsent(card.id, row)
+                        locationRows.putIfAbsent(card.location, row)
+                        prns[row] = card.prn
+                        if (row > 0 && prns[row] < prns[row - 1]) inOrder = false
+                        row++
+                    }
+                }
+                if (row < nrows) logger.warn("CardIndex read only $row of $nrows rows")
+            }
+
+            // the sorted manifest is normally in prn order already
+            if (inOrder) {
+                logger.debug("CardIndex of $nrows rows took ${(System.nanoTime() - start) / 1_000_000} msecs")
+                return CardIndex(nrows, idRows, locationRows, prns, null, prns)
+            }
+            val order = prnOrder(prns)
+            val sorted = LongArray(nrows) { prns[order[it]] }
+            logger.debug("CardIndex of $nrows rows (not in prn order) took ${(System.nanoTime() - start) / 1_000_000} msecs")
+            return CardIndex(nrows, idRows, locationRows, sorted, order, prns)
+        }
+
+        private fun capacity(n: Int) = (n / 0.75f).toInt() + 1
+
+        // the rows in prn order, ties in row order. a bottom up merge sort of row numbers, so nothing is boxed;
+        // runs that are already in order are copied without merging.
+        internal fun prnOrder(prns: LongArray): IntArray {
+            val n = prns.size
+            var src = IntArray(n) { it }
+            var dst = IntArray(n)
+            var width = 1
+            while (width < n) {
+                var lo = 0
+                while (lo < n) {
+                    val mid = minOf(lo + width, n)
+                    val hi = minOf(lo + 2 * width, n)
+                    if (mid == hi || prns[src[mid - 1]] <= prns[src[mid]]) {
+                        src.copyInto(dst, lo, lo, hi)
+                    } else {
+                        var i = lo
+                        var j = mid
+                        var k = lo
+                        while (i < mid && j < hi) dst[k++] = if (prns[src[j]] < prns[src[i]]) src[j++] else src[i++]
+                        while (i < mid) dst[k++] = src[i++]
+                        while (j < hi) dst[k++] = src[j++]
+                    }
+                    lo = hi
+                }
+                val temp = src
+                src = dst
+                dst = temp
+                width *= 2
+            }
+            return src
+        }
+    }
+}
+
+/** The prns of the cards sampled in a round, for membership tests. */
+class SamplePrns(val roundIdx: Int, prns: LongArray) {
+    private val sorted = prns.copyOf().apply { sort() }
+
+    val size get() = sorted.size
+
+    operator fun contains(prn: Long) = sorted.binarySearch(prn) >= 0
+
+    companion object {
+        // null if there are no rounds yet
+        fun lastRound(auditRecord: AuditRecord): SamplePrns? {
+            val lastRound = auditRecord.rounds.lastOrNull() ?: return null
+            val prns = ArrayList<Long>()
+            for (prn in lastRound.samplePrns) prns.add(prn)
+            return SamplePrns(lastRound.roundIdx, prns.toLongArray())
+        }
+    }
+}
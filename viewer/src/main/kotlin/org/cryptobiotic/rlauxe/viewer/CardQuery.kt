@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+package org.cryptobiotic.rlauxe.viewer
+
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import java.util.EnumSet
+import javax.swing.SwingUtilities
+
+/**
+ * Which cards to find. Written as space separated terms, all of which must match:
+ *   loc:text       location contains text (a term without a key is the same)
+ *   id:text        card id contains text
+ *   prn:lo-hi      prn in [lo, hi]; either end may be left off
+ *   pool:n         poolId == n
+ *   style:name     style name == name
+ *   contest:n      card has contest n
+ *   phantom:true   phantom or not
+ */
+class CardQuery(
+    val location: String? = null,
+    val id: String? = null,
+    val prnMin: Long? = null,
+    val prnMax: Long? = null,
+    val poolId: Int? = null,
+    val style: String? = null,
+    val contest: Int? = null,
+    val phantom: Boolean? = null,
+) {
+    // the fields that matches() looks at
+    val fields: Set<CardField>
+        get() {
+            val result = EnumSet.noneOf(CardField::class.java)
+            if (location != null) result.add(CardField.location)
+            if (id != null) result.add(CardField.id)
+            if (style != null) result.add(CardField.style)
+            if (contest != null) {
+                result.add(CardField.contests)
+                result.add(CardField.votes)
+            }
+            return result
+        }
+
+    fun matches(cards: CardColumns, row: Int): Boolean {
+        if (prnMin != null && cards.prn(row) < prnMin) return false
+        if (prnMax != null && cards.prn(row) > prnMax) return false
+        if (poolId != null && cards.poolId(row) != poolId) return false
+        if (phantom != null && cards.phantom(row) != phantom) return false
+        if (style != null && cards.styleName(row) != style) return false
+        if (location != null && !cards.location(row).contains(location, ignoreCase = true)) return false
+        if (id != null && !cards.id(row).contains(id, ignoreCase = true)) return false
+        if (contest != null && !cards.hasContest(row, contest)) return false
+        return true
+    }
+
+    override fun toString() = buildString {
+        if (location != null) append("loc:$location ")
+        if (id != null) append("id:$id ")
+        if (prnMin != null || prnMax != null) append("prn:${prnMin ?: ""}-${prnMax ?: ""} ")
+        if (poolId != null) append("pool:$poolId ")
+        if (style != null) append("style:$style ")
+        if (contest != null) append("contest:$contest ")
+        if (phantom != null) append("phantom:$phantom ")
+    }.trim()
+
+    companion object {
+        // throws IllegalArgumentException with a message for the user
+        fun parse(text: String): CardQuery {
+            var location: String? = null
+            var id: String? = null
+            var prnMin: Long? = null
+            var prnMax: Long? = null
+            var poolId: Int? = null
+            var style: String? = null
+            var contest: Int? = null
+            var phantom: Boolean? = null
+
+            text.trim().split(Regex("\\s+")).filter { it.isNotEmpty() }.forEach { term ->
+                val colon = term.indexOf(':')
+                val key = if (colon < 0) "loc" else term.substring(0, colon).lowercase()
+                val value = if (colon < 0) term else term.substring(colon + 1)
+                require(value.isNotEmpty()) { "missing value in '$term'" }
+                try {
+                    when (key) {
+                        "loc", "location" -> location = value
+                        "id" -> id = value
+                        "pool" -> poolId = value.toInt()
+                        "style" -> style = value
+                        "contest" -> contest = value.toInt()
+                        "phantom" -> phantom = value.toBooleanStrict()
+                        "prn" -> {
+                            val dash = value.indexOf('-')
+                            if (dash < 0) {
+                                prnMin = value.toLong()
+                                prnMax = prnMin
+                            } else {
+                                prnMin = value.substring(0, dash).ifEmpty { null }?.toLong()
+                                prnMax = value.substring(dash + 1).ifEmpty { null }?.toLong()
+                            }
+                        }
+                        else -> throw IllegalArgumentException("unknown key '$key' in '$term'")
+                    }
+                } catch (e: NumberFormatException) {
+                    throw IllegalArgumentException("bad number in '$term'")
+                }
+            }
+            return CardQuery(location, id, prnMin, prnMax, poolId, style, contest, phantom)
+        }
+    }
+}
+
+/**
+ * Scans all the rows of a CardPageSource for the ones that match a CardQuery, with a ChunkedCardScan.
+ * The matching row numbers are handed to onMatches on the EDT as each chunk finishes, in row order.
+ * onDone is called on the EDT at the end, also when cancelled. The source is closed at the end, so give it its own.
+ */
+class CardQueryScan(
+    source: CardPageSource,
+    private val query: CardQuery,
+    private val onMatches: (IntArray, Int) -> Unit, // matching rows, rows scanned so far
+    private val onDone: (nscanned: Int, cancelled: Boolean) -> Unit,
+) {
+    private val scan = ChunkedCardScan(source, query.fields)
+    private val results = arrayOfNulls<IntArray>(scan.nchunks) // guarded by this
+    private var nextToPublish = 0 // guarded by this
+    private var start = 0L
+
+    val isCancelled get() = scan.isCancelled
+
+    fun start() {
+        start = System.nanoTime()
+        Thread.ofPlatform().daemon().name("CardQueryScan").start(this::run)
+    }
+
+    fun cancel() = scan.cancel()
+
+    private fun run() {
+        scan.forEachChunk { chunk, first, cards ->
+            val matches = IntArray(cards.size)
+            var nmatches = 0
+            for (row in 0 until cards.size) {
+                if (query.matches(cards, row)) matches[nmatches++] = first + row
+            }
+            publish(chunk, matches.copyOf(nmatches))
+        }
+        val nscanned = scan.nscanned
+        val wasCancelled = scan.isCancelled
+        logger.debug("CardQueryScan '$query' scanned $nscanned rows in ${(System.nanoTime() - start) / 1_000_000} msecs cancelled=$wasCancelled")
+        SwingUtilities.invokeLater { onDone(nscanned, wasCancelled) }
+    }
+
+    // keep the results in row order
+    private fun publish(chunk: Int, matches: IntArray) {
+        synchronized(this) {
+            results[chunk] = matches
+            while (nextToPublish < scan.nchunks && results[nextToPublish] != null) {
+                val ready = results[nextToPublish]!!
+                results[nextToPublish] = null
+                nextToPublish++
+                val nscanned = scan.nscanned
+                if (ready.isNotEmpty() || nextToPublish % 10 == 0) {
+                    SwingUtilities.invokeLater { if (!scan.isCancelled) onMatches(ready, nscanned) }
+                }
+            }
+        }
+    }
+
+    companion object {
+        private val logger: Logger = LoggerFactory.getLogger(CardQueryScan::class.java)
+    }
+}
+
+/**
+ * The rows of a base source that matched a query; grows as the scan finds more.
+ * Append on the EDT; read from any thread.
+ */
+class QueryResultSource(private val base: CardPageSource) : CardPageSource {
+    @Volatile private var rows = IntArray(1024)
+    @Volatile private var count = 0
+
+    override val nrows: Int
+        get() = count
+
+    override val randomAccess: Boolean
+        get() = base.randomAccess
+
+    // the base row number of a result row
+    fun baseRow(row: Int) = rows[row]
+
+    fun append(matches: IntArray) {
+        var current = rows
+        if (count + matches.size > current.size) {
+            current = current.copyOf(maxOf(2 * current.size, count + matches.size))
+        }
+        matches.copyInto(current, count)
+        rows = current
+        count += matches.size
+    }
+
+    // read the runs of consecutive base rows together
+    override fun read(start: Int, count: Int, fields: Set<CardField>): List<CardRecord> {
+        val end = minOf(start + count, this.count) // read count before rows
+        val current = rows
+        val result = ArrayList<CardRecord>(maxOf(0, end - start))
+        var i = start
+        while (i < end) {
+            var j = i + 1
+            while (j < end && current[j] == current[j - 1] + 1) j++
+            result.addAll(base.read(current[i], j - i, fields))
+            i = j
+        }
+        return result
+    }
+
+    // the base source belongs to someone else
+    override fun close() {}
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+package org.cryptobiotic.rlauxe.viewer
+
+import org.cryptobiotic.rlauxe.audit.AuditableCard
+import java.io.DataInput
+import java.io.DataOutput
+import java.util.EnumSet
+
+/** The card fields that can be left out when reading cards; index, prn, phantom and poolId are always read. */
+enum class CardField {
+    id, location, style, contests, votes;
+
+    companion object {
+        val ALL: Set<CardField> = EnumSet.allOf(CardField::class.java)
+        val NONE: Set<CardField> = EnumSet.noneOf(CardField::class.java)
+    }
+}
+
+/**
+ * The parts of an AuditableCard that the viewer shows, without the StyleIF object.
+ * Can be made from a card in the manifest, or read back from a ManifestSnapshot.
+ * The fields not asked for are left empty: "" for strings, no contests, no style and no votes.
+ */
+class CardRecord(
+    val index: Int,
+    val prn: Long,
+    val phantom: Boolean,
+    val poolId: Int?,
+    val id: String,
+    val location: String,
+    val styleName: String?,
+    val possibleContests: IntArray,
+    val stylePossibleContests: IntArray?,
+    val votes: Map<Int, IntArray>?,
+) {
+    @JvmOverloads
+    constructor(card: AuditableCard, fields: Set<CardField> = CardField.ALL) : this(
+        card.index(),
+        card.prn(),
+        card.phantom(),
+        card.poolId(),
+        if (CardField.id in fields) card.id() else "",
+        if (CardField.location in fields) card.location() else "",
+        if (CardField.style in fields) card.style()?.name() else null,
+        if (CardField.contests in fields) card.possibleContests() else NO_CONTESTS,
+        if (CardField.style in fields) card.style()?.possibleContests() else null,
+        if (CardField.votes in fields) card.votes() else null,
+    )
+
+    fun write(out: DataOutput) {
+        var flags = 0
+        if (phantom) flags = flags or PHANTOM
+        if (poolId != null) flags = flags or HAS_POOL
+        if (styleName != null) flags = flags or HAS_STYLE
+        if (votes != null) flags = flags or HAS_VOTES
+        out.writeInt(index)
+        out.writeLong(prn)
+        out.writeByte(flags)
+        if (poolId != null) out.writeInt(poolId)
+        out.writeUTF(id)
+        out.writeUTF(location)
+        writeInts(out, possibleContests)
+        if (styleName != null) {
+            out.writeUTF(styleName)
+            out.writeBoolean(stylePossibleContests != null)
+            if (stylePossibleContests != null) writeInts(out, stylePossibleContests)
+        }
+        if (votes != null) {
+            out.writeInt(votes.size)
+            votes.forEach { (contest, cands) ->
+                out.writeInt(contest)
+                writeInts(out, cands)
+            }
+        }
+    }
+
+    override fun toString() = buildString {
+        append("CardRecord(index=$index, prn=$prn, phantom=$phantom, poolId=$poolId, id='$id', location='$location'")
+        append(", possibleContests=${possibleContests.contentToString()}")
+        if (votes != null) append(", votes=${votes.entries.joinToString { "${it.key}:${it.value.contentToString()}" }}")
+        appendLine(")")
+        if (styleName != null) appendLine("style '$styleName' possibleContests=${stylePossibleContests.contentToString()}")
+    }
+
+    companion object {
+        private const val PHANTOM = 1
+        private const val HAS_POOL = 2
+        private const val HAS_STYLE = 4
+        private const val HAS_VOTES = 8
+        private val NO_CONTESTS = IntArray(0)
+
+        // the fields not asked for are skipped over, not decoded
+        fun read(input: DataInput, fields: Set<CardField> = CardField.ALL): CardRecord {
+            val index = input.readInt()
+            val prn = input.readLong()
+            val flags = input.readByte().toInt()
+            val poolId = if (flags and HAS_POOL != 0) input.readInt() else null
+            val id = if (CardField.id in fields) input.readUTF() else skipUTF(input)
+            val location = if (CardField.location in fields) input.readUTF() else skipUTF(input)
+            val possibleContests = if (CardField.contests in fields) readInts(input) else skipInts(input)
+            var styleName: String? = null
+            var stylePossibleContests: IntArray? = null
+            if (flags and HAS_STYLE != 0) {
+                if (CardField.style in fields) {
+                    styleName = input.readUTF()
+                    if (input.readBoolean()) stylePossibleContests = readInts(input)
+                } else {
+                    skipUTF(input)
+                    if (input.readBoolean()) skipInts(input)
+                }
+            }
+            var votes: Map<Int, IntArray>? = null
+            if (flags and HAS_VOTES != 0) {
+                val n = input.readInt()
+                if (CardField.votes in fields) {
+                    val map = LinkedHashMap<Int, IntArray>(n * 2)
+                    repeat(n) { map[input.readInt()] = readInts(input) }
+                    votes = map
+                } else {
+                    repeat(n) {
+                        input.readInt()
+                        skipInts(input)
+                    }
+                }
+            }
+            return CardRecord(index, prn, flags and PHANTOM != 0, poolId, id, location, styleName,
+                possibleContests, stylePossibleContests, votes)
+        }
+
+        private fun writeInts(out: DataOutput, values: IntArray) {
+            out.writeInt(values.size)
+            values.forEach { out.writeInt(it) }
+        }
+
+        private fun readInts(input: DataInput): IntArray {
+            return IntArray(input.readInt()) { input.readInt() }
+        }
+
+        // same length prefix as writeUTF
+        private fun skipUTF(input: DataInput): String {
+            input.skipBytes(input.readUnsignedShort())
+            return ""
+        }
+
+        private fun skipInts(input: DataInput): IntArray {
+            input.skipBytes(4 * input.readInt())
+            return NO_CONTESTS
+        }
+    }
+}
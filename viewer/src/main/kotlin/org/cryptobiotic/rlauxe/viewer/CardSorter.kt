@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+package org.cryptobiotic.rlauxe.viewer
+
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.ByteArrayInputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.EOFException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.PriorityQueue
+
+/** The orders the whole manifest can be sorted in. Ties are kept in manifest order. */
+enum class CardSortKey(val comparator: Comparator<CardRecord>) {
+    prn(compareBy<CardRecord> { it.prn }),
+    location(compareBy<CardRecord> { it.location }.thenBy { it.prn }),
+    pool(compareBy<CardRecord, Int?>(nullsLast<Int>()) { it.poolId }.thenBy { it.prn }),
+    style(compareBy<CardRecord, String?>(nullsLast<String>()) { it.styleName }.thenBy { it.prn }),
+}
+
+/**
+ * Sorts all the cards of a CardPageSource with an external merge sort, so it runs in bounded memory.
+ * The cards are read in order, RUN_SIZE at a time; each run is sorted in memory and spilled to a temp file.
+ * The runs are then merged into one file of CardRecords, with a ManifestIndex so its pages can be read in any order.
+ * The source is closed at the end, so give it its own.
+ */
+class CardSorter(private val source: CardPageSource, private val key: CardSortKey, private val runSize: Int = RUN_SIZE) {
+    @Volatile
+    private var cancelled = false
+
+    // rows read so far, for progress
+    @Volatile
+    var nread = 0
+        private set
+
+    fun cancel() {
+        cancelled = true
+    }
+
+    // return null if cancelled
+    fun sort(): SortedCardSource? {
+        val start = System.nanoTime()
+        val dir = Files.createTempDirectory("rlauxe-sort")
+        var result: SortedCardSource? = null
+        try {
+            val runs = writeRuns(dir) ?: return null
+            val sortedFile = dir.resolve("sorted-${key.name}.cards")
+            val nrows = merge(runs, sortedFile) ?: return null
+            runs.forEach { Files.deleteIfExists(it) }
+            val index = ManifestIndex.open(sortedFile, nrows, UNVERSIONED) ?: throw IllegalStateException("cant open index of $sortedFile")
+            logger.info("sorted $nrows cards by $key in ${runs.size} runs in ${(System.nanoTime() - start) / 1_000_000} msecs")
+            // in case its still in use at exit; deleted in reverse order
+            listOf(dir, sortedFile, ManifestIndex.indexFile(sortedFile)).forEach { it.toFile().deleteOnExit() }
+            result = SortedCardSource(key, dir, sortedFile, nrows, index)
+            return result
+        } finally {
+            if (result == null) deleteDir(dir)
+        }
+    }
+
+    // read the source in order, spilling a sorted run file every runSize cards
+    private fun writeRuns(dir: Path): List<Path>? {
+        val runs = mutableListOf<Path>()
+        source.use {
+            val nrows = source.nrows
+            val run = ArrayList<SortItem>(minOf(runSize, nrows))
+            var row = 0
+            while (row < nrows) {
+                if (cancelled) return null
+                val cards = source.read(row, minOf(READ_SIZE, nrows - row))
+                if (cards.isEmpty()) break
+                for (card in cards) {
+                    run.add(SortItem(row++, card))
+                    if (run.size == runSize) {
+                        runs.add(writeRun(dir, runs.size, run))
+                        run.clear()
+                    }
+                }
+                nread = row
+            }
+            if (run.isNotEmpty() || runs.isEmpty()) runs.add(writeRun(dir, runs.size, run))
+        }
+        return runs
+    }
+
+    private fun writeRun(dir: Path, runNo: Int, run: MutableList<SortItem>): Path {
+        run.sortWith(itemComparator)
+        val file = dir.resolve("run$runNo")
+        DataOutputStream(BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE)).use { out ->
+            for (item in run) {
+                out.writeInt(item.row)
+                item.card.write(out)
+            }
+        }
+        return file
+    }
+
+    // k way merge of the runs into the sorted file and its index; return the number of cards
+    private fun merge(runs: List<Path>, sortedFile: Path): Int? {
+        val readers = runs.map { RunReader(it) }
+        val indexWriter = ManifestIndex.Writer(sortedFile)
+        try {
+            val queue = PriorityQueue<RunReader>(maxOf(1, readers.size)) { a, b -> itemComparator.compare(a.current!!, b.current!!) }
+            readers.filter { it.advance() }.forEach { queue.add(it) }
+            var nrows = 0
+            val counting = CountingOutputStream(BufferedOutputStream(Files.newOutputStream(sortedFile), BUFFER_SIZE))
+            DataOutputStream(counting).use { out ->
+                while (queue.isNotEmpty()) {
+                    if (cancelled) return null
+                    val reader = queue.poll()
+                    indexWriter.add(counting.count)
+                    reader.current!!.card.write(out)
+                    nrows++
+                    if (reader.advance()) queue.add(reader)
+                }
+                indexWriter.add(counting.count)
+            }
+            indexWriter.finish(Files.size(sortedFile), nrows, UNVERSIONED)
+            return nrows
+        } finally {
+            indexWriter.abandon()
+            readers.forEach { it.close() }
+        }
+    }
+
+    private class SortItem(val row: Int, val card: CardRecord)
+
+    private val itemComparator = Comparator<SortItem> { a, b -> key.comparator.compare(a.card, b.card) }.thenBy { it.row }
+
+    private class RunReader(file: Path) : AutoCloseable {
+        private val input = DataInputStream(BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))
+        var current: SortItem? = null
+
+        // read the next item; false at the end of the run
+        fun advance(): Boolean {
+            current = try {
+                val row = input.readInt()
+                SortItem(row, CardRecord.read(input))
+            } catch (e: EOFException) {
+                null
+            }
+            return current != null
+        }
+
+        override fun close() = input.close()
+    }
+
+    companion object {
+        private val logger: Logger = LoggerFactory.getLogger(CardSorter::class.java)
+        const val RUN_SIZE = 100_000 // cards sorted in memory at one time
+        private const val READ_SIZE = 10_000
+        private const val BUFFER_SIZE = 64 * 1024
+        private const val UNVERSIONED = 0L // our own temp file, written once, so theres no fingerprint to check
+
+        fun deleteDir(dir: Path) {
+            try {
+                Files.list(dir).use { files -> files.forEach { Files.deleteIfExists(it) } }
+                Files.deleteIfExists(dir)
+            } catch (e: Exception) {
+                logger.warn("cant delete $dir", e)
+            }
+        }
+    }
+}
+
+/**
+ * The cards in sorted order, read from the file made by CardSorter; any page can be read from any thread.
+ * close() does nothing, since the same source is shared by the table and the scans; call delete() when its no longer used.
+ */
+class SortedCardSource internal constructor(
+    val key: CardSortKey,
+    private val dir: Path,
+    val file: Path,
+    override val nrows: Int,
+    private val index: ManifestIndex,
+) : CardPageSource {
+    private val mapped = MappedFile(file)
+
+    override val randomAccess: Boolean
+        get() = true
+
+    override fun read(start: Int, count: Int, fields: Set<CardField>): List<CardRecord> {
+        val n = maxOf(0, minOf(count, nrows - start))
+        val result = ArrayList<CardRecord>(n)
+        if (n == 0) return result
+        val first = index.offset(start)
+        val bytes = mapped.read(first, (index.offset(start + n) - first).toInt())
+        val input = DataInputStream(ByteArrayInputStream(bytes))
+        repeat(n) { result.add(CardRecord.read(input, fields)) }
+        return result
+    }
+
+    fun delete() = CardSorter.deleteDir(dir)
+
+    override fun toString() = "SortedCardSource($key, nrows=$nrows)"
+}
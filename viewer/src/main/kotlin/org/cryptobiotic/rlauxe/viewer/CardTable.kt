@@ -5,64 +5,154 @@
 
 package org.cryptobiotic.rlauxe.viewer
 
-import org.cryptobiotic.rlauxe.audit.AuditableCard
 import org.cryptobiotic.rlauxe.audit.StyleIF
-import org.cryptobiotic.rlauxe.beans.BeanTable
+import org.cryptobiotic.rlauxe.beans.BooleanRenderer
+import org.cryptobiotic.rlauxe.beans.PropertyCol
 import org.cryptobiotic.rlauxe.persist.AuditRecord
-import org.cryptobiotic.rlauxe.persist.AuditRecord.Companion.read
 import org.cryptobiotic.rlauxe.persist.CompositeAuditRecord
-import org.cryptobiotic.rlauxe.persist.SortedManifest
-import org.cryptobiotic.rlauxe.workflow.PersistedMvrManager
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
+import ucar.ui.table.HidableTableColumnModel
+import ucar.ui.table.TableAligner
+import ucar.ui.table.TableAppearanceAction
 import ucar.ui.widget.IndependentWindow
 import ucar.ui.widget.TextHistoryPane
 import ucar.util.prefs.PreferencesExt
 import java.awt.BorderLayout
+import java.awt.FlowLayout
+import java.io.File
+import javax.swing.JButton
+import javax.swing.JComboBox
+import javax.swing.JFileChooser
+import javax.swing.JLabel
 import javax.swing.JOptionPane
 import javax.swing.JPanel
+import javax.swing.JScrollPane
 import javax.swing.JSplitPane
+import javax.swing.JTable
+import javax.swing.JTextField
+import javax.swing.JViewport
+import javax.swing.ListSelectionModel
+import javax.swing.SwingConstants
+import javax.swing.SwingUtilities
+import javax.swing.event.ChangeEvent
 import javax.swing.event.ListSelectionEvent
-import javax.swing.event.ListSelectionListener
+import javax.swing.event.TableColumnModelEvent
+import javax.swing.event.TableColumnModelListener
 
+// shows all the cards in the manifest; only the rows near the visible ones are kept in memory
 class CardTable(
     val prefs: PreferencesExt,
     val infoTA: TextHistoryPane,
     val infoWindow: IndependentWindow,
     fontSize: Float,
 ) : JPanel(), ViewerPanelIF {
-    
-    private val cardTable: BeanTable<CardBean>
+
+    private var cardModel = PagedCardTableModel(EmptyPageSource)
+    private var manifestSource: CardPageSource = EmptyPageSource // all the cards
+    private val cardTable: JTable
+    private val columnStore = prefs.node("cardTable") as PreferencesExt
+    private val headerLabel = JLabel("CardManifest", SwingConstants.CENTER)
+
+    // the query bar
+    private val queryField = JTextField(prefs.get("query", ""), 40)
+    private val searchButton = JButton("Search")
+    private val cancelButton = JButton("Cancel")
+    private val clearButton = JButton("Show All")
+    private val queryStatus = JLabel(" ")
+    private var scan: CardQueryScan? = null
+
+    // go to a card by id, location or prn
+    private val gotoField = JTextField(20)
+    private var cardIndex: CardIndex? = null // null until its built
+    private var indexer: Thread? = null
+    private var samplePrns: SamplePrns? = null // of the last round
+
+    // sort the whole manifest, and export what is shown
+    private val sortChooser = JComboBox(arrayOf(MANIFEST_ORDER) + CardSortKey.entries.map { it.name })
+    private val exportButton = JButton("Export CSV")
+    private var sorter: CardSorter? = null // the one running
+    private var sortedSource: SortedCardSource? = null
+    private var ignoreSortChoice = false
+
+    // the cards in the order chosen
+    private val viewSource: CardPageSource
+        get() = sortedSource ?: manifestSource
     var localInfo: TextHistoryPane = TextHistoryPane()
 
     private val split1: JSplitPane
 
-    private var auditRecordLocation: String? = "none"
+    private var session: AuditRecordSession? = null
     private var auditRecord: AuditRecord? = null
-    private var mvrManager: PersistedMvrManager? = null
-    private var needsReading = true
 
-    private var cardManifest: SortedManifest? = null
     var poolMap: MutableMap<String, StyleIF> = mutableMapOf<String, StyleIF>()
 
     init {
-        cardTable = BeanTable(
-            CardBean::class.java, prefs.node("cardTable") as PreferencesExt, false,
-            "CardManifest", "AuditableCard", null
-        )
-        cardTable.addListSelectionListener { e: ListSelectionEvent? ->
-            val cardBean = cardTable.getSelectedBean()
-            if (cardBean != null) {
-                setSelectedCard(cardBean)
-            }
+        cardTable = JTable(cardModel, HidableTableColumnModel(cardModel))
+        cardTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION)
+        cardTable.setDefaultRenderer(Boolean::class.javaObjectType, BooleanRenderer())
+        cardTable.getColumnModel().addColumnModelListener(TableAligner(cardTable, SwingConstants.LEADING))
+        cardTable.selectionModel.addListSelectionListener { e ->
+            if (!e.valueIsAdjusting) showCard(cardTable.selectedRow)
         }
+        restoreColumns(cardTable, columnStore)
+        // only read the fields of the visible columns
+        cardTable.getColumnModel().addColumnModelListener(object : TableColumnModelListener {
+            override fun columnAdded(e: TableColumnModelEvent) = cardModel.setFields(visibleFields())
+            override fun columnRemoved(e: TableColumnModelEvent) = cardModel.setFields(visibleFields())
+            override fun columnMoved(e: TableColumnModelEvent) {}
+            override fun columnMarginChanged(e: ChangeEvent) {}
+            override fun columnSelectionChanged(e: ListSelectionEvent) {}
+        })
+        cardModel.setFields(visibleFields())
+
+        val cornerButton = JButton(TableAppearanceAction(cardTable))
+        cornerButton.setHideActionText(true)
+        cornerButton.setContentAreaFilled(false)
+        val scrollPane = JScrollPane(cardTable)
+        scrollPane.setCorner(JScrollPane.UPPER_RIGHT_CORNER, cornerButton)
+        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS)
+
+        queryField.setToolTipText("loc:text id:text prn:lo-hi pool:n style:name contest:n phantom:true")
+        queryField.addActionListener { startQuery() }
+        searchButton.addActionListener { startQuery() }
+        cancelButton.addActionListener { scan?.cancel() }
+        clearButton.addActionListener { showAll() }
+        cancelButton.setEnabled(false)
+        gotoField.setToolTipText("card id, location or prn")
+        gotoField.addActionListener { gotoCard() }
+        val queryBar = JPanel(FlowLayout(FlowLayout.LEFT))
+        queryBar.add(JLabel("Query:"))
+        queryBar.add(queryField)
+        queryBar.add(searchButton)
+        queryBar.add(cancelButton)
+        queryBar.add(clearButton)
+        queryBar.add(JLabel("Go to card:"))
+        queryBar.add(gotoField)
+        queryBar.add(queryStatus)
+
+        sortChooser.setToolTipText("sort all the cards; done on disk, in the background")
+        sortChooser.addActionListener { if (!ignoreSortChoice) sortBy(sortChooser.getSelectedItem() as String) }
+        exportButton.setToolTipText("write the cards shown, in the order shown, to a CSV file")
+        exportButton.addActionListener { exportCsv() }
+        val viewBar = JPanel(FlowLayout(FlowLayout.LEFT))
+        viewBar.add(JLabel("Sort by:"))
+        viewBar.add(sortChooser)
+        viewBar.add(exportButton)
+
+        val northPanel = JPanel(BorderLayout())
+        northPanel.add(headerLabel, BorderLayout.NORTH)
+        northPanel.add(queryBar, BorderLayout.CENTER)
+        northPanel.add(viewBar, BorderLayout.SOUTH)
+
+        val tablePanel = JPanel(BorderLayout())
+        tablePanel.add(northPanel, BorderLayout.NORTH)
+        tablePanel.add(scrollPane, BorderLayout.CENTER)
 
-        //cardTable.addPopupOption("Show Population", cardTable.makeShowAction(localInfo,
-        //    bean -> ((cardTable) bean).show()));
         setFontSize(fontSize)
 
         // layout of tables
-        split1 = JSplitPane(JSplitPane.VERTICAL_SPLIT, false, cardTable, localInfo)
+        split1 = JSplitPane(JSplitPane.VERTICAL_SPLIT, false, tablePanel, localInfo)
         split1.setDividerLocation(prefs.getInt("splitPos1", 200))
 
         setLayout(BorderLayout())
@@ -72,147 +162,336 @@ class CardTable(
     }
 
     override fun setFontSize(size: Float) {
-        cardTable.setFontSize(size)
+        cardTable.setFont(cardTable.getFont().deriveFont(size))
+        cardTable.setRowHeight(size.toInt() + 4)
         localInfo.setFontSize(size)
     }
 
-    override fun setAuditRecord(auditRecordLocation: String): Boolean {
-        logger.debug("CardTable setAuditRecord " + auditRecordLocation)
-        cardTable.setBeans(null)
-
-        this.auditRecordLocation = auditRecordLocation
-        val auditRecord = read(auditRecordLocation)
-        if (auditRecord == null) {
-            logger.info("CardTable failed on readFrom " + auditRecordLocation)
-            return false
+    // open the card manifest off the EDT; only called when the tab is first viewed, or warmed up in the background
+    override fun prepareAuditRecord(session: AuditRecordSession): Runnable {
+        logger.debug("CardTable prepareAuditRecord " + session.location)
+        val auditRecord = session.auditRecord
+        if (auditRecord is CompositeAuditRecord) return Runnable { setSource(EmptyPageSource) }
+        auditRecord as AuditRecord
+        val source = session.cardPageSource()!!
+
+        val pools = mutableMapOf<String, StyleIF>() // sorted
+        val styles = session.styles
+        if (styles != null) {
+            for (pool in styles) {
+                val cardStyle = "P" + pool.id()
+                pools.put(cardStyle, pool)
+            }
+        } else {
+            val cardPools = session.pools
+            if (cardPools != null) {
+                for (pool in cardPools) {
+                    val cardStyle = "P" + pool.id()
+                    pools.put(cardStyle, pool)
+                }
+            }
         }
-        if (auditRecord is CompositeAuditRecord) return false
-        this.auditRecord = auditRecord as AuditRecord
-        this.mvrManager = PersistedMvrManager(this.auditRecord!!, false)
 
-        needsReading = true
+        logger.debug("CardTable has ${source.nrows} cards from $source")
+        val sample = SamplePrns.lastRound(auditRecord)
 
-        return true
+        return object : Runnable, AutoCloseable {
+            override fun run() {
+                this@CardTable.session = session
+                this@CardTable.auditRecord = auditRecord
+                this@CardTable.poolMap = pools
+                this@CardTable.samplePrns = sample
+                setSource(source)
+            }
+
+            // never published
+            override fun close() = source.close()
+        }
     }
 
-    fun setSelectedTab() {
-        if (needsReading) {
-            if (readCards()) needsReading = false
+    // a new round changes the sample, but not the manifest
+    override fun prepareRefresh(session: AuditRecordSession, changes: Set<AuditRecordWatcher.Change>): Runnable? {
+        if (!changes.contains(AuditRecordWatcher.Change.ROUNDS)) return null
+        val auditRecord = session.auditRecord as? AuditRecord ?: return null
+        val sample = SamplePrns.lastRound(auditRecord)
+        return Runnable {
+            this.auditRecord = auditRecord
+            this.samplePrns = sample
         }
     }
 
-    fun readCards(): Boolean {
-        if (auditRecord == null) return false
-        val config = auditRecord!!.config
-        val cutoff = config.round.sampling.contestSampleCutoff
-        val ncardsToRead = if (cutoff == null || cutoff < 11111) 11111 else cutoff
+    private fun setSource(source: CardPageSource) {
+        scan?.cancel()
+        scan = null
+        sorter?.cancel()
+        sorter = null
+        val oldSource = manifestSource
+        manifestSource = source
+        setSorted(null)
+        if (oldSource !== source) oldSource.close()
+        queryStatus.setText(" ")
+        startIndexer(source)
+    }
 
-        try {
-            this.cardManifest = this.mvrManager!!.sortedManifest()
+    // show the manifest in this order, or in manifest order if null
+    private fun setSorted(sorted: SortedCardSource?) {
+        val oldSorted = sortedSource
+        sortedSource = sorted
+        setModel(viewSource)
+        oldSorted?.delete()
+        val order = if (sorted == null) "" else " sorted by ${sorted.key}"
+        headerLabel.setText("CardManifest (${manifestSource.nrows} cards)$order")
+        ignoreSortChoice = true
+        sortChooser.setSelectedItem(sorted?.key?.name ?: MANIFEST_ORDER)
+        ignoreSortChoice = false
+    }
 
-            val styles = this.mvrManager!!.styles()
-            if (styles != null) {
-                val pools = mutableMapOf<String, StyleIF>() // sorted
-                for (pool in styles) {
-                    val cardStyle = "P" + pool.id()
-                    pools.put(cardStyle, pool)
-                }
-                this.poolMap = pools
-            } else {
-                val cardPools = this.mvrManager!!.pools()
-                if (cardPools != null) {
-                    val pools= mutableMapOf<String, StyleIF>() // sorted
-                    for (pool in cardPools) {
-                        val cardStyle = "P" + pool.id()
-                        pools.put(cardStyle, pool)
+    // external sort of the whole manifest in the background; the table shows the manifest order until its done
+    private fun sortBy(choice: String) {
+        sorter?.cancel()
+        sorter = null
+        scan?.cancel()
+        val key = CardSortKey.entries.find { it.name == choice }
+        if (key == null) {
+            setSorted(null)
+            queryStatus.setText(" ")
+            return
+        }
+        val base = manifestSource
+        if (base.nrows == 0) return
+        val thisSorter = CardSorter(base.reopen(), key)
+        sorter = thisSorter
+        queryStatus.setText("sorting by $key...")
+        Thread.ofPlatform().daemon().name("CardSorter").start {
+            try {
+                val sorted = thisSorter.sort()
+                SwingUtilities.invokeLater {
+                    if (sorter !== thisSorter || manifestSource !== base) {
+                        sorted?.delete() // not wanted any more
+                    } else {
+                        sorter = null
+                        if (sorted != null) {
+                            setSorted(sorted)
+                            queryStatus.setText("sorted by $key")
+                        }
                     }
-                    this.poolMap = pools
                 }
-            }
-
-            val beanList = mutableListOf<CardBean>()
-            var index = 1
-            cardManifest!!.cards.iterator().use { iter ->
-                while (iter.hasNext() && index < ncardsToRead) {
-                    val card = iter.next()
-                    beanList.add(CardBean(card))
-                    index++
+            } catch (e: Exception) {
+                logger.error("sort by $key failed", e)
+                SwingUtilities.invokeLater {
+                    JOptionPane.showMessageDialog(this, "sort by $key failed: ${e.message}")
+                    if (sorter === thisSorter) queryStatus.setText(" ")
                 }
             }
-            cardTable.setBeans(beanList)
-            logger.debug("readCards " + index + " cards from " + auditRecordLocation)
-        } catch (e: Exception) {
-            e.printStackTrace()
-            JOptionPane.showMessageDialog(null, e.message)
-            logger.error("setAuditRecord failed", e)
-            return false
         }
-
-        return true
-    }
-
-    fun findPool(cardStyle: String?): StyleIF? {
-        return poolMap.get(cardStyle)
     }
 
-    fun setSelectedCard(bean: CardBean) {
-        localInfo.setText(bean.show())
-        localInfo.gotoTop()
+    // write the rows of the table, in order, with the visible columns
+    private fun exportCsv() {
+        val chooser = JFileChooser(prefs.get("exportDir", null))
+        chooser.setSelectedFile(File("cards.csv"))
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return
+        val file = chooser.getSelectedFile()
+        prefs.put("exportDir", file.getParent())
+
+        val source = cardModel.source.reopen() // the table keeps reading its own copy
+        val columnNames = cardTable.getColumnModel().getColumns().toList().map { it.getIdentifier().toString() }
+        val columns = columnNames.mapNotNull { name -> PagedCardTableModel.columns.find { it.name == name } }
+        val fields = PagedCardTableModel.fieldsOf(columnNames)
+        val nrows = source.nrows
+        queryStatus.setText("exporting $nrows cards...")
+        Thread.ofPlatform().daemon().name("CardExport").start {
+            try {
+                val start = System.nanoTime()
+                CardCsvWriter.write(source, columns, fields, file.toPath())
+                logger.info("exported $nrows cards to $file in ${(System.nanoTime() - start) / 1_000_000} msecs")
+                SwingUtilities.invokeLater { queryStatus.setText("exported $nrows cards to ${file.getName()}") }
+            } catch (e: Exception) {
+                logger.error("export to $file failed", e)
+                SwingUtilities.invokeLater { JOptionPane.showMessageDialog(this, "export failed: ${e.message}") }
+            }
+        }
     }
 
-    override fun saveState() {
-        cardTable.saveState(false)
-
-        prefs.putInt("splitPos1", split1.getDividerLocation())
+    // build the go to card index in the background; a new manifest stops the old one
+    private fun startIndexer(source: CardPageSource) {
+        indexer?.interrupt()
+        cardIndex = null
+        if (source.nrows == 0) return
+        indexer = Thread.ofPlatform().daemon().priority(Thread.MIN_PRIORITY).name("CardIndexer").start {
+            try {
+                val index = CardIndex.build(source.reopen()) { Thread.currentThread().isInterrupted }
+                if (index != null) SwingUtilities.invokeLater { if (manifestSource === source) cardIndex = index }
+            } catch (e: Exception) {
+                if (!Thread.currentThread().isInterrupted) logger.error("CardIndex failed", e)
+            }
+        }
     }
 
-    class CardBean(val card: AuditableCard) {
-
-        val id: String
-            get() = card.id()
-
-        val location: String
-            get() = card.location()
+    private fun gotoCard() {
+        val text = gotoField.getText().trim()
+        if (text.isEmpty()) return
+        val index = cardIndex
+        if (index == null) {
+            queryStatus.setText("still indexing the cards, try again soon")
+            return
+        }
+        val found = index.find(text)
+        if (found == null) {
+            queryStatus.setText("no card with id, location or prn '$text'")
+            return
+        }
+        if (sortedSource != null) setSorted(null) // the index is of the manifest order
+        if (cardModel.source !== manifestSource) showAll()
 
-        val manifestIndex: Int
-            get() = card.index()
+        cardTable.setRowSelectionInterval(found.row, found.row)
+        cardTable.scrollRectToVisible(cardTable.getCellRect(found.row, 0, true))
 
-        val prn: Long
-            get() = card.prn()
+        val sample = samplePrns
+        val inSample = when {
+            sample == null -> ""
+            found.prn in sample -> ", in the round ${sample.roundIdx} sample"
+            else -> ", not in the round ${sample.roundIdx} sample"
+        }
+        queryStatus.setText("'$text' is the ${found.how} of row ${found.row}$inSample")
+    }
 
-        val phantom: Boolean
-            get() = card.phantom()
+    // the manifest source is closed by setSource, not here
+    private fun setModel(source: CardPageSource) {
+        val oldModel = cardModel
+        cardModel = PagedCardTableModel(source)
+        cardModel.setFields(visibleFields())
+        cardTable.setModel(cardModel) // the columns dont change
+        oldModel.closeWindow()
+        localInfo.setText("")
+    }
 
-        val contests: String = card.possibleContests().contentToString()
+    // scan the whole manifest in the background, adding the matches to the table as theyre found
+    private fun startQuery() {
+        val query = try {
+            CardQuery.parse(queryField.getText())
+        } catch (e: IllegalArgumentException) {
+            JOptionPane.showMessageDialog(this, e.message, "Bad query", JOptionPane.ERROR_MESSAGE)
+            return
+        }
+        scan?.cancel()
+        prefs.put("query", queryField.getText())
+
+        val base = viewSource
+        val results = QueryResultSource(base)
+        setModel(results)
+        val model = cardModel
+        val total = base.nrows
+        queryStatus.setText("searching...")
+        cancelButton.setEnabled(true)
+
+        val thisScan = CardQueryScan(base.reopen(), query,
+            onMatches = { matches, nscanned ->
+                if (model === cardModel) {
+                    val oldCount = results.nrows
+                    results.append(matches)
+                    model.rowsAppended(oldCount)
+                    queryStatus.setText("${results.nrows} matches, scanned $nscanned of $total")
+                }
+            },
+            onDone = { nscanned, cancelled ->
+                if (model === cardModel) {
+                    queryStatus.setText("${results.nrows} matches of $total" + if (cancelled) " (cancelled after $nscanned)" else "")
+                    cancelButton.setEnabled(false)
+                }
+            })
+        scan = thisScan
+        thisScan.start()
+    }
 
-        val poolId: Int?
-            get() = card.poolId()
+    private fun showAll() {
+        scan?.cancel()
+        scan = null
+        cancelButton.setEnabled(false)
+        queryStatus.setText(" ")
+        setModel(viewSource)
+    }
 
-        val cardStyle: String
-            get() = card.style()!!.name()
+    fun findPool(cardStyle: String?): StyleIF? {
+        return poolMap.get(cardStyle)
+    }
 
-        val possibleContests: String = card.style()?.possibleContests().contentToString() ?: ""
+    private fun visibleFields(): Set<CardField> {
+        val names = cardTable.getColumnModel().getColumns().toList().map { it.getIdentifier().toString() }
+        return PagedCardTableModel.fieldsOf(names)
+    }
 
-        val votes = buildString {
-            if (card.votes() != null) {
-                card.votes()!!.forEach { append("${it.key}:${it.value.contentToString()}, ") }
+    // the table only has the visible fields, so read the whole card for the details
+    private fun showCard(row: Int) {
+        val model = cardModel
+        if (row < 0) return
+        if (model.fields.containsAll(CardField.ALL)) {
+            model.getCard(row)?.let { setSelectedCard(it) }
+            return
+        }
+        Thread.ofVirtual().name("CardDetails").start {
+            try {
+                val card = model.source.read(row, 1).firstOrNull()
+                SwingUtilities.invokeLater {
+                    if (card != null && model === cardModel && cardTable.selectedRow == row) setSelectedCard(card)
+                }
+            } catch (e: Exception) {
+                logger.error("read card $row failed", e)
             }
         }
+    }
 
-        fun show()= buildString {
-            appendLine(card.toString())
-            appendLine(card.style().toString())
-        }
+    fun setSelectedCard(card: CardRecord) {
+        localInfo.setText(card.toString())
+        localInfo.gotoTop()
+    }
 
-        companion object {
-            @JvmStatic
-            fun hiddenProperties() = "card";
-        }
+    override fun saveState() {
+        saveColumns(cardTable, columnStore)
+
+        prefs.putInt("splitPos1", split1.getDividerLocation())
+    }
 
+    private object EmptyPageSource : CardPageSource {
+        override val nrows = 0
+        override fun read(start: Int, count: Int, fields: Set<CardField>) = emptyList<CardRecord>()
     }
 
     companion object {
         private val logger: Logger = LoggerFactory.getLogger(CardTable::class.java)
+        private const val MANIFEST_ORDER = "manifest"
+
+        // same as BeanTable, so the column widths and visibility are kept from before
+        @JvmStatic
+        fun saveColumns(table: JTable, store: PreferencesExt) {
+            val tableColumnModel = table.getColumnModel() as HidableTableColumnModel
+            val propCols = mutableListOf<PropertyCol>()
+            val columns = tableColumnModel.getColumns(false)
+            while (columns.hasMoreElements()) {
+                val column = columns.nextElement()
+                propCols.add(PropertyCol(column.getIdentifier().toString(), column.getWidth(), tableColumnModel.isColumnVisible(column)))
+            }
+            store.putBeanCollection("propertyCol", propCols)
+        }
+
+        @JvmStatic
+        fun restoreColumns(table: JTable, store: PreferencesExt) {
+            val tableColumnModel = table.getColumnModel() as HidableTableColumnModel
+            val propColObjs = store.getBean("propertyCol", null) as? List<*> ?: return
+            var newViewIndex = 0
+            propColObjs.filterIsInstance<PropertyCol>().forEach { propCol ->
+                try {
+                    val currentViewIndex = tableColumnModel.getColumnIndex(propCol.name)
+                    val column = tableColumnModel.getColumn(currentViewIndex)
+                    column.setPreferredWidth(propCol.width)
+                    tableColumnModel.moveColumn(currentViewIndex, newViewIndex)
+                    tableColumnModel.setColumnVisible(column, propCol.isVisible)
+                    if (propCol.isVisible) ++newViewIndex
+                } catch (e: IllegalArgumentException) {
+                    logger.debug("Column ${propCol.name} was present in the preferences file but not the table.")
+                }
+            }
+        }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+package org.cryptobiotic.rlauxe.viewer
+
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.Semaphore
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Reads all the rows of a CardPageSource in chunks, and hands each chunk to a pool of threads.
+ * A random access source is read by the workers themselves; otherwise its read in order by the thread calling forEachChunk().
+ * The chunks may be processed in any order. The source is closed at the end, so give it its own.
+ */
+class ChunkedCardScan(
+    private val source: CardPageSource,
+    private val fields: Set<CardField> = CardField.ALL, // only read what process() uses
+    private val chunkSize: Int = CHUNK_SIZE,
+) {
+    private val cancelled = AtomicBoolean(false)
+    private val scanned = AtomicLong()
+    private val nthreads = Runtime.getRuntime().availableProcessors().coerceIn(1, MAX_THREADS)
+    private val workers = Executors.newFixedThreadPool(nthreads) { r ->
+        Thread(r, "ChunkedCardScan").apply { isDaemon = true }
+    }
+
+    val nrows = source.nrows
+    val nchunks = (nrows + chunkSize - 1) / chunkSize
+
+    val isCancelled get() = cancelled.get()
+
+    // rows processed so far
+    val nscanned get() = scanned.get().toInt()
+
+    fun cancel() {
+        if (cancelled.compareAndSet(false, true)) workers.shutdownNow()
+    }
+
+    /**
+     * Process all the chunks, on the worker threads; returns when theyre done or the scan is cancelled.
+     * The blocks are short lived, so theyre kept on the heap. A failed chunk cancels the scan.
+     * @return true if all the rows were processed
+     */
+    fun forEachChunk(process: (chunk: Int, first: Int, cards: CardColumns) -> Unit): Boolean {
+        val dictionary = CardDictionary()
+        val inFlight = Semaphore(2 * nthreads) // dont read too far ahead of the workers
+        try {
+            for (chunk in 0 until nchunks) {
+                while (!cancelled.get() && !inFlight.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                    // wait for a worker
+                }
+                if (cancelled.get()) break
+                val first = chunk * chunkSize
+                val count = minOf(chunkSize, nrows - first)
+                // the chunks are dropped once processed, so they stay on the heap
+                if (source.randomAccess) {
+                    // each worker reads its own chunk
+                    workers.submit { runChunk(chunk, first, inFlight, process) { CardColumns.of(dictionary, source.read(first, count, fields), offHeap = false) } }
+                } else {
+                    // the source has to be read in order, on this thread
+                    val cards = CardColumns.of(dictionary, source.read(first, count, fields), offHeap = false)
+                    workers.submit { runChunk(chunk, first, inFlight, process) { cards } }
+                }
+            }
+            workers.shutdown()
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS)
+        } catch (e: InterruptedException) {
+            cancel()
+        } catch (e: RejectedExecutionException) {
+            // cancelled while submitting
+        } catch (e: Exception) {
+            logger.error("ChunkedCardScan failed", e)
+            cancel()
+        } finally {
+            source.close()
+        }
+        return !cancelled.get()
+    }
+
+    private fun runChunk(chunk: Int, first: Int, inFlight: Semaphore, process: (Int, Int, CardColumns) -> Unit, read: () -> CardColumns) {
+        try {
+            if (cancelled.get()) return
+            val cards = read()
+            scanned.addAndGet(cards.size.toLong())
+            process(chunk, first, cards)
+        } catch (e: Exception) {
+            if (!cancelled.get()) logger.error("ChunkedCardScan chunk $chunk failed", e)
+            cancel()
+        } finally {
+            inFlight.release()
+        }
+    }
+
+    companion object {
+        private val logger: Logger = LoggerFactory.getLogger(ChunkedCardScan::class.java)
+        const val CHUNK_SIZE = 10_000
+        const val MAX_THREADS = 8
+    }
+}
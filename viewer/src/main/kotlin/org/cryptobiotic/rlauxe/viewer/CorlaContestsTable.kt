@@ -16,14 +16,12 @@ import org.cryptobiotic.rlauxe.bridge.Naming
 import org.cryptobiotic.rlauxe.core.*
 import org.cryptobiotic.rlauxe.dhondt.DHondtAssorter
 import org.cryptobiotic.rlauxe.estimate.Vunder
-import org.cryptobiotic.rlauxe.persist.AuditRecord
 import org.cryptobiotic.rlauxe.persist.CountyAuditRecord
 import org.cryptobiotic.rlauxe.util.ContestTabulation
 import org.cryptobiotic.rlauxe.util.dfn
 import org.cryptobiotic.rlauxe.util.nfn
 import org.cryptobiotic.rlauxe.util.roundToClosest
 import org.cryptobiotic.rlauxe.util.trunc
-import org.cryptobiotic.rlauxe.workflow.PersistedMvrManager
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 import ucar.ui.widget.BAMutil
@@ -34,7 +32,6 @@ import java.awt.BorderLayout
 import java.awt.event.ActionEvent
 import java.util.*
 import javax.swing.AbstractAction
-import javax.swing.JOptionPane
 import javax.swing.JPanel
 import javax.swing.JSplitPane
 import javax.swing.event.ListSelectionEvent
@@ -77,6 +74,7 @@ class CorlaContestsTable(
                 "Contests",
                 null
             )
+        contestTable.setMemoizeValues(true) // difficulty and corlaRisk are expensive
         contestTable.addListSelectionListener { e: ListSelectionEvent? ->
             val contest = contestTable.getSelectedBean()
             if (contest != null) {
@@ -124,51 +122,59 @@ class CorlaContestsTable(
         contestCountyTable.setFontSize(size)
     }
 
-    override fun setAuditRecord(auditRecordLocation: String): Boolean {
-        this.onlyShowInprogressContests = prefs.getBoolean( "onlyInProgress", false)
+    // make the beans off the EDT
+    override fun prepareAuditRecord(session: AuditRecordSession) = prepare(session, false)
 
-        this.auditRecordLocation = auditRecordLocation
-        contestTable.setBeans(null)
+    // new rounds were written; keep the selected contest
+    override fun prepareRefresh(session: AuditRecordSession, changes: Set<AuditRecordWatcher.Change>): Runnable? {
+        if (!changes.contains(AuditRecordWatcher.Change.ROUNDS)) return null
+        return prepare(session, true)
+    }
 
+    private fun prepare(session: AuditRecordSession, keepSelection: Boolean): Runnable {
+        val onlyInProgress = prefs.getBoolean( "onlyInProgress", false)
+        val auditRecordLocation = session.location
         logger.debug("setAuditRecord " + auditRecordLocation)
 
-        try {
+        val clearTable = Runnable {
+            this.onlyShowInprogressContests = onlyInProgress
             this.auditRecordLocation = auditRecordLocation
-            val record = AuditRecord.read(auditRecordLocation)
-            if (record == null) return false
-            if (record.rounds.isEmpty()) {
-                logger.info("{} first round was not started", auditRecordLocation)
-                return false
-            }
-            if (record !is CountyAuditRecord) {
-                logger.info("{} must be CountyAuditRecord", auditRecordLocation)
-                return false
-            }
+            if (!keepSelection) contestTable.setBeans(null)
+        }
+
+        val record = session.auditRecord
+        if (record.rounds.isEmpty()) {
+            logger.info("{} first round was not started", auditRecordLocation)
+            return clearTable
+        }
+        if (record !is CountyAuditRecord) {
+            logger.info("{} must be CountyAuditRecord", auditRecordLocation)
+            return clearTable
+        }
+        val setRecord = Runnable {
+            clearTable.run()
             this.countyAudit = record
-            this.lastAuditRound = countyAudit!!.rounds.last()
-            this.config = countyAudit!!.config
-            this.auditRiskLimit = config!!.riskLimit
-            CorlaContestBean.auditRiskLimit = config!!.riskLimit
-
-            val mvrManager = PersistedMvrManager(this.countyAudit!!, false)
-            val countyPools = mvrManager.countyPools()
-            if (countyPools == null) return false
+            this.lastAuditRound = record.rounds.last()
+            this.config = record.config
+            this.auditRiskLimit = record.config.riskLimit
+            CorlaContestBean.auditRiskLimit = record.config.riskLimit
+        }
+
+        val countyPools = session.countyPools
+        if (countyPools == null) return setRecord
+        val countyCvrPools = session.countyCvrPools
+        val infoMap = record.contests.associate { it.contest.info().id to it.contest.info() }
+        val contestList = makeContestBeans(record, onlyInProgress)
+
+        return Runnable {
+            setRecord.run()
             this.countyPools = countyPools
-            val countyCvrPools = mvrManager.countyCvrPools()
             if (countyCvrPools != null)
                 this.countyCvrPools = countyCvrPools.associateBy { it.countyName }
-
-            this.infos = countyAudit!!.contests.associate { it.contest.info().id to it.contest.info() }
-
-            loadAuditRecord()
-
-        } catch (e: Exception) {
-            e.printStackTrace()
-            JOptionPane.showMessageDialog(null, e.message)
-            logger.error("setAuditRecord failed", e)
+            this.infos = infoMap
+            if (keepSelection) contestTable.setBeansKeepSelection(contestList) { it.getId() }
+            else contestTable.setBeans(contestList)
         }
-
-        return true
     }
 
     fun loadAuditRecord() {
@@ -176,21 +182,24 @@ class CorlaContestsTable(
         this.lastAuditRound = auditRecord.rounds.last()
         this.config = auditRecord.config
         this.auditRiskLimit = config!!.riskLimit
+        contestTable.setBeans(makeContestBeans(auditRecord, onlyShowInprogressContests))
+    }
 
+    private fun makeContestBeans(auditRecord: CountyAuditRecord, onlyInProgress: Boolean): List<CorlaContestBean> {
         val contestRoundMap: MutableMap<Int?, ContestRound?> = HashMap<Int?, ContestRound?>()
-        for (contestRound in lastAuditRound!!.contestRounds) {
+        for (contestRound in auditRecord.rounds.last().contestRounds) {
             contestRoundMap.put(contestRound.id, contestRound)
         }
 
         val contestList = mutableListOf<CorlaContestBean>()
-        auditRecord.contests.filter { !onlyShowInprogressContests || it.preAuditStatus == TestH0Status.InProgress }.forEach { cwa ->
+        auditRecord.contests.filter { !onlyInProgress || it.preAuditStatus == TestH0Status.InProgress }.forEach { cwa ->
             val cr = contestRoundMap.get(cwa.id)
             val bean = CorlaContestBean(cwa, cr) { b -> samplingChanged = b }
             contestList.add(bean)
         }
         // sort contests by payoff
         contestList.sortBy { it.getPayoff() }
-        contestTable.setBeans(contestList)
+        return contestList
     }
 
     fun setSelectedContest(contestBean: CorlaContestBean) {
@@ -10,7 +10,6 @@ import org.cryptobiotic.rlauxe.beans.TableBeanProperty
 import org.cryptobiotic.rlauxe.beans.printTable
 import org.cryptobiotic.rlauxe.core.ContestInfo
 import org.cryptobiotic.rlauxe.estimate.Vunder
-import org.cryptobiotic.rlauxe.persist.AuditRecord.Companion.read
 import org.cryptobiotic.rlauxe.persist.CountyAuditRecord
 import org.cryptobiotic.rlauxe.persist.CountyData
 import org.cryptobiotic.rlauxe.util.ContestTabulation
@@ -126,44 +125,49 @@ class CountyTable(
         styleTable.setFontSize(size)
     }
 
-    override fun setAuditRecord(auditRecordLocation: String): Boolean {
-        logger.debug("ContestPoolsTable setAuditRecord " + auditRecordLocation)
-        countyTable.setBeans(emptyList())
-        countyContestTable.setBeans(emptyList())
-        styleTable.setBeans(emptyList())
-
-        this.auditRecordLocation = auditRecordLocation
-        val auditRecord = read(auditRecordLocation)
-        if (auditRecord == null) {
-            logger.info("ContestPoolsTable failed on read " + auditRecordLocation)
-            return false
+    // make the beans off the EDT
+    override fun prepareAuditRecord(session: AuditRecordSession): Runnable {
+        logger.debug("ContestPoolsTable setAuditRecord " + session.location)
+        val auditRecord = session.auditRecord
+        val clearTables = Runnable {
+            countyTable.setBeans(emptyList())
+            countyContestTable.setBeans(emptyList())
+            styleTable.setBeans(emptyList())
+            this.auditRecordLocation = session.location
         }
+        if (auditRecord !is CountyAuditRecord) return clearTables
 
-        if (auditRecord !is CountyAuditRecord) return false
-        this.countyRecord = auditRecord
-        this.mvrManager = PersistedMvrManager(this.countyRecord!!, false)
-
-        val countyPools = mvrManager!!.countyPools()
-        if (countyPools == null) return false
+        val countyPools = session.countyPools
+        if (countyPools == null) return Runnable {
+            clearTables.run()
+            this.countyRecord = auditRecord
+            this.mvrManager = session.mvrManager
+        }
 
-        val countyCvrs = mvrManager!!.countyCvrPools() //.associateBy { it.countyName }
-        this.countyCvrMap = if (countyCvrs == null) emptyMap() else countyCvrs.associateBy { it.countyName }
-        logger.debug("read countyCvrPools=" + countyCvrMap.size)
+        val countyCvrs = session.countyCvrPools //.associateBy { it.countyName }
+        val cvrMap = if (countyCvrs == null) emptyMap() else countyCvrs.associateBy { it.countyName }
+        logger.debug("read countyCvrPools=" + cvrMap.size)
 
-        this.infos = auditRecord.contests.associate { it.contest.info().id to it.contest.info() }
-        val countyData = countyRecord!!.countyData.associateBy { it.countyName }
+        val infoMap = auditRecord.contests.associate { it.contest.info().id to it.contest.info() }
+        val countyData = auditRecord.countyData.associateBy { it.countyName }
 
         val beanList = mutableListOf<CountyPoolsBean>()
         countyPools.forEach {
             val bean = CountyPoolsBean(it, countyData[it.countyName]!!)
-            val cvrTabs = this.countyCvrMap[ it.countyName ]
+            val cvrTabs = cvrMap[ it.countyName ]
             if (cvrTabs != null)
                 bean.cvrTabs = cvrTabs.contestTabs
             beanList.add(bean)
         }
-        countyTable.setBeans(beanList)
 
-        return true
+        return Runnable {
+            clearTables.run()
+            this.countyRecord = auditRecord
+            this.mvrManager = session.mvrManager
+            this.countyCvrMap = cvrMap
+            this.infos = infoMap
+            countyTable.setBeans(beanList)
+        }
     }
 
     fun setSelectedCounty(countyBean: CountyPoolsBean) {
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+package org.cryptobiotic.rlauxe.viewer
+
+import org.cryptobiotic.rlauxe.persist.AuditRecord
+import org.cryptobiotic.rlauxe.persist.Publisher
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import java.util.EnumSet
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+
+/**
+ * Compares every mvr with its cvr card, contest by contest. The mvrs are read into CardColumns blocks, found by card index;
+ * the manifest is scanned in parallel with a ChunkedCardScan, and each card that has an mvr is compared.
+ * Each worker thread keeps its own discrepancies and totals, which are merged at the end.
+ */
+class DiscrepancyScan(private val session: AuditRecordSession) {
+
+    enum class Kind {
+        noCvrVotes, // the card has no cvr votes, eg a pooled card
+        noMvrVotes, // the mvr has no votes, eg a phantom or missing ballot
+        noCard, // theres no card in the manifest with the mvr's index
+        contestNotOnMvr,
+        contestNotOnCvr,
+        mvrHasMore, // the mvr has all the cvr's votes and more
+        cvrHasMore, // the cvr has all the mvr's votes and more
+        different,
+    }
+
+    class Discrepancy(
+        val round: Int?,
+        val cardIndex: Int,
+        val location: String,
+        val prn: Long,
+        val poolId: Int?,
+        val contest: Int?, // null if not for one contest
+        val kind: Kind,
+        val cvrVotes: IntArray?,
+        val mvrVotes: IntArray?,
+    )
+
+    class Totals(val groupBy: String, val key: String) {
+        var ncompared = 0 // card contests compared
+        var ndiscrepancies = 0
+        val byKind = IntArray(Kind.entries.size)
+
+        fun add(other: Totals) {
+            ncompared += other.ncompared
+            ndiscrepancies += other.ndiscrepancies
+            for (i in byKind.indices) byKind[i] += other.byKind[i]
+        }
+
+        fun count(kind: Kind) = byKind[kind.ordinal]
+    }
+
+    class Result(
+        val nmvrs: Int,
+        val discrepancies: List<Discrepancy>,
+        val totals: List<Totals>, // all, then by contest, then by pool
+        val msecs: Long,
+    )
+
+    // per thread partial results
+    private class Partial {
+        val discrepancies = ArrayList<Discrepancy>()
+        val byContest = HashMap<Int, Totals>()
+        val byPool = HashMap<Int, Totals>()
+        val all = Totals("all", "all")
+
+        fun compared(contest: Int?, poolId: Int?) {
+            all.ncompared++
+            if (contest != null) contestTotals(contest).ncompared++
+            poolTotals(poolId).ncompared++
+        }
+
+        fun add(d: Discrepancy) {
+            discrepancies.add(d)
+            for (totals in listOfNotNull(all, d.contest?.let { contestTotals(it) }, poolTotals(d.poolId))) {
+                totals.ndiscrepancies++
+                totals.byKind[d.kind.ordinal]++
+            }
+        }
+
+        fun contestTotals(contest: Int) = byContest.getOrPut(contest) { Totals("contest", contest.toString()) }
+        fun poolTotals(poolId: Int?) = byPool.getOrPut(poolId ?: CardColumns.NO_POOL) { Totals("pool", poolId?.toString() ?: "none") }
+    }
+
+    @Volatile
+    private var scan: ChunkedCardScan? = null
+    @Volatile
+    private var cancelled = false
+
+    fun cancel() {
+        cancelled = true
+        scan?.cancel()
+    }
+
+    // return null if cancelled or theres nothing to compare
+    fun run(): Result? {
+        val start = System.nanoTime()
+        val auditRecord = session.auditRecord as? AuditRecord ?: return null
+        val mvrManager = session.mvrManager ?: return null
+        val rounds = auditRecord.rounds.map { round ->
+            val prns = ArrayList<Long>()
+            for (prn in round.samplePrns) prns.add(prn)
+            SamplePrns(round.roundIdx, prns.toLongArray())
+        }
+
+        // the mvrs are the sample, kept for the whole scan; the votes go off heap. the row of each card index
+        val mvrs = CardBlocks(MVR_BLOCK_SIZE)
+        try {
+            val mvrRows = HashMap<Int, Int>()
+            val dictionary = CardDictionary()
+            mvrManager.readCardsAndMerge(Publisher(session.location).sortedMvrsFile()).use { mvrIter ->
+                val builder = CardBlocks.Builder(dictionary, MVR_BLOCK_SIZE)
+                while (mvrIter.hasNext()) {
+                    if (cancelled) return null
+                    val mvr = mvrIter.next()
+                    mvrRows[mvr.index()] = builder.nrows
+                    builder.add(mvr)?.let { mvrs.append(it) }
+                }
+                builder.finish()?.let { mvrs.append(it) }
+            }
+            if (mvrs.nrows == 0) return Result(0, emptyList(), emptyList(), 0)
+            return scan(mvrs, mvrRows, rounds, start)
+        } finally {
+            mvrs.release()
+        }
+    }
+
+    private fun scan(mvrs: CardBlocks, mvrRows: Map<Int, Int>, rounds: List<SamplePrns>, start: Long): Result? {
+        val matched = ConcurrentHashMap.newKeySet<Int>() // mvr rows
+
+        val source = session.cardPageSource() ?: return null
+        val thisScan = ChunkedCardScan(source, EnumSet.of(CardField.votes))
+        scan = thisScan
+        if (cancelled) thisScan.cancel()
+
+        val partials = ConcurrentLinkedQueue<Partial>()
+        val local = ThreadLocal.withInitial { Partial().also { partials.add(it) } }
+        val complete = thisScan.forEachChunk { _, _, cards ->
+            val partial = local.get()
+            for (row in 0 until cards.size) {
+                val mvrRow = mvrRows[cards.index(row)] ?: continue
+                matched.add(mvrRow)
+                val mvr = mvrs.block(mvrRow)
+                val mvrOffset = mvrs.offset(mvrRow)
+                val round = rounds.firstOrNull { mvr.prn(mvrOffset) in it }?.roundIdx
+                compare(cards, row, mvr, mvrOffset, round, partial)
+            }
+        }
+        if (!complete) return null
+
+        // the mvrs that arent in the manifest
+        val missing = Partial()
+        for (mvrRow in 0 until mvrs.nrows) {
+            if (matched.contains(mvrRow)) continue
+            val mvr = mvrs.block(mvrRow)
+            val offset = mvrs.offset(mvrRow)
+            val prn = mvr.prn(offset)
+            val poolId = mvr.poolId(offset)
+            val round = rounds.firstOrNull { prn in it }?.roundIdx
+            missing.compared(null, poolId)
+            missing.add(Discrepancy(round, mvr.index(offset), mvr.location(offset), prn, poolId, null, Kind.noCard, null, null))
+        }
+        partials.add(missing)
+
+        val all = Totals("all", "all")
+        val byContest = sortedMapOf<Int, Totals>()
+        val byPool = sortedMapOf<Int, Totals>()
+        val discrepancies = ArrayList<Discrepancy>()
+        partials.forEach { partial ->
+            all.add(partial.all)
+            partial.byContest.forEach { (key, totals) -> byContest.getOrPut(key) { Totals(totals.groupBy, totals.key) }.add(totals) }
+            partial.byPool.forEach { (key, totals) -> byPool.getOrPut(key) { Totals(totals.groupBy, totals.key) }.add(totals) }
+            discrepancies.addAll(partial.discrepancies)
+        }
+        discrepancies.sortWith(compareBy({ it.prn }, { it.contest ?: -1 }))
+
+        val msecs = (System.nanoTime() - start) / 1_000_000
+        logger.info("DiscrepancyScan of ${mvrs.nrows} mvrs found ${discrepancies.size} discrepancies in $msecs msecs")
+        return Result(mvrs.nrows, discrepancies, listOf(all) + byContest.values + byPool.values, msecs)
+    }
+
+    private fun compare(cards: CardColumns, row: Int, mvrs: CardColumns, mvrRow: Int, round: Int?, partial: Partial) {
+        val poolId = cards.poolId(row)
+        val cvrVotes = cards.votes(row)
+        val mvrVotes = mvrs.votes(mvrRow)
+        fun discrepancy(contest: Int?, kind: Kind, cvr: IntArray?, mvrv: IntArray?) =
+            Discrepancy(round, mvrs.index(mvrRow), mvrs.location(mvrRow), mvrs.prn(mvrRow), poolId, contest, kind, cvr, mvrv)
+
+        if (cvrVotes == null || mvrVotes == null) {
+            partial.compared(null, poolId)
+            partial.add(discrepancy(null, if (cvrVotes == null) Kind.noCvrVotes else Kind.noMvrVotes, null, null))
+            return
+        }
+
+        val contests = (cvrVotes.keys + mvrVotes.keys).toSortedSet()
+        for (contest in contests) {
+            partial.compared(contest, poolId)
+            val cvr = cvrVotes[contest]
+            val mvrv = mvrVotes[contest]
+            val kind = when {
+                cvr == null -> Kind.contestNotOnCvr
+                mvrv == null -> Kind.contestNotOnMvr
+                else -> classify(cvr, mvrv)
+            }
+            if (kind != null) partial.add(discrepancy(contest, kind, cvr, mvrv))
+        }
+    }
+
+    companion object {
+        private val logger: Logger = LoggerFactory.getLogger(DiscrepancyScan::class.java)
+        private const val MVR_BLOCK_SIZE = 10_000
+
+        // null if the votes agree
+        fun classify(cvr: IntArray, mvr: IntArray): Kind? {
+            val cvrSet = cvr.toSet()
+            val mvrSet = mvr.toSet()
+            return when {
+                cvrSet == mvrSet -> null
+                mvrSet.containsAll(cvrSet) -> Kind.mvrHasMore
+                cvrSet.containsAll(mvrSet) -> Kind.cvrHasMore
+                else -> Kind.different
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+package org.cryptobiotic.rlauxe.viewer
+
+import org.cryptobiotic.rlauxe.beans.BeanTable
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import ucar.ui.widget.TextHistoryPane
+import ucar.util.prefs.PreferencesExt
+import java.awt.BorderLayout
+import javax.swing.JPanel
+import javax.swing.JSplitPane
+
+// where the mvrs differ from the cvrs, for all the sampled cards
+class DiscrepancyTable(
+    private val prefs: PreferencesExt,
+    fontSize: Float,
+) : JPanel(), ViewerPanelIF {
+    private val discrepancyTable: BeanTable<DiscrepancyBean>
+    private val totalsTable: BeanTable<TotalsBean>
+    var localInfo: TextHistoryPane = TextHistoryPane()
+
+    private val split1: JSplitPane
+    private val split2: JSplitPane
+
+    @Volatile
+    private var scan: DiscrepancyScan? = null // the one running
+
+    init {
+        discrepancyTable = BeanTable<DiscrepancyBean>(
+            DiscrepancyBean::class.java, prefs.node("discrepancyTable") as PreferencesExt, false,
+            "Discrepancies", "mvr contests that differ from the cvr"
+        )
+        discrepancyTable.addListSelectionListener { _ ->
+            val bean = discrepancyTable.getSelectedBean()
+            if (bean != null) {
+                localInfo.setText(bean.show())
+                localInfo.gotoTop()
+            }
+        }
+        totalsTable = BeanTable<TotalsBean>(
+            TotalsBean::class.java, prefs.node("totalsTable") as PreferencesExt, false,
+            "Totals", "discrepancies by contest and pool"
+        )
+        setFontSize(fontSize)
+
+        // layout of tables
+        split1 = JSplitPane(JSplitPane.VERTICAL_SPLIT, false, discrepancyTable, totalsTable)
+        split1.setDividerLocation(prefs.getInt("splitPos1", 300))
+
+        split2 = JSplitPane(JSplitPane.VERTICAL_SPLIT, false, split1, localInfo)
+        split2.setDividerLocation(prefs.getInt("splitPos2", 500))
+
+        setLayout(BorderLayout())
+        add(split2, BorderLayout.CENTER)
+
+        logger.debug("DiscrepancyTable init")
+    }
+
+    override fun setFontSize(size: Float) {
+        discrepancyTable.setFontSize(size)
+        totalsTable.setFontSize(size)
+        localInfo.setFontSize(size)
+    }
+
+    // compare off the EDT
+    override fun prepareAuditRecord(session: AuditRecordSession): Runnable {
+        logger.debug("DiscrepancyTable setAuditRecord " + session.location)
+        scan?.cancel() // an older record
+        val thisScan = DiscrepancyScan(session)
+        scan = thisScan
+        val result = thisScan.run()
+        val discrepancies = result?.discrepancies?.map { DiscrepancyBean(it) } ?: emptyList()
+        val totals = result?.totals?.map { TotalsBean(it) } ?: emptyList()
+
+        return Runnable {
+            discrepancyTable.setBeans(discrepancies)
+            totalsTable.setBeans(totals)
+            if (result == null) {
+                discrepancyTable.setHeader("Discrepancies")
+                localInfo.setText("")
+            } else {
+                discrepancyTable.setHeader("Discrepancies (${discrepancies.size} in ${result.nmvrs} mvrs)")
+                localInfo.setText("compared ${result.nmvrs} mvrs in ${result.msecs} msecs")
+            }
+        }
+    }
+
+    // new mvrs or rounds were written
+    override fun prepareRefresh(session: AuditRecordSession, changes: Set<AuditRecordWatcher.Change>): Runnable? {
+        if (!changes.contains(AuditRecordWatcher.Change.MVRS) && !changes.contains(AuditRecordWatcher.Change.ROUNDS)) return null
+        return prepareAuditRecord(session)
+    }
+
+    override fun saveState() {
+        discrepancyTable.saveState(false)
+        totalsTable.saveState(false)
+
+        prefs.putInt("splitPos1", split1.getDividerLocation())
+        prefs.putInt("splitPos2", split2.getDividerLocation())
+    }
+
+    class DiscrepancyBean(val discrepancy: DiscrepancyScan.Discrepancy) {
+
+        val round: Int?
+            get() = discrepancy.round
+
+        val cardIndex: Int
+            get() = discrepancy.cardIndex
+
+        val location: String
+            get() = discrepancy.location
+
+        val prn: Long
+            get() = discrepancy.prn
+
+        val poolId: Int?
+            get() = discrepancy.poolId
+
+        val contest: Int?
+            get() = discrepancy.contest
+
+        val kind: String
+            get() = discrepancy.kind.name
+
+        val cvrVotes: String
+            get() = discrepancy.cvrVotes?.contentToString() ?: ""
+
+        val mvrVotes: String
+            get() = discrepancy.mvrVotes?.contentToString() ?: ""
+
+        fun show() = buildString {
+            appendLine("card ${discrepancy.cardIndex} location ${discrepancy.location} prn ${discrepancy.prn}")
+            appendLine("round ${discrepancy.round ?: "none"} pool ${discrepancy.poolId ?: "none"}")
+            appendLine("contest ${discrepancy.contest ?: "all"} ${discrepancy.kind}")
+            appendLine("  cvr votes = $cvrVotes")
+            appendLine("  mvr votes = $mvrVotes")
+        }
+
+        companion object {
+            @JvmStatic
+            fun hiddenProperties() = "discrepancy"
+        }
+    }
+
+    class TotalsBean(val totals: DiscrepancyScan.Totals) {
+
+        val groupBy: String
+            get() = totals.groupBy
+
+        val key: String
+            get() = totals.key
+
+        val ncompared: Int
+            get() = totals.ncompared
+
+        val ndiscrepancies: Int
+            get() = totals.ndiscrepancies
+
+        val pctDiscrepancies: Double
+            get() = if (totals.ncompared == 0) 0.0 else 100.0 * totals.ndiscrepancies / totals.ncompared
+
+        val mvrHasMore: Int
+            get() = totals.count(DiscrepancyScan.Kind.mvrHasMore)
+
+        val cvrHasMore: Int
+            get() = totals.count(DiscrepancyScan.Kind.cvrHasMore)
+
+        val different: Int
+            get() = totals.count(DiscrepancyScan.Kind.different)
+
+        val contestMissing: Int
+            get() = totals.count(DiscrepancyScan.Kind.contestNotOnCvr) + totals.count(DiscrepancyScan.Kind.contestNotOnMvr)
+
+        val noVotes: Int
+            get() = totals.count(DiscrepancyScan.Kind.noCvrVotes) + totals.count(DiscrepancyScan.Kind.noMvrVotes) +
+                    totals.count(DiscrepancyScan.Kind.noCard)
+
+        companion object {
+            @JvmStatic
+            fun hiddenProperties() = "totals"
+        }
+    }
+
+    companion object {
+        private val logger: Logger = LoggerFactory.getLogger(DiscrepancyTable::class.java)
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+package org.cryptobiotic.rlauxe.viewer
+
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.FilterInputStream
+import java.io.FilterOutputStream
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+import java.nio.LongBuffer
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardCopyOption
+import java.nio.file.StandardOpenOption
+
+/**
+ * The byte offset of each row of a ManifestSnapshot, so any range of rows can be read without reading the ones before it.
+ * Kept next to the snapshot, as <snapshot>.idx. There are nrows + 1 offsets; the last one is the end of the last row.
+ *
+ * Layout: MAGIC, VERSION, snapshot file size, snapshot fingerprint hash, nrows, then nrows + 1 longs.
+ * The fingerprint hash ties it to one version of the snapshot, since the two files are not replaced together.
+ */
+class ManifestIndex private constructor(val nrows: Int, private val offsets: LongBuffer) {
+
+    // row in 0..nrows
+    fun offset(row: Int): Long = offsets.get(row)
+
+    companion object {
+        private val logger: Logger = LoggerFactory.getLogger(ManifestIndex::class.java)
+        private const val MAGIC = 0x524C4D49 // "RLMI"
+        private const val VERSION = 2
+        private const val HEADER_SIZE = 4 + 4 + 8 + 8 + 4
+
+        fun indexFile(snapshotFile: Path): Path = snapshotFile.resolveSibling(snapshotFile.fileName.toString() + ".idx")
+
+        // return null if missing or doesnt match the snapshot; snapshotHash is the hash of the snapshot's Fingerprint
+        fun open(snapshotFile: Path, nrows: Int, snapshotHash: Long): ManifestIndex? {
+            val file = indexFile(snapshotFile)
+            if (!Files.exists(file)) return null
+            try {
+                FileChannel.open(file, StandardOpenOption.READ).use { channel ->
+                    val expected = HEADER_SIZE + 8L * (nrows + 1)
+                    if (channel.size() != expected || expected > Int.MAX_VALUE) return null
+                    val mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, expected)
+                    if (mapped.getInt() != MAGIC || mapped.getInt() != VERSION) return null
+                    if (mapped.getLong() != Files.size(snapshotFile) || mapped.getLong() != snapshotHash || mapped.getInt() != nrows) {
+                        logger.debug("stale index $file")
+                        return null
+                    }
+                    return ManifestIndex(nrows, mapped.slice().asLongBuffer())
+                }
+            } catch (e: IOException) {
+                logger.warn("cant read index $file", e)
+                return null
+            }
+        }
+
+        // make the index by reading through the snapshot; used when theres a snapshot without one
+        fun build(snapshotFile: Path, dataStart: Long, nrows: Int, snapshotHash: Long): ManifestIndex? {
+            val start = System.nanoTime()
+            var writer: Writer? = null
+            try {
+                val indexWriter = Writer(snapshotFile)
+                writer = indexWriter
+                CountingInputStream(BufferedInputStream(Files.newInputStream(snapshotFile), 64 * 1024)).use { counting ->
+                    val input = DataInputStream(counting)
+                    input.skipNBytes(dataStart)
+                    repeat(nrows) {
+                        indexWriter.add(counting.count)
+                        CardRecord.read(input, CardField.NONE)
+                    }
+                    indexWriter.add(counting.count)
+                }
+                indexWriter.finish(Files.size(snapshotFile), nrows, snapshotHash)
+                logger.info("built index of $nrows rows for $snapshotFile in ${(System.nanoTime() - start) / 1_000_000} msecs")
+                return open(snapshotFile, nrows, snapshotHash)
+            } catch (e: Exception) {
+                logger.warn("cant build index for $snapshotFile", e)
+                writer?.abandon()
+                return null
+            }
+        }
+    }
+
+    // writes the offsets to a temp file as they come, then moves it into place
+    class Writer(private val snapshotFile: Path) : AutoCloseable {
+        private val temp = Files.createTempFile(snapshotFile.parent, ".index", ".tmp")
+        private val out = DataOutputStream(BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024))
+        private var closed = false
+
+        init {
+            out.writeInt(MAGIC)
+            out.writeInt(VERSION)
+            out.writeLong(-1) // snapshot size, filled in by finish()
+            out.writeLong(0) // snapshot hash
+            out.writeInt(-1) // nrows
+        }
+
+        fun add(offset: Long) = out.writeLong(offset)
+
+        override fun close() {
+            if (!closed) out.close()
+            closed = true
+        }
+
+        // call after the snapshot is complete and in place
+        fun finish(snapshotSize: Long, nrows: Int, snapshotHash: Long) {
+            close()
+            FileChannel.open(temp, StandardOpenOption.WRITE).use { channel ->
+                val header = java.nio.ByteBuffer.allocate(20).putLong(snapshotSize).putLong(snapshotHash).putInt(nrows).flip()
+                channel.write(header, 8)
+            }
+            Files.move(temp, indexFile(snapshotFile), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+        }
+
+        fun abandon() {
+            close()
+            Files.deleteIfExists(temp)
+        }
+    }
+}
+
+/** Read only memory mapping of a file of any size, in segments of up to 1 GB. */
+class MappedFile(path: Path) {
+    private val segments: List<MappedByteBuffer>
+    val size: Long
+
+    init {
+        FileChannel.open(path, StandardOpenOption.READ).use { channel ->
+            size = channel.size()
+            val list = mutableListOf<MappedByteBuffer>()
+            var pos = 0L
+            while (pos < size) {
+                val len = minOf(SEGMENT_SIZE.toLong(), size - pos)
+                list.add(channel.map(FileChannel.MapMode.READ_ONLY, pos, len))
+                pos += len
+            }
+            segments = list
+        }
+    }
+
+    // absolute reads, so its safe to use from more than one thread
+    fun read(offset: Long, len: Int): ByteArray {
+        require(offset >= 0 && offset + len <= size) { "read $offset + $len past end of file $size" }
+        val result = ByteArray(len)
+        var done = 0
+        while (done < len) {
+            val pos = offset + done
+            val segment = segments[(pos / SEGMENT_SIZE).toInt()]
+            val segmentPos = (pos % SEGMENT_SIZE).toInt()
+            val n = minOf(len - done, segment.limit() - segmentPos)
+            segment.get(segmentPos, result, done, n)
+            done += n
+        }
+        return result
+    }
+
+    companion object {
+        private const val SEGMENT_SIZE = 1 shl 30
+    }
+}
+
+internal class CountingInputStream(input: InputStream) : FilterInputStream(input) {
+    var count = 0L
+        private set
+
+    override fun read(): Int {
+        val b = super.read()
+        if (b >= 0) count++
+        return b
+    }
+
+    override fun read(b: ByteArray, off: Int, len: Int): Int {
+        val n = super.read(b, off, len)
+        if (n > 0) count += n
+        return n
+    }
+
+    override fun skip(n: Long): Long {
+        val skipped = super.skip(n)
+        count += skipped
+        return skipped
+    }
+}
+
+internal class CountingOutputStream(out: OutputStream) : FilterOutputStream(out) {
+    var count = 0L
+        private set
+
+    override fun write(b: Int) {
+        out.write(b)
+        count++
+    }
+
+    override fun write(b: ByteArray, off: Int, len: Int) {
+        out.write(b, off, len)
+        count += len
+    }
+}
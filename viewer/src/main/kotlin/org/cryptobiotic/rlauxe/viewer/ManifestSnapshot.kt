@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+package org.cryptobiotic.rlauxe.viewer
+
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import java.io.BufferedInputStream
+import java.io.ByteArrayInputStream
+import java.io.BufferedOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.IOException
+import java.io.RandomAccessFile
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardCopyOption
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * A compact binary copy of the card manifest of an audit record, kept in ~/.rlauxe/cache.
+ * Reading it is much faster than parsing the manifest, so reopening a record after restarting the viewer
+ * doesnt have to parse it again. It is only used if the files in the record directory still have the same
+ * sizes and modification times as when it was written.
+ *
+ * With its ManifestIndex, the snapshot is memory mapped, and any range of rows is read in constant time.
+ *
+ * Layout: MAGIC, VERSION, ncards, Fingerprint, location, then ncards CardRecords.
+ */
+class ManifestSnapshot private constructor(
+    val file: Path,
+    val ncards: Int,
+    private val dataStart: Long,
+    private val index: ManifestIndex?,
+) : CardPageSource {
+    private val mapped: MappedFile? = if (index != null) MappedFile(file) else null
+
+    override val nrows: Int
+        get() = ncards
+
+    override val randomAccess: Boolean
+        get() = index != null
+
+    override fun read(start: Int, count: Int, fields: Set<CardField>): List<CardRecord> {
+        val n = maxOf(0, minOf(count, ncards - start))
+        val result = ArrayList<CardRecord>(n)
+        if (n == 0) return result
+
+        if (index != null && mapped != null) {
+            val first = index.offset(start)
+            val bytes = mapped.read(first, (index.offset(start + n) - first).toInt())
+            val input = DataInputStream(ByteArrayInputStream(bytes))
+            repeat(n) { result.add(CardRecord.read(input, fields)) }
+            return result
+        }
+
+        // without an index, have to read through the records before start
+        DataInputStream(BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE)).use { input ->
+            input.skipNBytes(dataStart)
+            repeat(start) { CardRecord.read(input, CardField.NONE) }
+            repeat(n) { result.add(CardRecord.read(input, fields)) }
+        }
+        return result
+    }
+
+    override fun toString() = "ManifestSnapshot($file, ncards=$ncards)"
+
+    companion object {
+        private val logger: Logger = LoggerFactory.getLogger(ManifestSnapshot::class.java)
+        private const val MAGIC = 0x524C4D53 // "RLMS"
+        private const val VERSION = 1
+        private const val NCARDS_OFFSET = 8L
+        private const val BUFFER_SIZE = 64 * 1024
+
+        var enabled = true
+        var cacheDir: Path = Path.of(System.getProperty("user.home", "."), ".rlauxe", "cache")
+
+        private val building = ConcurrentHashMap.newKeySet<String>()
+
+        fun snapshotFile(location: String): Path {
+            val abs = Path.of(location).toAbsolutePath().normalize()
+            val name = abs.fileName?.toString() ?: "root"
+            return cacheDir.resolve("$name-${Integer.toHexString(abs.toString().hashCode())}.cards")
+        }
+
+        // return null if disabled, missing, or out of date
+        fun open(location: String, fingerprint: AuditRecordCache.Fingerprint): ManifestSnapshot? {
+            if (!enabled) return null
+            val file = snapshotFile(location)
+            if (!Files.exists(file)) return null
+            try {
+                DataInputStream(BufferedInputStream(Files.newInputStream(file))).use { input ->
+                    if (input.readInt() != MAGIC || input.readInt() != VERSION) return null
+                    val ncards = input.readInt()
+                    val stored = AuditRecordCache.Fingerprint(input.readInt(), input.readLong(), input.readLong(), input.readLong())
+                    val locationBytes = ByteArray(input.readInt())
+                    input.readFully(locationBytes)
+                    val storedLocation = String(locationBytes, Charsets.UTF_8)
+                    if (ncards < 0 || stored != fingerprint || storedLocation != location) {
+                        logger.debug("stale snapshot $file")
+                        return null
+                    }
+                    val dataStart = NCARDS_OFFSET + 4 + 4 + 3 * 8 + 4 + locationBytes.size
+                    val index = ManifestIndex.open(file, ncards, stored.hash) ?: ManifestIndex.build(file, dataStart, ncards, stored.hash)
+                    return ManifestSnapshot(file, ncards, dataStart, index)
+                }
+            } catch (e: IOException) {
+                logger.warn("cant read snapshot $file", e)
+                return null
+            }
+        }
+
+        // write the snapshot of the session's card manifest; runs on the calling thread.
+        // returns false if disabled, not possible for this record, or already being written by someone else.
+        fun write(session: AuditRecordSession): Boolean {
+            if (!enabled) return false
+            val mvrManager = session.mvrManager ?: return false
+            val location = session.location
+            if (!building.add(location)) return false
+
+            val file = snapshotFile(location)
+            try {
+                Files.createDirectories(cacheDir)
+                val temp = Files.createTempFile(cacheDir, ".snapshot", ".tmp")
+                val indexWriter = ManifestIndex.Writer(file)
+                try {
+                    val start = System.nanoTime()
+                    var ncards = 0
+                    val counting = CountingOutputStream(BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE))
+                    DataOutputStream(counting).use { out ->
+                        val fp = session.fingerprint
+                        out.writeInt(MAGIC)
+                        out.writeInt(VERSION)
+                        out.writeInt(-1) // ncards, filled in below
+                        out.writeInt(fp.nfiles)
+                        out.writeLong(fp.totalBytes)
+                        out.writeLong(fp.lastModified)
+                        out.writeLong(fp.hash)
+                        val locationBytes = location.toByteArray(Charsets.UTF_8)
+                        out.writeInt(locationBytes.size)
+                        out.write(locationBytes)
+                        mvrManager.sortedManifest().cards.iterator().use { iter ->
+                            while (iter.hasNext()) {
+                                indexWriter.add(counting.count)
+                                CardRecord(iter.next()).write(out)
+                                ncards++
+                            }
+                        }
+                        indexWriter.add(counting.count)
+                    }
+                    RandomAccessFile(temp.toFile(), "rw").use { raf ->
+                        raf.seek(NCARDS_OFFSET)
+                        raf.writeInt(ncards)
+                    }
+                    // the snapshot first: an old index wont match its hash, and a missing one is rebuilt
+                    val size = Files.size(temp)
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+                    indexWriter.finish(size, ncards, session.fingerprint.hash)
+                    logger.info("wrote $ncards cards to $file in ${(System.nanoTime() - start) / 1_000_000} msecs")
+                    return true
+                } finally {
+                    indexWriter.abandon()
+                    Files.deleteIfExists(temp)
+                }
+            } catch (e: Exception) {
+                logger.warn("cant write snapshot $file", e)
+                return false
+            } finally {
+                building.remove(location)
+            }
+        }
+
+        fun clear() {
+            if (!Files.isDirectory(cacheDir)) return
+            Files.list(cacheDir).use { files ->
+                files.filter { it.fileName.toString().endsWith(".cards") || it.fileName.toString().endsWith(".cards.idx") }.forEach { Files.deleteIfExists(it) }
+            }
+        }
+    }
+}
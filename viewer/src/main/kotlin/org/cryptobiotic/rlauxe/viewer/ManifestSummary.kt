@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+package org.cryptobiotic.rlauxe.viewer
+
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import java.util.EnumSet
+import java.util.concurrent.ConcurrentLinkedQueue
+
+/**
+ * Card, phantom and sampled card counts over every card in the manifest, grouped by pool, card style and possible contest.
+ * Sampled means the card's prn is in the last round's sample.
+ */
+class ManifestSummary(
+    val total: Group,
+    val groups: List<Group>,
+    val sampleRound: Int?, // null if there are no rounds yet
+    val msecs: Long,
+) {
+    enum class GroupBy { all, pool, style, contest }
+
+    class Group(val groupBy: GroupBy, val key: String, val ncards: Int, val nphantoms: Int, val nsampled: Int)
+
+    // the counts of one group
+    private class Counts {
+        var ncards = 0
+        var nphantoms = 0
+        var nsampled = 0
+
+        fun add(phantom: Boolean, sampled: Boolean) {
+            ncards++
+            if (phantom) nphantoms++
+            if (sampled) nsampled++
+        }
+
+        fun add(other: Counts) {
+            ncards += other.ncards
+            nphantoms += other.nphantoms
+            nsampled += other.nsampled
+        }
+
+        fun group(groupBy: GroupBy, key: String) = Group(groupBy, key, ncards, nphantoms, nsampled)
+    }
+
+    // one per worker thread, merged at the end. styles and contest lists are counted by dictionary id,
+    // and only turned into names and contests when merged.
+    private class Tally {
+        val total = Counts()
+        val byPool = HashMap<Int, Counts>()
+        val byStyleId = HashMap<Int, Counts>()
+        val byContestsId = HashMap<Int, Counts>()
+
+        fun add(cards: CardColumns, row: Int, sample: SamplePrns?) {
+            val phantom = cards.phantom(row)
+            val sampled = sample != null && cards.prn(row) in sample
+            total.add(phantom, sampled)
+            byPool.getOrPut(cards.poolId(row) ?: CardColumns.NO_POOL) { Counts() }.add(phantom, sampled)
+            byStyleId.getOrPut(cards.styleId(row)) { Counts() }.add(phantom, sampled)
+            byContestsId.getOrPut(cards.contestsId(row)) { Counts() }.add(phantom, sampled)
+        }
+
+        fun merge(other: Tally) {
+            total.add(other.total)
+            other.byPool.forEach { (key, counts) -> byPool.getOrPut(key) { Counts() }.add(counts) }
+            other.byStyleId.forEach { (key, counts) -> byStyleId.getOrPut(key) { Counts() }.add(counts) }
+            other.byContestsId.forEach { (key, counts) -> byContestsId.getOrPut(key) { Counts() }.add(counts) }
+        }
+    }
+
+    companion object {
+        private val logger: Logger = LoggerFactory.getLogger(ManifestSummary::class.java)
+
+        // the fields that compute() uses
+        val FIELDS: Set<CardField> = EnumSet.of(CardField.style, CardField.contests)
+
+        // return null if the scan was cancelled or failed
+        fun compute(scan: ChunkedCardScan, sample: SamplePrns?): ManifestSummary? {
+            val start = System.nanoTime()
+            val partials = ConcurrentLinkedQueue<Tally>()
+            val local = ThreadLocal.withInitial { Tally().also { partials.add(it) } }
+            var dictionary: CardDictionary? = null // the same for all the chunks
+
+            val complete = scan.forEachChunk { _, _, cards ->
+                dictionary = cards.dictionary
+                val tally = local.get()
+                for (row in 0 until cards.size) tally.add(cards, row, sample)
+            }
+            if (!complete) return null
+
+            val merged = Tally()
+            partials.forEach { merged.merge(it) }
+            val groups = mutableListOf<Group>()
+
+            merged.byPool.toSortedMap().forEach { (poolId, counts) ->
+                groups.add(counts.group(GroupBy.pool, if (poolId == CardColumns.NO_POOL) "none" else poolId.toString()))
+            }
+
+            val dict = dictionary
+            if (dict != null) {
+                val byStyle = sortedMapOf<String, Counts>()
+                merged.byStyleId.forEach { (styleId, counts) ->
+                    byStyle.getOrPut(dict.style(styleId)?.name ?: "none") { Counts() }.add(counts)
+                }
+                byStyle.forEach { (name, counts) -> groups.add(counts.group(GroupBy.style, name)) }
+
+                // a card counts for each of its possible contests
+                val byContest = sortedMapOf<Int, Counts>()
+                merged.byContestsId.forEach { (contestsId, counts) ->
+                    dict.contests(contestsId).forEach { contest -> byContest.getOrPut(contest) { Counts() }.add(counts) }
+                }
+                byContest.forEach { (contest, counts) -> groups.add(counts.group(GroupBy.contest, contest.toString())) }
+            }
+
+            val msecs = (System.nanoTime() - start) / 1_000_000
+            logger.info("ManifestSummary of ${merged.total.ncards} cards with ${partials.size} threads took $msecs msecs")
+            return ManifestSummary(merged.total.group(GroupBy.all, "all"), groups, sample?.roundIdx, msecs)
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+package org.cryptobiotic.rlauxe.viewer
+
+import org.cryptobiotic.rlauxe.beans.BeanTable
+import org.cryptobiotic.rlauxe.persist.AuditRecord
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import ucar.ui.widget.TextHistoryPane
+import ucar.util.prefs.PreferencesExt
+import java.awt.BorderLayout
+import javax.swing.JPanel
+import javax.swing.JSplitPane
+
+// card counts over the whole manifest, by pool, style and contest
+class ManifestSummaryTable(
+    private val prefs: PreferencesExt,
+    fontSize: Float,
+) : JPanel(), ViewerPanelIF {
+    private val summaryTable: BeanTable<SummaryBean>
+    var localInfo: TextHistoryPane = TextHistoryPane()
+
+    private val split1: JSplitPane
+
+    @Volatile
+    private var scan: ChunkedCardScan? = null // the one being computed
+
+    init {
+        summaryTable = BeanTable<SummaryBean>(
+            SummaryBean::class.java, prefs.node("summaryTable") as PreferencesExt, false,
+            "Manifest Summary", "counts of all the cards in the manifest"
+        )
+        setFontSize(fontSize)
+
+        // layout of tables
+        split1 = JSplitPane(JSplitPane.VERTICAL_SPLIT, false, summaryTable, localInfo)
+        split1.setDividerLocation(prefs.getInt("splitPos1", 400))
+
+        setLayout(BorderLayout())
+        add(split1, BorderLayout.CENTER)
+
+        logger.debug("ManifestSummaryTable init")
+    }
+
+    override fun setFontSize(size: Float) {
+        summaryTable.setFontSize(size)
+        localInfo.setFontSize(size)
+    }
+
+    // scan the manifest off the EDT, once per record
+    override fun prepareAuditRecord(session: AuditRecordSession): Runnable {
+        logger.debug("ManifestSummaryTable prepareAuditRecord " + session.location)
+        return prepare(session)
+    }
+
+    // a new round changes which cards are sampled, so scan the new session's manifest again
+    override fun prepareRefresh(session: AuditRecordSession, changes: Set<AuditRecordWatcher.Change>): Runnable? {
+        if (!changes.contains(AuditRecordWatcher.Change.ROUNDS) && !changes.contains(AuditRecordWatcher.Change.MVRS)) return null
+        logger.debug("ManifestSummaryTable prepareRefresh " + session.location)
+        return prepare(session)
+    }
+
+    private fun prepare(session: AuditRecordSession): Runnable {
+        scan?.cancel() // an older record or round
+        val summary = session.manifestSummary ?: compute(session)
+        val beans = summary?.groups?.map { SummaryBean(it) } ?: emptyList()
+
+        return Runnable {
+            summaryTable.setBeans(beans)
+            if (summary == null) {
+                summaryTable.setHeader("Manifest Summary")
+                localInfo.setText("")
+            } else {
+                summaryTable.setHeader("Manifest Summary (${summary.total.ncards} cards)")
+                showSummary(summary)
+            }
+        }
+    }
+
+    private fun compute(session: AuditRecordSession): ManifestSummary? {
+        val auditRecord = session.auditRecord as? AuditRecord ?: return null
+        val source = session.cardPageSource() ?: return null
+        val thisScan = ChunkedCardScan(source, ManifestSummary.FIELDS)
+        scan = thisScan
+        val summary = ManifestSummary.compute(thisScan, SamplePrns.lastRound(auditRecord))
+        if (summary != null) session.manifestSummary = summary
+        return summary
+    }
+
+    private fun showSummary(summary: ManifestSummary) {
+        localInfo.setText(buildString {
+            val total = summary.total
+            appendLine("ncards = ${total.ncards}")
+            appendLine("nphantoms = ${total.nphantoms}")
+            if (summary.sampleRound == null) {
+                appendLine("no audit rounds yet")
+            } else {
+                appendLine("nsampled = ${total.nsampled} in round ${summary.sampleRound}")
+            }
+            appendLine("computed in ${summary.msecs} msecs")
+        })
+        localInfo.gotoTop()
+    }
+
+    override fun saveState() {
+        summaryTable.saveState(false)
+
+        prefs.putInt("splitPos1", split1.getDividerLocation())
+    }
+
+    class SummaryBean(val group: ManifestSummary.Group) {
+
+        val groupBy: String
+            get() = group.groupBy.name
+
+        val key: String
+            get() = group.key
+
+        val ncards: Int
+            get() = group.ncards
+
+        val nphantoms: Int
+            get() = group.nphantoms
+
+        val nsampled: Int
+            get() = group.nsampled
+
+        val pctSampled: Double
+            get() = if (group.ncards == 0) 0.0 else 100.0 * group.nsampled / group.ncards
+
+        companion object {
+            @JvmStatic
+            fun hiddenProperties() = "group"
+        }
+    }
+
+    companion object {
+        private val logger: Logger = LoggerFactory.getLogger(ManifestSummaryTable::class.java)
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+package org.cryptobiotic.rlauxe.viewer
+
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.IntBuffer
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicLong
+
+/** The packed votes of a CardColumns block, on or off the Java heap. */
+sealed interface PackedVotes {
+    operator fun get(pos: Int): Int
+
+    // call when the block is no longer used
+    fun release() {}
+}
+
+class HeapVotes(private val values: IntArray) : PackedVotes {
+    override fun get(pos: Int) = values[pos]
+}
+
+class OffHeapVotes internal constructor(private val buffer: IntBuffer, private val nbytes: Long) : PackedVotes {
+    private val released = AtomicBoolean(false)
+
+    override fun get(pos: Int) = buffer.get(pos) // absolute, so safe from any thread
+
+    override fun release() {
+        if (released.compareAndSet(false, true)) OffHeapVoteStore.release(nbytes)
+    }
+}
+
+/**
+ * Keeps packed votes in direct ByteBuffers, outside the Java heap, up to limitBytes in total.
+ * Past the limit, or when limitBytes is 0, the votes stay on the heap.
+ * The direct memory is freed by the GC once a released block is unreachable; the limit counts blocks until they are released.
+ */
+object OffHeapVoteStore {
+    private val logger: Logger = LoggerFactory.getLogger(OffHeapVoteStore::class.java)
+
+    @Volatile
+    var limitBytes: Long = 256L * 1024 * 1024
+
+    private val used = AtomicLong()
+
+    val usedBytes: Long
+        get() = used.get()
+
+    // copy the first n values
+    fun pack(values: IntArray, n: Int): PackedVotes {
+        val nbytes = 4L * n
+        if (n > 0 && nbytes <= Int.MAX_VALUE && reserve(nbytes)) {
+            try {
+                val buffer = ByteBuffer.allocateDirect(nbytes.toInt()).order(ByteOrder.nativeOrder()).asIntBuffer()
+                buffer.put(values, 0, n)
+                return OffHeapVotes(buffer, nbytes)
+            } catch (e: OutOfMemoryError) {
+                release(nbytes)
+                logger.warn("out of direct memory, keeping votes on the heap: ${e.message}")
+            }
+        }
+        return HeapVotes(values.copyOf(n))
+    }
+
+    private fun reserve(nbytes: Long): Boolean {
+        while (true) {
+            val current = used.get()
+            if (current + nbytes > limitBytes) return false
+            if (used.compareAndSet(current, current + nbytes)) return true
+        }
+    }
+
+    internal fun release(nbytes: Long) {
+        used.addAndGet(-nbytes)
+    }
+}
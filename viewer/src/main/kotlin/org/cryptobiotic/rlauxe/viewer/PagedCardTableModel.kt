@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2026 John L. Caron
+ * See LICENSE for license information.
+ */
+package org.cryptobiotic.rlauxe.viewer
+
+import org.cryptobiotic.rlauxe.audit.AuditableCard
+import org.cryptobiotic.rlauxe.persist.SortedManifest
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import java.io.Closeable
+import java.util.EnumSet
+import java.util.concurrent.LinkedBlockingDeque
+import javax.swing.SwingUtilities
+import javax.swing.table.AbstractTableModel
+
+/** Random access to the rows of a card manifest, a page at a time. */
+interface CardPageSource : Closeable {
+    val nrows: Int
+
+    // true if any range of rows can be read quickly, from any thread
+    val randomAccess: Boolean
+        get() = false
+
+    // may be slow; never called on the EDT. only the fields asked for are filled in.
+    fun read(start: Int, count: Int, fields: Set<CardField> = CardField.ALL): List<CardRecord>
+
+    // a source for the same rows with its own read position, for another reader
+    fun reopen(): CardPageSource = this
+
+    override fun close() {}
+}
+
+/**
+ * Pages read directly from the SortedManifest, which can only be read start to finish.
+ * The iterator is kept open, so scrolling forward continues where the last page ended; going back starts over.
+ */
+class ManifestPageSource(val manifest: SortedManifest, override val nrows: Int = countCards(manifest)) : CardPageSource {
+    private var iter: Iterator<AuditableCard>? = null // the current iterator, also AutoCloseable
+    private var position = 0 // row number of the next card from iter
+
+    override fun reopen() = ManifestPageSource(manifest, nrows)
+
+    @Synchronized
+    override fun read(start: Int, count: Int, fields: Set<CardField>): List<CardRecord> {
+        var current = iter
+        if (current == null || start < position) {
+            close()
+            current = manifest.cards.iterator()
+            iter = current
+            position = 0
+        }
+        while (position < start && current.hasNext()) {
+            current.next()
+            position++
+        }
+        val result = ArrayList<CardRecord>(count)
+        while (result.size < count && current.hasNext()) {
+            result.add(CardRecord(current.next(), fields))
+            position++
+        }
+        return result
+    }
+
+    @Synchronized
+    override fun close() {
+        (iter as? AutoCloseable)?.close()
+        iter = null
+    }
+
+    companion object {
+        fun countCards(manifest: SortedManifest): Int {
+            var count = 0
+            manifest.cards.iterator().use { iter ->
+                while (iter.hasNext()) {
+                    iter.next()
+                    count++
+                }
+            }
+            return count
+        }
+    }
+}
+
+/**
+ * A TableModel of all the cards of a manifest, that keeps only a sliding window of pages in memory.
+ * Missing pages are read by a background thread as the table asks for them, most recently asked for first;
+ * their rows show as empty until then. Only use on the EDT.
+ * The pages are stored as CardColumns, and the cells are read from the columns when rendered.
+ * Only the fields of the visible columns are read; see setFields().
+ */
+class PagedCardTableModel(val source: CardPageSource) : AbstractTableModel() {
+    private val dictionary = CardDictionary()
+    private val window = LinkedHashMap<Int, CardColumns>(2 * WINDOW_PAGES, 0.75f, true) // access order
+    private val requested = LinkedBlockingDeque<Int>() // page numbers, newest first
+    private val pending = HashSet<Int>() // requested but not yet in the window
+    private val reader: Thread
+    @Volatile private var closed = false
+    @Volatile var fields: Set<CardField> = CardField.ALL
+        private set
+
+    init {
+        reader = Thread.ofPlatform().daemon().name("PagedCardReader").start(this::readPages)
+    }
+
+    override fun getRowCount() = source.nrows
+
+    override fun getColumnCount() = columns.size
+
+    override fun getColumnName(col: Int) = columns[col].name
+
+    override fun getColumnClass(col: Int) = columns[col].type
+
+    override fun getValueAt(row: Int, col: Int): Any? {
+        val page = getPage(row) ?: return null
+        val offset = row % PAGE_SIZE
+        return if (offset < page.size) columns[col].value(page, offset) else null
+    }
+
+    // return null if its not in the window yet; it will be read, and the rows updated when it arrives.
+    fun getCard(row: Int): CardRecord? {
+        val page = getPage(row) ?: return null
+        val offset = row % PAGE_SIZE
+        return if (offset < page.size) page.record(offset) else null
+    }
+
+    private fun getPage(row: Int): CardColumns? {
+        if (row < 0 || row >= source.nrows) return null
+        val pageNo = row / PAGE_SIZE
+        val page = window[pageNo]
+        if (page == null) {
+            request(pageNo)
+            return null
+        }
+        // read ahead in the direction of scrolling
+        if (row % PAGE_SIZE > PAGE_SIZE - READ_AHEAD && (pageNo + 1) * PAGE_SIZE < source.nrows) request(pageNo + 1)
+        return page
+    }
+
+    private fun request(pageNo: Int) {
+        if (closed || window.containsKey(pageNo) || !pending.add(pageNo)) return
+        requested.addFirst(pageNo)
+        // forget about pages that have scrolled by without being read
+        while (requested.size > WINDOW_PAGES) {
+            val stale = requested.pollLast() ?: break
+            pending.remove(stale)
+        }
+    }
+
+    private fun readPages() {
+        while (!closed) {
+            val pageNo = try {
+                requested.take()
+            } catch (e: InterruptedException) {
+                return
+            }
+            try {
+                val start = pageNo * PAGE_SIZE
+                val pageFields = fields
+                val page = CardColumns.of(dictionary, source.read(start, minOf(PAGE_SIZE, source.nrows - start), pageFields))
+                SwingUtilities.invokeLater { addPage(pageNo, page, pageFields) }
+            } catch (e: Exception) {
+                logger.error("read page $pageNo failed", e)
+                SwingUtilities.invokeLater { pending.remove(pageNo) }
+            }
+        }
+    }
+
+    private fun addPage(pageNo: Int, page: CardColumns, pageFields: Set<CardField>) {
+        pending.remove(pageNo)
+        val first = pageNo * PAGE_SIZE
+        // rows may have been appended since the page was read; it will be asked for again
+        if (closed || page.size < minOf(PAGE_SIZE, source.nrows - first)) {
+            page.release()
+            return
+        }
+        if (!pageFields.containsAll(fields)) {
+            page.release()
+            fireTableRowsUpdated(first, minOf(first + page.size, source.nrows) - 1) // a column was shown since; ask again
+            return
+        }
+        window.put(pageNo, page)?.release()
+        if (window.size > WINDOW_PAGES) {
+            val eldest = window.values.iterator()
+            eldest.next().release()
+            eldest.remove()
+        }
+        fireTableRowsUpdated(first, minOf(first + page.size, source.nrows) - 1)
+    }
+
+    /**
+     * Only read these fields from now on. If a field is needed that the pages in the window dont have,
+     * theyre dropped and read again as theyre shown. Call on the EDT.
+     */
+    fun setFields(newFields: Set<CardField>) {
+        val oldFields = fields
+        fields = newFields
+        if (oldFields.containsAll(newFields)) return
+        window.values.forEach { it.release() }
+        window.clear()
+        if (source.nrows > 0) fireTableRowsUpdated(0, source.nrows - 1)
+    }
+
+    // the source has grown from oldCount rows; call on the EDT
+    fun rowsAppended(oldCount: Int) {
+        val newCount = source.nrows
+        if (newCount <= oldCount) return
+        window.remove(oldCount / PAGE_SIZE)?.release() // the last page is no longer complete
+        fireTableRowsInserted(oldCount, newCount - 1)
+    }
+
+    // stop reading, and close the source; call on the EDT
+    fun close() {
+        closeWindow()
+        source.close()
+    }
+
+    // stop reading, but leave the source open for someone else; call on the EDT
+    fun closeWindow() {
+        closed = true
+        reader.interrupt()
+        window.values.forEach { it.release() }
+        window.clear()
+    }
+
+    // field is what has to be read to show the column, or null if its always read
+    class CardColumn(val name: String, val type: Class<*>, val field: CardField?, val value: (CardColumns, Int) -> Any?)
+
+    companion object {
+        private val logger: Logger = LoggerFactory.getLogger(PagedCardTableModel::class.java)
+        const val PAGE_SIZE = 500
+        const val WINDOW_PAGES = 100
+        private const val READ_AHEAD = 100
+
+        // same names as the old CardBean properties, so the saved column widths still apply
+        val columns = listOf(
+            CardColumn("manifestIndex", Int::class.javaObjectType, null) { cards, row -> cards.index(row) },
+            CardColumn("id", String::class.java, CardField.id) { cards, row -> cards.id(row) },
+            CardColumn("location", String::class.java, CardField.location) { cards, row -> cards.location(row) },
+            CardColumn("prn", Long::class.javaObjectType, null) { cards, row -> cards.prn(row) },
+            CardColumn("phantom", Boolean::class.javaObjectType, null) { cards, row -> cards.phantom(row) },
+            CardColumn("poolId", Int::class.javaObjectType, null) { cards, row -> cards.poolId(row) },
+            CardColumn("cardStyle", String::class.java, CardField.style) { cards, row -> cards.styleName(row) },
+            CardColumn("contests", String::class.java, CardField.contests) { cards, row -> cards.possibleContests(row).contentToString() },
+            CardColumn("possibleContests", String::class.java, CardField.style) { cards, row -> cards.stylePossibleContests(row).contentToString() },
+            CardColumn("votes", String::class.java, CardField.votes) { cards, row -> cards.formatVotes(row) },
+        )
+
+        // the fields needed to show these columns
+        fun fieldsOf(columnNames: Collection<String>): Set<CardField> {
+            val result = EnumSet.noneOf(CardField::class.java)
+            columns.filter { it.name in columnNames }.forEach { col -> col.field?.let { result.add(it) } }
+            return result
+        }
+    }
+}
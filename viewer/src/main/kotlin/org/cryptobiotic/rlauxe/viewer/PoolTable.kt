@@ -7,7 +7,6 @@ package org.cryptobiotic.rlauxe.viewer
 import org.cryptobiotic.rlauxe.audit.CardPool
 import org.cryptobiotic.rlauxe.beans.BeanTable
 import org.cryptobiotic.rlauxe.persist.AuditRecord
-import org.cryptobiotic.rlauxe.persist.AuditRecord.Companion.read
 import org.cryptobiotic.rlauxe.persist.CompositeAuditRecord
 import org.cryptobiotic.rlauxe.util.ContestTabulation
 import org.cryptobiotic.rlauxe.workflow.PersistedMvrManager
@@ -72,32 +71,24 @@ class PoolTable(
         contestTable.setFontSize(size)
     }
 
-    override fun setAuditRecord(auditRecordLocation: String): Boolean {
-        logger.debug("PoolTable setAuditRecord " + auditRecordLocation)
-        poolTable.setBeans(null)
-        contestTable.setBeans(null)
-
-        this.auditRecordLocation = auditRecordLocation
-        val auditRecord = read(auditRecordLocation)
-        if (auditRecord == null) {
-            logger.info("PoolTable failed on read " + auditRecordLocation)
-            return false
-        }
-
-        if (auditRecord is CompositeAuditRecord) return false
-        this.auditRecord = auditRecord as AuditRecord
-        this.mvrManager = PersistedMvrManager(this.auditRecord!!, false)
-
-        val pools = mvrManager!!.pools()
-        if (pools == null) return false
-
-        val beanList = mutableListOf<PoolBean>()
-        for (pool in pools) {
-            beanList.add(PoolBean(pool))
+    // make the beans off the EDT
+    override fun prepareAuditRecord(session: AuditRecordSession): Runnable {
+        logger.debug("PoolTable setAuditRecord " + session.location)
+        val auditRecord = session.auditRecord
+        val pools = if (auditRecord is CompositeAuditRecord) null else session.pools
+        val beanList = pools?.map { PoolBean(it) }
+
+        return Runnable {
+            poolTable.setBeans(null)
+            contestTable.setBeans(null)
+
+            this.auditRecordLocation = session.location
+            if (auditRecord !is CompositeAuditRecord) {
+                this.auditRecord = auditRecord as AuditRecord
+                this.mvrManager = session.mvrManager
+            }
+            poolTable.setBeans(beanList)
         }
-        poolTable.setBeans(beanList)
-
-        return true
     }
 
     fun setSelectedPool(bean: PoolBean) {
@@ -16,7 +16,6 @@ import org.cryptobiotic.rlauxe.betting.estRiskStandardBet
 import org.cryptobiotic.rlauxe.betting.estSampleSizeStandardBet
 import org.cryptobiotic.rlauxe.core.Assertion
 import org.cryptobiotic.rlauxe.core.ContestWithAssertions
-import org.cryptobiotic.rlauxe.persist.AuditRecord.Companion.read
 import org.cryptobiotic.rlauxe.persist.CountyAuditRecord
 import org.cryptobiotic.rlauxe.persist.CountyContestData
 import org.cryptobiotic.rlauxe.persist.CountyData
@@ -83,6 +82,7 @@ class SamplingTable(
             null
         )
         contestTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        contestTable.setMemoizeValues(true) // the changes here all call refresh()
         contestTable.addPopupOption(
             "Show Contest",
             contestTable.makeShowAction(infoTA, infoWindow) { bean: CorlaContestBean -> showContest(bean) }
@@ -124,7 +124,7 @@ class SamplingTable(
     }
 
     // may not be needed anymore
-    fun setSelectedTab() {
+    override fun setSelectedTab() {
         countMvrsByCounty() // TODO does this mean we dont need the button ??
     }
 
@@ -135,98 +135,100 @@ class SamplingTable(
         localTA.setFontSize(size)
     }
 
-    override fun setAuditRecord(auditRecordLocation: String): Boolean {
-        this.onlyShowInprogressContests = prefs.getBoolean( "onlyInProgress", false)
-        this.auditRecordLocation = auditRecordLocation
-        contestTable.setBeans(emptyList<CorlaContestBean>())
-        countyTable.setBeans(emptyList<CountyBean>())
-        countyContestTable.setBeans(emptyList<CountyContestBean>())
+    // make the beans off the EDT
+    override fun prepareAuditRecord(session: AuditRecordSession) = prepare(session, false)
 
-        logger.debug("samplingTable setAuditRecord " + auditRecordLocation)
-
-        try {
-            val record = read(auditRecordLocation)
-            if (record == null) return false
-            if (record !is CountyAuditRecord) return false
-
-            this.countyAudit = record
-            this.config = countyAudit!!.config
-            this.auditRiskLimit = config!!.riskLimit
-            lastAuditRound = countyAudit!!.rounds.last()
-
-            contestRoundMap = lastAuditRound!!.contestRounds.associateBy { it.id }
-
-            /* val mvrManager = PersistedMvrManager(this.countyAudit!!, false)
-            val countyPools = mvrManager.countyPools()
-            if (countyPools == null) return false
-            this.countyPools = countyPools
-            val countyCvrPools = mvrManager.countyCvrPools()
-            if (countyCvrPools != null)
-                this.countyCvrPools = countyCvrPools.associateBy { it.countyName }
+    // new rounds or mvrs were written; keep the selected contest and county
+    override fun prepareRefresh(session: AuditRecordSession, changes: Set<AuditRecordWatcher.Change>): Runnable? {
+        if (!changes.contains(AuditRecordWatcher.Change.ROUNDS) && !changes.contains(AuditRecordWatcher.Change.MVRS)) return null
+        return prepare(session, true)
+    }
 
-            this.infos = countyAudit!!.contests.associate { it.contest.info().id to it.contest.info() } */
+    private fun prepare(session: AuditRecordSession, keepSelection: Boolean): Runnable {
+        val onlyInProgress = prefs.getBoolean( "onlyInProgress", false)
+        val auditRecordLocation = session.location
+        logger.debug("samplingTable setAuditRecord " + auditRecordLocation)
 
-            // if (statewide != null) statewide.nmvrsUniform = countUniformMvrs;
+        val record = session.auditRecord
+        val beans = if (record is CountyAuditRecord) makeBeans(record, onlyInProgress) else null
 
-            loadAuditRecord()
+        return Runnable {
+            this.onlyShowInprogressContests = onlyInProgress
+            this.auditRecordLocation = auditRecordLocation
+            if (!keepSelection) {
+                contestTable.setBeans(emptyList<CorlaContestBean>())
+                countyTable.setBeans(emptyList<CountyBean>())
+                countyContestTable.setBeans(emptyList<CountyContestBean>())
+            }
 
-        } catch (e: Exception) {
-            e.printStackTrace()
-            JOptionPane.showMessageDialog(null, e.message)
-            logger.error("setAuditRecord failed", e)
+            if (record is CountyAuditRecord && beans != null) {
+                this.countyAudit = record
+                this.config = record.config
+                this.auditRiskLimit = record.config.riskLimit
+                this.lastAuditRound = record.rounds.last()
+                publishBeans(beans, keepSelection)
+            }
         }
-
-        return true
     }
 
     fun loadAuditRecord() {
+        publishBeans(makeBeans(countyAudit!!, onlyShowInprogressContests), false)
+    }
+
+    private class SamplingBeans(val contestList: List<CorlaContestBean>, val countyList: List<CountyBean>, val totalBean: CountyBean)
+
+    // no Swing calls, can be called off the EDT
+    private fun makeBeans(countyAudit: CountyAuditRecord, onlyInProgress: Boolean): SamplingBeans {
+        val roundMap = countyAudit.rounds.last().contestRounds.associateBy { it.id }
+
         //// contestTable
         val contestList = mutableListOf<CorlaContestBean>()
-        countyAudit!!.contests.filter { !onlyShowInprogressContests || it.preAuditStatus == TestH0Status.InProgress }.forEach { cwa ->
-            val cr = contestRoundMap.get(cwa.id)
+        countyAudit.contests.filter { !onlyInProgress || it.preAuditStatus == TestH0Status.InProgress }.forEach { cwa ->
+            val cr = roundMap.get(cwa.id)
             val bean = CorlaContestBean(cwa, cr) { b -> samplingChanged = b }
             contestList.add(bean)
         }
         // sort contests by payoff
         contestList.sortBy { it.getPayoff() }
-        contestTable.setBeans(contestList)
 
         //// countyTable
         var countUniformMvrs = 0
         var statewide: CountyBean? = null
 
         val countyList = mutableListOf<CountyBean>()
-        val _countyMap = mutableMapOf<String, CountyBean>()
-        for (countyData in countyAudit!!.countyData) {
+        for (countyData in countyAudit.countyData) {
             val bean = CountyBean(countyData)
             if (bean.name == "Statewide") statewide = bean
             else countUniformMvrs += bean.corlaSampling // statewide now included in counties, so dont count twice
-
             countyList.add(bean)
-            _countyMap.put(bean.name, bean)
         }
-        countyMap = _countyMap
 
-        val totalPopulation = countyAudit!!.countyData.filter { it.countyName != "Statewide"}.sumOf { it.npop }
+        val totalPopulation = countyAudit.countyData.filter { it.countyName != "Statewide"}.sumOf { it.npop }
         val countyTotal = CountyBean( CountyData("=Total", countUniformMvrs, totalPopulation))
         countyList.add(countyTotal)
 
         // sort counties by nmvrs
         countyList.sortByDescending { it.rlauxeSampling }
-        countyTable.setBeans(countyList)
-        this.totalBean = countyTotal
 
         // if (statewide != null) statewide.nmvrsUniform = countUniformMvrs;
-        this.countyMap = countyList.associateBy { it.name }
-        this.countyContestData = countyAudit!!.countyContestData
-        countMvrsByCounty()
+        countMvrsByCounty(countyAudit, countyList.associateBy { it.name }, countyTotal)
+        return SamplingBeans(contestList, countyList, countyTotal)
+    }
 
+    private fun publishBeans(beans: SamplingBeans, keepSelection: Boolean) {
+        // the county selection listener uses these
+        this.totalBean = beans.totalBean
+        this.countyMap = beans.countyList.associateBy { it.name }
+        this.countyContestData = countyAudit!!.countyContestData
         this.contestMap =  countyAudit!!.contests.associateBy { it.id }
         this.contestRoundMap =  lastAuditRound!!.contestRounds.associateBy { it.id }
 
-        val contestRoundMap: MutableMap<Int?, ContestRound?> = HashMap<Int?, ContestRound?>()
-        for (contestRound in this.lastAuditRound!!.contestRounds) {
-            contestRoundMap.put(contestRound.id, contestRound)
+        if (keepSelection) {
+            contestTable.setBeansKeepSelection(beans.contestList) { it.getId() }
+            countyTable.setBeansKeepSelection(beans.countyList) { it.name }
+        } else {
+            contestTable.setBeans(beans.contestList)
+            countyTable.setBeans(beans.countyList)
         }
     }
 
@@ -490,8 +492,14 @@ class SamplingTable(
     }
 
     fun countMvrsByCounty() {
+        if (countyAudit == null) return // still loading
+        countMvrsByCounty(countyAudit!!, countyMap, totalBean)
+        countyTable.refresh()
+    }
+
+    private fun countMvrsByCounty(countyAudit: CountyAuditRecord, countyMap: Map<String, CountyBean>, totalBean: CountyBean?) {
         var countMvrs = 0
-        val mvrCounts = countyAudit!!.countMvrsByCounty() // mvr counts (cardStyle sampling)
+        val mvrCounts = countyAudit.countMvrsByCounty() // mvr counts (cardStyle sampling)
         for (countyData in mvrCounts.values) {
             val countyBean = countyMap.get(countyData.countyName)
             if (countyBean != null) {
@@ -502,9 +510,8 @@ class SamplingTable(
             }
         }
         if (totalBean != null) {
-            totalBean!!.rlauxeSampling = countMvrs
+            totalBean.rlauxeSampling = countMvrs
         }
-        countyTable.refresh()
     }
 
     fun showContest(bean: CorlaContestBean) = buildString {
@@ -7,7 +7,6 @@ package org.cryptobiotic.rlauxe.viewer
 import org.cryptobiotic.rlauxe.audit.StyleIF
 import org.cryptobiotic.rlauxe.beans.BeanTable
 import org.cryptobiotic.rlauxe.persist.AuditRecord
-import org.cryptobiotic.rlauxe.persist.AuditRecord.Companion.read
 import org.cryptobiotic.rlauxe.persist.CompositeAuditRecord
 import org.cryptobiotic.rlauxe.workflow.PersistedMvrManager
 import org.slf4j.Logger
@@ -16,7 +15,6 @@ import ucar.ui.widget.IndependentWindow
 import ucar.ui.widget.TextHistoryPane
 import ucar.util.prefs.PreferencesExt
 import java.awt.BorderLayout
-import javax.swing.JOptionPane
 import javax.swing.JPanel
 import javax.swing.JSplitPane
 import javax.swing.event.ListSelectionEvent
@@ -75,37 +73,22 @@ class StyleTable(
         localInfo.setFontSize(size)
     }
 
-    override fun setAuditRecord(auditRecordLocation: String): Boolean {
-        logger.debug("StyleTable setAuditRecord " + auditRecordLocation)
-        styleTable.setBeans(null)
-
-        val auditRecord = read(auditRecordLocation)
-        if (auditRecord == null) {
-            logger.info("StyleTable failed on readFrom " + auditRecordLocation)
-            return false
-        }
-        if (auditRecord is CompositeAuditRecord) return false
-        this.auditRecord = auditRecord as AuditRecord
-        this.mvrManager = PersistedMvrManager(this.auditRecord!!, false)
-
-        try {
-            val beanList = mutableListOf<StyleBean>()
-            val styles = mvrManager!!.styles()
-            if (styles != null) {
-                for (pop in styles) {
-                    beanList.add(StyleBean(pop))
-                }
+    // make the beans off the EDT
+    override fun prepareAuditRecord(session: AuditRecordSession): Runnable {
+        logger.debug("StyleTable setAuditRecord " + session.location)
+        val auditRecord = session.auditRecord
+        val styles = if (auditRecord is CompositeAuditRecord) null else session.styles
+        val beanList = styles?.map { StyleBean(it) } ?: emptyList()
+        logger.debug("setAuditRecord bean count=${beanList.size}")
+
+        return Runnable {
+            styleTable.setBeans(null)
+            if (auditRecord !is CompositeAuditRecord) {
+                this.auditRecord = auditRecord as AuditRecord
+                this.mvrManager = session.mvrManager
+                styleTable.setBeans(beanList)
             }
-            styleTable.setBeans(beanList)
-            logger.debug("setAuditRecord bean count=${beanList.size}")
-
-        } catch (e: Exception) {
-            e.printStackTrace()
-            JOptionPane.showMessageDialog(null, e.message)
-            logger.debug("setAuditRecord failed", e)
         }
-
-        return true
     }
 
     fun setSelectedPool(bean: StyleBean) {
@@ -0,0 +1,142 @@
+package org.cryptobiotic.rlauxe.beans
+
+import ucar.util.prefs.PreferencesExt
+import javax.swing.RowSorter.SortKey
+import javax.swing.SortOrder
+import javax.swing.SwingUtilities
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class TestBeanRowSorter {
+
+    class RowBean(private val name: String, private val count: Int) {
+        fun getName() = name
+        fun getCount() = count
+        override fun toString() = name
+    }
+
+    @Test
+    fun testSortAndUndo() = onEdt {
+        val (model, sorter) = makeSorter(listOf(RowBean("c", 2), RowBean("a", 3), RowBean("b", 2), RowBean("d", 1)))
+        val count = column(model, "count")
+
+        sorter.toggleSortOrder(count)
+        assertEquals(listOf("d", "c", "b", "a"), view(model, sorter)) // ties stay in model order
+        sorter.toggleSortOrder(count)
+        assertEquals(listOf("a", "c", "b", "d"), view(model, sorter))
+        sorter.toggleSortOrder(count) // third click goes back to model order
+        assertEquals(emptyList(), sorter.sortKeys)
+        assertEquals(listOf("c", "a", "b", "d"), view(model, sorter))
+
+        sorter.toggleSortOrder(column(model, "name"))
+        assertEquals(listOf("a", "b", "c", "d"), view(model, sorter))
+        for (view in 0 until sorter.viewRowCount) assertEquals(view, sorter.convertRowIndexToView(sorter.convertRowIndexToModel(view)))
+    }
+
+    @Test
+    fun testFilter() = onEdt {
+        val (model, sorter) = makeSorter((0 until 10).map { RowBean("n$it", 9 - it) })
+        sorter.setRowFilter { it.getCount() % 3 == 0 }
+        assertEquals(listOf("n0", "n3", "n6", "n9"), view(model, sorter)) // model order
+        assertEquals(-1, sorter.convertRowIndexToView(1))
+
+        sorter.toggleSortOrder(column(model, "count"))
+        assertEquals(listOf("n9", "n6", "n3", "n0"), view(model, sorter))
+
+        // a bean the filter cant read isnt shown
+        sorter.setRowFilter { if (it.getName() == "n3") throw IllegalStateException() else true }
+        assertEquals(9, sorter.viewRowCount)
+
+        sorter.setRowFilter(null)
+        assertEquals(10, sorter.viewRowCount)
+    }
+
+    @Test
+    fun testDeleted() = onEdt {
+        val (model, sorter) = makeSorter((0 until 6).map { RowBean("n$it", 6 - it) })
+        sorter.toggleSortOrder(column(model, "count"))
+        model.beans.subList(1, 3).clear()
+        sorter.rowsDeleted(1, 2)
+        assertEquals(listOf("n5", "n4", "n3", "n0"), view(model, sorter)) // still sorted
+    }
+
+    // only the inserted rows that pass the filter are shown
+    @Test
+    fun testInsertedFiltered() = onEdt {
+        val (model, sorter) = makeSorter((0 until 4).map { RowBean("n$it", it) })
+        sorter.setRowFilter { it.getCount() % 2 == 0 }
+        assertEquals(listOf("n0", "n2"), view(model, sorter))
+
+        model.beans.addAll((4 until 8).map { RowBean("n$it", it) })
+        sorter.rowsInserted(4, 7)
+        assertEquals(listOf("n0", "n2", "n4", "n6"), view(model, sorter))
+        assertEquals(-1, sorter.convertRowIndexToView(5))
+    }
+
+    // inserted rows go at the end, and the view is sorted once, after the last insert
+    @Test
+    fun testInsertedSortedLater() {
+        val (model, sorter) = onEdtResult { makeSorter((0 until 4).map { RowBean("n$it", 10 - it) }) }
+        onEdt {
+            sorter.setRowFilter { it.getCount() != 5 }
+            sorter.toggleSortOrder(column(model, "count"))
+            assertEquals(listOf("n3", "n2", "n1", "n0"), view(model, sorter))
+            for (batch in 0 until 3) {
+                val first = model.beans.size
+                model.beans.addAll(listOf(RowBean("a$batch", batch), RowBean("b$batch", 5)))
+                sorter.rowsInserted(first, first + 1)
+            }
+            assertEquals(listOf("n3", "n2", "n1", "n0", "a0", "a1", "a2"), view(model, sorter))
+        }
+        waitFor { view(model, sorter).first() == "a0" }
+        onEdt { assertEquals(listOf("a0", "a1", "a2", "n3", "n2", "n1", "n0"), view(model, sorter)) }
+    }
+
+    // big enough to sort in the background; a newer sort cancels the one running
+    @Test
+    fun testBackgroundSortCancelled() {
+        val n = BeanRowSorter.ASYNC_ROWS * 2
+        val (model, sorter) = onEdtResult { makeSorter((0 until n).map { RowBean("n$it", (it * 7919) % n) }) }
+        onEdt {
+            sorter.toggleSortOrder(column(model, "count"))
+            assertTrue(sorter.isSorting)
+            assertEquals(n, sorter.viewRowCount) // the old order until its done
+            sorter.toggleSortOrder(column(model, "name"))
+            assertTrue(sorter.isSorting)
+        }
+        waitFor { !sorter.isSorting }
+        onEdt {
+            assertEquals(listOf(SortKey(column(model, "name"), SortOrder.ASCENDING)), sorter.sortKeys)
+            val names = view(model, sorter)
+            assertEquals(names.sortedWith(java.text.Collator.getInstance()), names)
+        }
+    }
+
+    private fun makeSorter(beans: List<RowBean>): Pair<BeanTableModel<RowBean>, BeanRowSorter<RowBean>> {
+        val model = BeanTableModel(PreferencesExt(null, ""), RowBean::class.java, beans.toMutableList(), null)
+        return Pair(model, BeanRowSorter(model))
+    }
+
+    private fun column(model: BeanTableModel<RowBean>, name: String) = model.properties.indexOfFirst { it.name == name }
+
+    private fun view(model: BeanTableModel<RowBean>, sorter: BeanRowSorter<RowBean>) =
+        (0 until sorter.viewRowCount).map { model.beans[sorter.convertRowIndexToModel(it)].getName() }
+
+    private fun onEdt(test: () -> Unit) = onEdtResult(test)
+
+    private fun <R> onEdtResult(test: () -> R): R {
+        var result: Result<R>? = null
+        SwingUtilities.invokeAndWait { result = runCatching(test) }
+        return result!!.getOrThrow()
+    }
+
+    private fun waitFor(done: () -> Boolean) {
+        val start = System.currentTimeMillis()
+        while (!onEdtResult(done)) {
+            assertFalse(System.currentTimeMillis() - start > 10_000, "timed out")
+            Thread.sleep(10)
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package org.cryptobiotic.rlauxe.viewer
+
+// the cards of a list, for the tests that read a CardPageSource
+class ListSource(private val cards: List<CardRecord>, override val randomAccess: Boolean = false) : CardPageSource {
+    override val nrows = cards.size
+    override fun read(start: Int, count: Int, fields: Set<CardField>) = cards.subList(start, start + count)
+}
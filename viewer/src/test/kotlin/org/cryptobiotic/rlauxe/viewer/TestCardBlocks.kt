@@ -0,0 +1,79 @@
+package org.cryptobiotic.rlauxe.viewer
+
+import javax.swing.event.TableModelEvent
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertNull
+
+class TestCardBlocks {
+    val cards = (0 until 2500).map { row ->
+        CardRecord(row, 10L * row, row % 100 == 0, row % 7, "id$row", "loc$row", "S${row % 3}", intArrayOf(1, 2),
+            null, mapOf(1 to intArrayOf(row % 4), 2 to intArrayOf()))
+    }
+
+    // the blocks are made on one thread and appended to the table in order, like the MvrReader and its drain timer
+    @Test
+    fun testAppend() {
+        val before = OffHeapVoteStore.usedBytes
+        val model = CardBlocksTableModel(CardBlocks(1000))
+        val inserted = ArrayList<IntRange>()
+        val deleted = ArrayList<IntRange>()
+        model.addTableModelListener { e ->
+            val rows = e.getFirstRow()..e.getLastRow()
+            if (e.getType() == TableModelEvent.INSERT) inserted.add(rows) else if (e.getType() == TableModelEvent.DELETE) deleted.add(rows)
+        }
+
+        val builder = CardBlocks.Builder(CardDictionary(), 1000)
+        cards.forEachIndexed { row, card ->
+            assertEquals(row, builder.nrows)
+            builder.add(card)?.let { model.append(it) }
+        }
+        assertEquals(2000, model.getRowCount())
+        builder.finish()?.let { model.append(it) } // the short last block
+        assertNull(builder.finish())
+
+        assertEquals(listOf(0..999, 1000..1999, 2000..2499), inserted)
+        assertEquals(cards.size, model.getRowCount())
+        for (row in listOf(0, 999, 1000, 2001, 2499)) {
+            assertEquals(cards[row].toString(), model.cards.record(row).toString())
+        }
+        assertEquals("1:[${1999 % 4}], 2:[]", model.cards.block(1999).formatVotes(model.cards.offset(1999)))
+
+        model.clear()
+        assertEquals(0, model.getRowCount())
+        assertEquals(listOf(0..2499), deleted)
+        assertEquals(before, OffHeapVoteStore.usedBytes) // the blocks are released
+    }
+
+    // a source reads across the blocks, and keeps the rows it was made with
+    @Test
+    fun testSource() {
+        val blocks = CardBlocks(1000)
+        val builder = CardBlocks.Builder(CardDictionary(), 1000)
+        cards.take(1500).forEach { card -> builder.add(card)?.let { blocks.append(it) } }
+        val source = blocks.source()
+        builder.finish()?.let { blocks.append(it) }
+
+        assertEquals(1000, source.nrows)
+        assertEquals(1500, blocks.source().nrows)
+        val paged = (0 until 1500 step 333).flatMap { blocks.source().read(it, 333, CardField.ALL) } // crosses a block
+        assertEquals(cards.take(1500).map { it.toString() }, paged.map { it.toString() })
+        assertEquals(0, source.read(1000, 10, CardField.ALL).size)
+        blocks.release()
+    }
+
+    // only the last block can be short; an empty block isnt added
+    @Test
+    fun testShortBlock() {
+        val dictionary = CardDictionary()
+        val model = CardBlocksTableModel(CardBlocks(1000))
+        model.append(CardColumns.of(dictionary, emptyList(), offHeap = false))
+        assertEquals(0, model.getRowCount())
+
+        model.append(CardColumns.of(dictionary, cards.take(10), offHeap = false))
+        assertFailsWith<IllegalArgumentException> { model.append(CardColumns.of(dictionary, cards.take(1000), offHeap = false)) }
+        assertEquals(10, model.getRowCount())
+        model.clear()
+    }
+}
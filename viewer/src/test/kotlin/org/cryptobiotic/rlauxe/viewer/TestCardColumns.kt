@@ -0,0 +1,116 @@
+package org.cryptobiotic.rlauxe.viewer
+
+import kotlin.test.Test
+import kotlin.test.assertContentEquals
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class TestCardColumns {
+    val cards = listOf(
+        CardRecord(3, 12345L, false, 2, "card-3", "box 1", "S1", intArrayOf(1, 2), intArrayOf(1, 2, 3),
+            mapOf(1 to intArrayOf(0), 2 to intArrayOf(), 3 to intArrayOf(4, 5))),
+        CardRecord(7, Long.MIN_VALUE, true, null, "", "", null, intArrayOf(), null, null),
+        CardRecord(8, 0L, false, 0, "card-8", "box 2", "S1", intArrayOf(1, 2), intArrayOf(1, 2, 3), mapOf()),
+        CardRecord(9, Long.MAX_VALUE, false, null, "card-9", "box 2", "S2", intArrayOf(4), intArrayOf(4), mapOf(4 to intArrayOf(1))),
+    )
+
+    // the same with the votes on or off the heap
+    @Test
+    fun testRoundTrip() {
+        for (offHeap in listOf(true, false)) {
+            val columns = CardColumns.of(CardDictionary(), cards, offHeap)
+            try {
+                assertEquals(cards.size, columns.size)
+                cards.forEachIndexed { row, card ->
+                    assertEquals(card.index, columns.index(row))
+                    assertEquals(card.prn, columns.prn(row))
+                    assertEquals(card.phantom, columns.phantom(row))
+                    assertEquals(card.poolId, columns.poolId(row)) // 0 is a pool, null isnt
+                    assertEquals(card.id, columns.id(row))
+                    assertEquals(card.location, columns.location(row))
+                    assertEquals(card.styleName, columns.styleName(row))
+                    assertContentEquals(card.possibleContests, columns.possibleContests(row))
+                    assertContentEquals(card.stylePossibleContests, columns.stylePossibleContests(row))
+                    assertVotes(card.votes, columns.votes(row))
+                }
+            } finally {
+                columns.release()
+            }
+        }
+    }
+
+    @Test
+    fun testFormatVotes() {
+        val columns = CardColumns.of(CardDictionary(), cards, offHeap = false)
+        assertEquals("1:[0], 2:[], 3:[4, 5]", columns.formatVotes(0))
+        assertEquals("", columns.formatVotes(1)) // no votes
+        assertEquals("", columns.formatVotes(2)) // no contests voted
+        assertEquals("4:[1]", columns.formatVotes(3))
+    }
+
+    // a vote for the contest, or the contest is possible on the card
+    @Test
+    fun testHasContest() {
+        val columns = CardColumns.of(CardDictionary(), cards, offHeap = false)
+        assertTrue(columns.hasContest(0, 3))
+        assertTrue(columns.hasContest(0, 1))
+        assertFalse(columns.hasContest(0, 4))
+        assertFalse(columns.hasContest(1, 1))
+        assertTrue(columns.hasContest(2, 2))
+        assertTrue(columns.hasContest(3, 4))
+    }
+
+    // the styles and contest lists are stored once, for all the blocks that share the dictionary
+    @Test
+    fun testDictionary() {
+        val dictionary = CardDictionary()
+        val first = CardColumns.of(dictionary, cards, offHeap = false)
+        val second = CardColumns.of(dictionary, cards.reversed(), offHeap = false)
+        assertEquals(first.styleName(0), second.styleName(3))
+        assertContentEquals(first.possibleContests(3), second.possibleContests(0))
+
+        // cards 0 and 2 share a style and a contest list, so theres 2 styles and 3 contest lists
+        assertEquals(1, dictionary.styleId("S2", intArrayOf(4)))
+        assertEquals(2, dictionary.styleId("S3", null))
+        assertEquals(CardDictionary.NO_STYLE, dictionary.styleId(null, null))
+        assertEquals(3, dictionary.contestsId(intArrayOf(9)))
+        assertEquals(0, dictionary.contestsId(intArrayOf(1, 2)))
+
+        val style = assertNotNull(dictionary.style(0))
+        assertEquals("S1", style.name)
+        assertContentEquals(intArrayOf(1, 2, 3), style.possibleContests)
+        assertNull(dictionary.style(CardDictionary.NO_STYLE))
+    }
+
+    // more votes than the builder guessed, and exactly capacity cards
+    @Test
+    fun testBuilderGrows() {
+        val big = (0 until 10).map { row ->
+            CardRecord(row, row.toLong(), false, null, "id$row", "loc$row", null, intArrayOf(1),
+                null, (1..20).associateWith { contest -> IntArray(contest % 5) { it + row } })
+        }
+        val builder = CardColumns.Builder(CardDictionary(), big.size)
+        big.forEach {
+            assertFalse(builder.isFull)
+            builder.add(it)
+        }
+        assertTrue(builder.isFull)
+
+        val columns = builder.build(offHeap = false)
+        big.forEachIndexed { row, card -> assertVotes(card.votes, columns.votes(row)) }
+        assertEquals(big[9].votes!!.keys.size, columns.formatVotes(9).split("]").size - 1)
+    }
+
+    private fun assertVotes(expected: Map<Int, IntArray>?, actual: Map<Int, IntArray>?) {
+        if (expected == null) {
+            assertNull(actual)
+            return
+        }
+        val votes = assertNotNull(actual)
+        assertEquals(expected.keys.toList(), votes.keys.toList())
+        expected.forEach { (contest, cands) -> assertContentEquals(cands, votes[contest]) }
+    }
+}
@@ -0,0 +1,85 @@
+package org.cryptobiotic.rlauxe.viewer
+
+import kotlin.random.Random
+import kotlin.test.Test
+import kotlin.test.assertContentEquals
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+
+class TestCardIndex {
+
+    @Test
+    fun testPrnOrder() {
+        assertContentEquals(IntArray(0), CardIndex.prnOrder(LongArray(0)))
+        assertContentEquals(intArrayOf(0), CardIndex.prnOrder(longArrayOf(5)))
+        assertContentEquals(intArrayOf(1, 3, 0, 2), CardIndex.prnOrder(longArrayOf(30, 10, 40, 20)))
+        assertContentEquals(intArrayOf(1, 2, 0, 3), CardIndex.prnOrder(longArrayOf(7, 3, 3, 7))) // ties in row order
+        assertContentEquals(intArrayOf(2, 0, 1), CardIndex.prnOrder(longArrayOf(0, Long.MAX_VALUE, Long.MIN_VALUE)))
+
+        val random = Random(42)
+        for (n in listOf(2, 3, 17, 1000, 4097)) {
+            val prns = LongArray(n) { random.nextLong(n / 2L + 1) } // lots of ties
+            val expected = prns.indices.sortedBy { prns[it] }.toIntArray() // stable
+            assertContentEquals(expected, CardIndex.prnOrder(prns), "n=$n")
+        }
+    }
+
+    @Test
+    fun testInPrnOrder() {
+        val cards = (0 until 25_000).map { card(it, 10L * it) } // more than one page
+        val index = assertNotNull(CardIndex.build(ListSource(cards)) { false })
+        checkIndex(cards, index)
+    }
+
+    @Test
+    fun testNotInPrnOrder() {
+        val random = Random(7)
+        val prns = (0 until 25_000).map { 10L * it }.shuffled(random)
+        val cards = prns.mapIndexed { row, prn -> card(row, prn) }
+        val index = assertNotNull(CardIndex.build(ListSource(cards)) { false })
+        checkIndex(cards, index)
+    }
+
+    @Test
+    fun testFind() {
+        val cards = listOf(card(0, 300), card(1, 100), card(2, 200))
+        val index = assertNotNull(CardIndex.build(ListSource(cards)) { false })
+
+        val byId = assertNotNull(index.find("id2"))
+        assertEquals(2, byId.row)
+        assertEquals(200L, byId.prn)
+        assertEquals("id", byId.how)
+
+        assertEquals("location", index.find(" loc1 ")?.how)
+        assertEquals(1, index.find("loc1")?.row)
+
+        val byPrn = assertNotNull(index.find("300"))
+        assertEquals(0, byPrn.row)
+        assertEquals("prn", byPrn.how)
+
+        assertNull(index.find("250"))
+        assertNull(index.find("nope"))
+        assertNull(index.find(""))
+    }
+
+    @Test
+    fun testCancelled() {
+        val cards = (0 until 10).map { card(it, it.toLong()) }
+        assertNull(CardIndex.build(ListSource(cards)) { true })
+    }
+
+    private fun checkIndex(cards: List<CardRecord>, index: CardIndex) {
+        assertEquals(cards.size, index.nrows)
+        cards.forEachIndexed { row, card ->
+            assertEquals(card.prn, index.prn(row))
+            assertEquals(row, index.rowOfPrn(card.prn))
+            assertEquals(row, index.rowOfId(card.id))
+            assertEquals(row, index.rowOfLocation(card.location))
+        }
+        assertNull(index.rowOfPrn(5))
+        assertNull(index.rowOfPrn(-1))
+    }
+
+    private fun card(row: Int, prn: Long) = CardRecord(row, prn, false, null, "id$row", "loc$row", null, intArrayOf(), null, null)
+}
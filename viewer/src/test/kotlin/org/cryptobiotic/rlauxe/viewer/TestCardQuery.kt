@@ -0,0 +1,94 @@
+package org.cryptobiotic.rlauxe.viewer
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class TestCardQuery {
+
+    @Test
+    fun testParse() {
+        val query = CardQuery.parse("  Precinct-7   id:abc prn:100-200 pool:3 style:S1 contest:12 phantom:false ")
+        assertEquals("Precinct-7", query.location)
+        assertEquals("abc", query.id)
+        assertEquals(100L, query.prnMin)
+        assertEquals(200L, query.prnMax)
+        assertEquals(3, query.poolId)
+        assertEquals("S1", query.style)
+        assertEquals(12, query.contest)
+        assertEquals(false, query.phantom)
+        assertEquals("loc:Precinct-7 id:abc prn:100-200 pool:3 style:S1 contest:12 phantom:false", query.toString())
+
+        // toString parses back to the same query
+        assertEquals(query.toString(), CardQuery.parse(query.toString()).toString())
+    }
+
+    @Test
+    fun testParsePrn() {
+        val single = CardQuery.parse("prn:42")
+        assertEquals(42L, single.prnMin)
+        assertEquals(42L, single.prnMax)
+
+        val lower = CardQuery.parse("prn:42-")
+        assertEquals(42L, lower.prnMin)
+        assertNull(lower.prnMax)
+
+        val upper = CardQuery.parse("prn:-42")
+        assertNull(upper.prnMin)
+        assertEquals(42L, upper.prnMax)
+
+        assertEquals("x", CardQuery.parse("location:x").location)
+        assertEquals("", CardQuery.parse("   ").toString())
+    }
+
+    @Test
+    fun testParseErrors() {
+        assertFailsWith<IllegalArgumentException> { CardQuery.parse("pool:x") }
+        assertFailsWith<IllegalArgumentException> { CardQuery.parse("prn:1-y") }
+        assertFailsWith<IllegalArgumentException> { CardQuery.parse("phantom:maybe") }
+        assertFailsWith<IllegalArgumentException> { CardQuery.parse("color:red") }
+        assertFailsWith<IllegalArgumentException> { CardQuery.parse("id:") }
+    }
+
+    @Test
+    fun testFields() {
+        assertEquals(CardField.NONE, CardQuery.parse("prn:1-2 pool:1 phantom:true").fields)
+        assertEquals(setOf(CardField.location, CardField.id), CardQuery.parse("loc:a id:b").fields)
+        assertEquals(setOf(CardField.style), CardQuery.parse("style:S").fields)
+        assertEquals(setOf(CardField.contests, CardField.votes), CardQuery.parse("contest:1").fields)
+    }
+
+    @Test
+    fun testMatches() {
+        val cards = CardColumns.of(CardDictionary(), listOf(
+            CardRecord(0, 100, false, null, "card-A", "Precinct-7 box 1", "S1", intArrayOf(1, 2), intArrayOf(1, 2), mapOf(1 to intArrayOf(0))),
+            CardRecord(1, 150, false, 3, "card-B", "precinct-8 box 2", "S2", intArrayOf(2), null, null),
+            CardRecord(2, 250, true, null, "phantom-1", "none", null, intArrayOf(1), null, null),
+        ), offHeap = false)
+
+        fun rows(text: String): List<Int> {
+            val query = CardQuery.parse(text)
+            return (0 until cards.size).filter { query.matches(cards, it) }
+        }
+
+        assertEquals(listOf(0, 1, 2), rows(""))
+        assertEquals(listOf(0, 1), rows("PRECINCT")) // location, ignoring case
+        assertEquals(listOf(1), rows("id:b"))
+        assertEquals(listOf(0, 1), rows("prn:100-200"))
+        assertEquals(listOf(1, 2), rows("prn:101-"))
+        assertEquals(listOf(1), rows("pool:3"))
+        assertEquals(listOf(0), rows("style:S1"))
+        assertEquals(listOf(2), rows("phantom:true"))
+        assertEquals(listOf(0, 1), rows("phantom:false"))
+        assertEquals(listOf(1), rows("precinct prn:101- phantom:false")) // all the terms must match
+
+        // a card has a contest if its in the possible contests, or voted on
+        val query = CardQuery.parse("contest:2")
+        assertTrue(query.matches(cards, 0))
+        assertTrue(query.matches(cards, 1))
+        assertFalse(query.matches(cards, 2))
+    }
+}
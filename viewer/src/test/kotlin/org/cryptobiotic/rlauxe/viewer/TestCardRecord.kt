@@ -0,0 +1,93 @@
+package org.cryptobiotic.rlauxe.viewer
+
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.util.EnumSet
+import kotlin.test.Test
+import kotlin.test.assertContentEquals
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+
+class TestCardRecord {
+    val cards = listOf(
+        CardRecord(0, 12345L, false, null, "card-1", "box 1", "S1", intArrayOf(1, 2), intArrayOf(1, 2, 3),
+            mapOf(1 to intArrayOf(0), 2 to intArrayOf(), 3 to intArrayOf(4, 5))),
+        CardRecord(1, Long.MAX_VALUE, false, 7, "card-2", "box 2", "S2", intArrayOf(2), null, null),
+        CardRecord(2, -1L, true, null, "", "", null, intArrayOf(), null, null),
+    )
+
+    @Test
+    fun testRoundTrip() {
+        val read = readBack(CardField.ALL)
+        assertEquals(cards.size, read.size)
+        cards.zip(read).forEach { (card, back) -> assertSame(card, back) }
+    }
+
+    // the fields not asked for are empty, and the ones after them are still read right
+    @Test
+    fun testFields() {
+        val read = readBack(EnumSet.of(CardField.location, CardField.votes))
+        cards.zip(read).forEach { (card, back) ->
+            assertEquals(card.index, back.index)
+            assertEquals(card.prn, back.prn)
+            assertEquals(card.phantom, back.phantom)
+            assertEquals(card.poolId, back.poolId)
+            assertEquals("", back.id)
+            assertEquals(card.location, back.location)
+            assertNull(back.styleName)
+            assertNull(back.stylePossibleContests)
+            assertContentEquals(IntArray(0), back.possibleContests)
+            assertVotes(card.votes, back.votes)
+        }
+
+        val none = readBack(CardField.NONE)
+        cards.zip(none).forEach { (card, back) ->
+            assertEquals(card.index, back.index)
+            assertEquals(card.prn, back.prn)
+            assertEquals(card.poolId, back.poolId)
+            assertEquals("", back.location)
+            assertNull(back.votes)
+        }
+    }
+
+    @Test
+    fun testColumns() {
+        val columns = CardColumns.of(CardDictionary(), cards, offHeap = false)
+        cards.forEachIndexed { row, card -> assertSame(card, columns.record(row)) }
+        assertEquals("1:[0], 2:[], 3:[4, 5]", columns.formatVotes(0))
+        assertEquals("", columns.formatVotes(1))
+    }
+
+    private fun readBack(fields: Set<CardField>): List<CardRecord> {
+        val bytes = ByteArrayOutputStream()
+        DataOutputStream(bytes).use { out -> cards.forEach { it.write(out) } }
+        val input = DataInputStream(ByteArrayInputStream(bytes.toByteArray()))
+        return cards.map { CardRecord.read(input, fields) }
+    }
+
+    private fun assertSame(expected: CardRecord, actual: CardRecord) {
+        assertEquals(expected.index, actual.index)
+        assertEquals(expected.prn, actual.prn)
+        assertEquals(expected.phantom, actual.phantom)
+        assertEquals(expected.poolId, actual.poolId)
+        assertEquals(expected.id, actual.id)
+        assertEquals(expected.location, actual.location)
+        assertEquals(expected.styleName, actual.styleName)
+        assertContentEquals(expected.possibleContests, actual.possibleContests)
+        assertContentEquals(expected.stylePossibleContests, actual.stylePossibleContests)
+        assertVotes(expected.votes, actual.votes)
+    }
+
+    private fun assertVotes(expected: Map<Int, IntArray>?, actual: Map<Int, IntArray>?) {
+        if (expected == null) {
+            assertNull(actual)
+            return
+        }
+        val votes = assertNotNull(actual)
+        assertEquals(expected.keys.toList(), votes.keys.toList())
+        expected.forEach { (contest, cands) -> assertContentEquals(cands, votes[contest]) }
+    }
+}
@@ -0,0 +1,64 @@
+package org.cryptobiotic.rlauxe.viewer
+
+import java.nio.file.Files
+import kotlin.random.Random
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+
+class TestCardSorter {
+    val random = Random(11)
+    val cards = (0 until 1000).map { row ->
+        val pool = random.nextInt(5).let { if (it == 0) null else it } // some cards have no pool
+        val style = random.nextInt(4).let { if (it == 0) null else "S$it" }
+        CardRecord(row, random.nextLong(10_000), false, pool, "id$row", "loc${random.nextInt(50)}", style,
+            intArrayOf(1), null, mapOf(1 to intArrayOf(row)))
+    }
+
+    // a small runSize, so the merge has many runs
+    @Test
+    fun testSortKeys() {
+        for (key in CardSortKey.entries) {
+            for (runSize in listOf(7, 100, 1000, 5000)) {
+                val sorted = assertNotNull(CardSorter(ListSource(cards), key, runSize).sort())
+                try {
+                    assertEquals(key, sorted.key)
+                    assertEquals(cards.size, sorted.nrows)
+                    // the comparator, and then manifest order for ties
+                    val expected = cards.sortedWith(key.comparator).map { it.index }
+                    assertEquals(expected, sorted.read(0, sorted.nrows).map { it.index }, "$key runSize=$runSize")
+                } finally {
+                    sorted.delete()
+                }
+                assertFalse(Files.exists(sorted.file))
+            }
+        }
+    }
+
+    @Test
+    fun testReadPages() {
+        val sorted = assertNotNull(CardSorter(ListSource(cards), CardSortKey.prn, 64).sort())
+        try {
+            val all = sorted.read(0, sorted.nrows)
+            val paged = (0 until sorted.nrows step 33).flatMap { sorted.read(it, 33) } // last page is short
+            assertEquals(all.map { it.index }, paged.map { it.index })
+            assertEquals(all[500].index, all[500].votes?.get(1)?.single()) // the whole card was written
+            assertEquals(0, sorted.read(sorted.nrows, 10).size)
+        } finally {
+            sorted.delete()
+        }
+    }
+
+    @Test
+    fun testEmptyAndCancelled() {
+        val empty = assertNotNull(CardSorter(ListSource(emptyList()), CardSortKey.prn, 10).sort())
+        assertEquals(0, empty.nrows)
+        empty.delete()
+
+        val sorter = CardSorter(ListSource(cards), CardSortKey.location, 10)
+        sorter.cancel()
+        assertNull(sorter.sort())
+    }
+}
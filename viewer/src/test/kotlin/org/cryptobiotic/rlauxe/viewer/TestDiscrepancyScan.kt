@@ -0,0 +1,43 @@
+package org.cryptobiotic.rlauxe.viewer
+
+import org.cryptobiotic.rlauxe.viewer.DiscrepancyScan.Kind
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+
+class TestDiscrepancyScan {
+
+    @Test
+    fun testClassify() {
+        assertNull(DiscrepancyScan.classify(intArrayOf(), intArrayOf()))
+        assertNull(DiscrepancyScan.classify(intArrayOf(2), intArrayOf(2)))
+        assertNull(DiscrepancyScan.classify(intArrayOf(1, 2), intArrayOf(2, 1))) // order doesnt matter
+        assertNull(DiscrepancyScan.classify(intArrayOf(1, 1), intArrayOf(1))) // nor repeats
+
+        assertEquals(Kind.mvrHasMore, DiscrepancyScan.classify(intArrayOf(), intArrayOf(3))) // undervote on the cvr
+        assertEquals(Kind.mvrHasMore, DiscrepancyScan.classify(intArrayOf(1), intArrayOf(1, 2)))
+        assertEquals(Kind.cvrHasMore, DiscrepancyScan.classify(intArrayOf(3), intArrayOf())) // undervote on the mvr
+        assertEquals(Kind.cvrHasMore, DiscrepancyScan.classify(intArrayOf(1, 2), intArrayOf(2)))
+        assertEquals(Kind.different, DiscrepancyScan.classify(intArrayOf(1), intArrayOf(2)))
+        assertEquals(Kind.different, DiscrepancyScan.classify(intArrayOf(1, 2), intArrayOf(2, 3)))
+    }
+
+    @Test
+    fun testTotals() {
+        val a = DiscrepancyScan.Totals("contest", "1")
+        a.ncompared = 10
+        a.ndiscrepancies = 2
+        a.byKind[Kind.different.ordinal] = 2
+        val b = DiscrepancyScan.Totals("contest", "1")
+        b.ncompared = 5
+        b.ndiscrepancies = 1
+        b.byKind[Kind.noCard.ordinal] = 1
+
+        a.add(b)
+        assertEquals(15, a.ncompared)
+        assertEquals(3, a.ndiscrepancies)
+        assertEquals(2, a.count(Kind.different))
+        assertEquals(1, a.count(Kind.noCard))
+        assertEquals(0, a.count(Kind.mvrHasMore))
+    }
+}
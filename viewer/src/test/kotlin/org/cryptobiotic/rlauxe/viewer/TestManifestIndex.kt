@@ -0,0 +1,89 @@
+package org.cryptobiotic.rlauxe.viewer
+
+import java.io.ByteArrayInputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+import kotlin.io.path.deleteRecursively
+import kotlin.io.path.listDirectoryEntries
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+
+class TestManifestIndex {
+    val nrows = 100
+    val dataStart = 16L // something before the cards, like a snapshot header
+    val hash = 0x1234_5678_9abc_def0L
+
+    @Test
+    fun testBuild() = withSnapshot { snapshot ->
+        val index = assertNotNull(ManifestIndex.build(snapshot, dataStart, nrows, hash))
+        assertEquals(nrows, index.nrows)
+        assertEquals(dataStart, index.offset(0))
+        assertEquals(Files.size(snapshot), index.offset(nrows))
+
+        // each offset is the start of its row
+        val mapped = MappedFile(snapshot)
+        for (row in listOf(0, 1, 37, nrows - 1)) {
+            val len = (index.offset(row + 1) - index.offset(row)).toInt()
+            val bytes = mapped.read(index.offset(row), len)
+            val card = CardRecord.read(DataInputStream(ByteArrayInputStream(bytes)))
+            assertEquals(row, card.index)
+            assertEquals("id$row", card.id)
+        }
+        assertNotNull(ManifestIndex.open(snapshot, nrows, hash))
+    }
+
+    @Test
+    fun testStale() = withSnapshot { snapshot ->
+        assertNull(ManifestIndex.open(snapshot, nrows, hash)) // not built yet
+        assertNotNull(ManifestIndex.build(snapshot, dataStart, nrows, hash))
+
+        assertNull(ManifestIndex.open(snapshot, nrows, hash + 1)) // another version of the snapshot
+        assertNull(ManifestIndex.open(snapshot, nrows - 1, hash))
+        assertNull(ManifestIndex.open(snapshot, nrows + 1, hash))
+
+        Files.write(snapshot, byteArrayOf(0), StandardOpenOption.APPEND) // the snapshot changed size
+        assertNull(ManifestIndex.open(snapshot, nrows, hash))
+    }
+
+    @Test
+    fun testWriter() = withSnapshot { snapshot ->
+        // a snapshot written along with its index
+        ManifestIndex.Writer(snapshot).use { writer ->
+            for (row in 0..nrows) writer.add(1000L + row)
+            writer.finish(Files.size(snapshot), nrows, hash)
+        }
+        val index = assertNotNull(ManifestIndex.open(snapshot, nrows, hash))
+        assertEquals(1000L, index.offset(0))
+        assertEquals(1000L + nrows, index.offset(nrows))
+
+        // an abandoned index leaves no temp file, and the old one in place
+        ManifestIndex.Writer(snapshot).abandon()
+        assertEquals(listOf(snapshot.fileName.toString(), ManifestIndex.indexFile(snapshot).fileName.toString()),
+            snapshot.parent.listDirectoryEntries().map { it.fileName.toString() }.sorted())
+        assertNotNull(ManifestIndex.open(snapshot, nrows, hash))
+    }
+
+    // a file with dataStart bytes, then nrows CardRecords
+    @OptIn(kotlin.io.path.ExperimentalPathApi::class)
+    private fun withSnapshot(test: (Path) -> Unit) {
+        val dir = Files.createTempDirectory("TestManifestIndex")
+        try {
+            val snapshot = dir.resolve("snapshot")
+            DataOutputStream(Files.newOutputStream(snapshot)).use { out ->
+                out.write(ByteArray(dataStart.toInt()))
+                repeat(nrows) { row ->
+                    CardRecord(row, 1000L * row, false, if (row % 3 == 0) row else null, "id$row", "location $row",
+                        "S${row % 4}", intArrayOf(1, 2), null, if (row % 2 == 0) mapOf(1 to intArrayOf(row)) else null).write(out)
+                }
+            }
+            test(snapshot)
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.cryptobiotic.rlauxe.viewer
+
+import org.cryptobiotic.rlauxe.viewer.ManifestSummary.GroupBy
+import kotlin.random.Random
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+
+class TestManifestSummary {
+    val random = Random(3)
+    val contestLists = listOf(intArrayOf(1), intArrayOf(1, 2), intArrayOf(2, 3))
+    val cards = (0 until 5000).map { row ->
+        val pool = random.nextInt(4).let { if (it == 0) null else it }
+        val style = random.nextInt(3).let { if (it == 0) null else "S$it" }
+        CardRecord(row, row * 7L, random.nextInt(20) == 0, pool, "id$row", "loc$row", style,
+            contestLists[random.nextInt(contestLists.size)], null, null)
+    }
+    val sample = SamplePrns(2, LongArray(500) { it * 70L }) // every 10th card
+
+    // small chunks, so the counts are split over all the worker threads and merged
+    @Test
+    fun testRandomAccess() = checkSummary(ListSource(cards, randomAccess = true))
+
+    @Test
+    fun testReadInOrder() = checkSummary(ListSource(cards, randomAccess = false))
+
+    @Test
+    fun testNoSample() {
+        val summary = assertNotNull(ManifestSummary.compute(ChunkedCardScan(ListSource(cards, true), ManifestSummary.FIELDS, 100), null))
+        assertNull(summary.sampleRound)
+        assertEquals(0, summary.total.nsampled)
+        assertEquals(cards.size, summary.total.ncards)
+    }
+
+    private fun checkSummary(source: CardPageSource) {
+        val summary = assertNotNull(ManifestSummary.compute(ChunkedCardScan(source, ManifestSummary.FIELDS, 37), sample))
+        assertEquals(2, summary.sampleRound)
+        checkGroup(cards, summary.total)
+        assertEquals(GroupBy.all, summary.total.groupBy)
+
+        fun groups(groupBy: GroupBy) = summary.groups.filter { it.groupBy == groupBy }.associateBy { it.key }
+
+        val byPool = groups(GroupBy.pool)
+        assertEquals(listOf("1", "2", "3", "none"), byPool.keys.sorted())
+        byPool.forEach { (key, group) -> checkGroup(cards.filter { (it.poolId?.toString() ?: "none") == key }, group) }
+
+        val byStyle = groups(GroupBy.style)
+        assertEquals(listOf("S1", "S2", "none"), byStyle.keys.toList()) // sorted by name
+        byStyle.forEach { (key, group) -> checkGroup(cards.filter { (it.styleName ?: "none") == key }, group) }
+
+        // a card counts for each of its possible contests
+        val byContest = groups(GroupBy.contest)
+        assertEquals(listOf("1", "2", "3"), byContest.keys.toList())
+        byContest.forEach { (key, group) -> checkGroup(cards.filter { key.toInt() in it.possibleContests }, group) }
+    }
+
+    private fun checkGroup(expected: List<CardRecord>, group: ManifestSummary.Group) {
+        assertEquals(expected.size, group.ncards, group.key)
+        assertEquals(expected.count { it.phantom }, group.nphantoms, group.key)
+        assertEquals(expected.count { it.prn in sample }, group.nsampled, group.key)
+    }
+}
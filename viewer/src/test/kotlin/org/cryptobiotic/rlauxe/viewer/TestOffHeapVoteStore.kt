@@ -0,0 +1,54 @@
+package org.cryptobiotic.rlauxe.viewer
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertIs
+
+class TestOffHeapVoteStore {
+    val values = IntArray(1000) { it * 3 - 500 }
+
+    @Test
+    fun testPackOffHeap() {
+        val before = OffHeapVoteStore.usedBytes
+        val votes = assertIs<OffHeapVotes>(OffHeapVoteStore.pack(values, 600)) // only the first n
+        assertEquals(before + 4 * 600, OffHeapVoteStore.usedBytes)
+        for (pos in 0 until 600) assertEquals(values[pos], votes[pos])
+
+        votes.release()
+        assertEquals(before, OffHeapVoteStore.usedBytes)
+        votes.release() // only counted once
+        assertEquals(before, OffHeapVoteStore.usedBytes)
+        assertEquals(values[599], votes[599]) // still readable after its released
+    }
+
+    // past the limit, the votes stay on the heap, and arent counted
+    @Test
+    fun testLimit() {
+        val limit = OffHeapVoteStore.limitBytes
+        val before = OffHeapVoteStore.usedBytes
+        OffHeapVoteStore.limitBytes = before + 4 * 1500
+        try {
+            val first = assertIs<OffHeapVotes>(OffHeapVoteStore.pack(values, 1000))
+            val second = assertIs<HeapVotes>(OffHeapVoteStore.pack(values, 1000))
+            assertEquals(before + 4 * 1000, OffHeapVoteStore.usedBytes)
+            for (pos in values.indices) assertEquals(values[pos], second[pos])
+
+            first.release()
+            assertIs<OffHeapVotes>(OffHeapVoteStore.pack(values, 1000)).release() // theres room again
+            second.release()
+            assertEquals(before, OffHeapVoteStore.usedBytes)
+
+            OffHeapVoteStore.limitBytes = 0
+            assertIs<HeapVotes>(OffHeapVoteStore.pack(values, 1))
+        } finally {
+            OffHeapVoteStore.limitBytes = limit
+        }
+    }
+
+    @Test
+    fun testEmpty() {
+        val before = OffHeapVoteStore.usedBytes
+        assertIs<HeapVotes>(OffHeapVoteStore.pack(values, 0))
+        assertEquals(before, OffHeapVoteStore.usedBytes)
+    }
+}